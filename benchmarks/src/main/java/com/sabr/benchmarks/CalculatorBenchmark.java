@@ -0,0 +1,85 @@
+package com.sabr.benchmarks;
+
+import com.sabr.targeting.DirectionCalculator;
+import com.sabr.targeting.DistanceCalculator;
+import com.sabr.targeting.ITargetContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time taken to compute the direction and distance of every target in a frame, in float
+ * and in fixed point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark
+{
+    @Param({"Uniform", "Clustered", "Adversarial"})
+    public TargetFrames.Layout layout;
+
+    @Param({"1", "8", "32", "127"})
+    public int targetCount;
+
+    private ITargetContainer frame;
+
+    @Setup
+    public void setUp()
+    {
+        frame = TargetFrames.create(layout, targetCount, 42);
+    }
+
+    @Benchmark
+    public float direction()
+    {
+        float sum = 0;
+        for (int i = 0; i < frame.getTargetCount(); i++)
+            sum += DirectionCalculator.calculateDirection(frame, i);
+
+        return sum;
+    }
+
+    @Benchmark
+    public int directionFixed()
+    {
+        int sum = 0;
+        for (int i = 0; i < frame.getTargetCount(); i++)
+            sum += DirectionCalculator.calculateDirectionFixed(frame, i);
+
+        return sum;
+    }
+
+    @Benchmark
+    public float distance()
+    {
+        float sum = 0;
+        for (int i = 0; i < frame.getTargetCount(); i++)
+            sum += DistanceCalculator.calculateDistance(frame, i);
+
+        return sum;
+    }
+
+    @Benchmark
+    public int distanceFixed()
+    {
+        int sum = 0;
+        for (int i = 0; i < frame.getTargetCount(); i++)
+            sum += DistanceCalculator.calculateDistanceFixed(frame, i);
+
+        return sum;
+    }
+}
@@ -0,0 +1,93 @@
+package com.sabr.benchmarks;
+
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.policies.BiggestClusterPolicy;
+import com.sabr.targeting.policies.LeastRotationPolicy;
+import com.sabr.targeting.policies.Policy;
+import com.sabr.targeting.policies.RandomPolicy;
+import com.sabr.targeting.policies.ScoringPolicy;
+import com.sabr.targeting.policies.SideFirstPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time taken by each policy to select a target from a frame.
+ *
+ * Policies remember their decisions per frame, so selecting from the same frame again would
+ * measure a lookup. The evaluate benchmark forgets the decisions first, which measures a full
+ * selection, while the repeated benchmark measures a repeated frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyBenchmark
+{
+    @Param({"LeastRotation", "LeftFirst", "BiggestClusterExact", "BiggestClusterIterative", "Scoring", "Random"})
+    public String policyName;
+
+    @Param({"Uniform", "Clustered", "Adversarial"})
+    public TargetFrames.Layout layout;
+
+    @Param({"1", "8", "32", "127"})
+    public int targetCount;
+
+    private Policy policy;
+    private ITargetContainer frame;
+
+    @Setup
+    public void setUp()
+    {
+        policy = createPolicy(policyName, new Random(42));
+        frame = TargetFrames.create(layout, targetCount, 42);
+    }
+
+    @Benchmark
+    public TargetBox evaluate()
+    {
+        policy.onRotated(0);
+        return policy.selectTargetBox(frame);
+    }
+
+    @Benchmark
+    public TargetBox repeated()
+    {
+        return policy.selectTargetBox(frame);
+    }
+
+    static Policy createPolicy(String name, Random random)
+    {
+        switch (name)
+        {
+            case "LeastRotation":
+                return new LeastRotationPolicy();
+            case "LeftFirst":
+                return new SideFirstPolicy(SideFirstPolicy.Side.Left);
+            case "BiggestClusterExact":
+                return new BiggestClusterPolicy(2, BiggestClusterPolicy.Mode.Exact, random);
+            case "BiggestClusterIterative":
+                return new BiggestClusterPolicy(2, BiggestClusterPolicy.Mode.Iterative, random);
+            case "Scoring":
+                return new ScoringPolicy();
+            case "Random":
+                return new RandomPolicy(random);
+        }
+
+        throw new IllegalArgumentException("Unknown policy " + name);
+    }
+}
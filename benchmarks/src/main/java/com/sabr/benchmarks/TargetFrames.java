@@ -0,0 +1,81 @@
+package com.sabr.benchmarks;
+
+import com.sabr.targeting.PrimitiveTargetContainer;
+import com.sabr.targeting.TargetBox;
+
+import java.util.Random;
+
+/**
+ * Generates synthetic target frames, as received from the host, for benchmarking.
+ */
+public final class TargetFrames
+{
+    /** Width of the frames the host captures. */
+    public static final short FrameWidth = 1600;
+
+    /* Box dimensions of cups within the range of the shooter. */
+    private static final int MinHeight = 90;
+    private static final int MaxHeight = 180;
+
+    /* Number of clusters, and the spread in pixels of the targets around their cluster. */
+    private static final int Clusters = 3;
+    private static final double ClusterSpread = 40.0;
+
+    public enum Layout
+    {
+        /** Targets spread evenly over the frame. */
+        Uniform,
+
+        /** Targets gathered around a few points, as when cups are placed in groups. */
+        Clustered,
+
+        /**
+         * Targets ordered by decreasing x-position, in pairs of equal boxes. This is the worst case
+         * for insertion sorts and exercises the tie breaks of the selection.
+         */
+        Adversarial
+    }
+
+    private TargetFrames()
+    {
+    }
+
+    public static PrimitiveTargetContainer create(Layout layout, int count, long seed)
+    {
+        Random random = new Random(seed);
+
+        PrimitiveTargetContainer frame = PrimitiveTargetContainer.withCapacity(count);
+        frame.setFrameWidth(FrameWidth);
+
+        double[] clusterMiddles = new double[Clusters];
+        for (int cluster = 0; cluster < Clusters; cluster++)
+            clusterMiddles[cluster] = MaxHeight + random.nextDouble() * (FrameWidth - 2 * MaxHeight);
+
+        for (int i = 0; i < count; i++)
+        {
+            int height = MinHeight + random.nextInt(MaxHeight - MinHeight + 1);
+            int x;
+            switch (layout)
+            {
+                case Clustered:
+                    x = (int) (clusterMiddles[random.nextInt(Clusters)] + random.nextGaussian() * ClusterSpread);
+                    break;
+                case Adversarial:
+                    height = MaxHeight - (i / 2) % (MaxHeight - MinHeight);
+                    x = (FrameWidth - MaxHeight) - (i / 2) * (FrameWidth - MaxHeight) / Math.max(count / 2, 1);
+                    break;
+                default:
+                    x = random.nextInt(FrameWidth - MaxHeight);
+                    break;
+            }
+
+            int width = height * 3 / 4;
+            x = Math.max(0, Math.min(x, FrameWidth - width));
+            short confidence = (short) (TargetBox.MAX_CONFIDENCE / 2 + random.nextInt(TargetBox.MAX_CONFIDENCE / 2 + 1));
+
+            frame.addTarget((short) height, (short) width, (short) x, confidence);
+        }
+
+        return frame;
+    }
+}
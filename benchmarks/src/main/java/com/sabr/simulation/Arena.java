@@ -0,0 +1,123 @@
+package com.sabr.simulation;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A flat arena of cups around the robot, seen from above.
+ *
+ * The robot stands at the origin and faces along the y-axis at a heading of zero. Cup
+ * positions are in centimeters, and angles are in degrees with positive angles to the
+ * left, as returned by DirectionCalculator. Cups are removed when they are hit.
+ */
+public class Arena
+{
+    private int _cupCount = 0;
+    private float[] _xPositions = new float[0];
+    private float[] _yPositions = new float[0];
+    private boolean[] _hit = new boolean[0];
+
+    /* The true heading of the turret, which the rotator only measures approximately. */
+    private float _heading = 0;
+
+    /**
+     * Creates an arena with the given number of cups at random, placed at distances and
+     * directions from the robot within the given ranges.
+     */
+    public static Arena createRandom(int cupCount, float minDistance, float maxDistance, float maxDirection, Random random)
+    {
+        Arena arena = new Arena();
+        for (int i = 0; i < cupCount; i++)
+        {
+            float distance = minDistance + random.nextFloat() * (maxDistance - minDistance);
+            float direction = (2 * random.nextFloat() - 1) * maxDirection;
+            arena.addCup(distance, direction);
+        }
+
+        return arena;
+    }
+
+    /** Adds a cup at the given distance and direction from the robot's starting heading. */
+    public void addCup(float distance, float direction)
+    {
+        if (_cupCount == _xPositions.length)
+        {
+            int capacity = Math.max(4, _cupCount * 2);
+            _xPositions = Arrays.copyOf(_xPositions, capacity);
+            _yPositions = Arrays.copyOf(_yPositions, capacity);
+            _hit = Arrays.copyOf(_hit, capacity);
+        }
+
+        double radians = Math.toRadians(direction);
+        _xPositions[_cupCount] = (float) (-distance * Math.sin(radians));
+        _yPositions[_cupCount] = (float) (distance * Math.cos(radians));
+        _hit[_cupCount] = false;
+        _cupCount++;
+    }
+
+    public int getCupCount()
+    {
+        return _cupCount;
+    }
+
+    /** Returns the number of cups that have not been hit. */
+    public int getRemainingCount()
+    {
+        int remaining = 0;
+        for (int cup = 0; cup < _cupCount; cup++)
+        {
+            if (!_hit[cup])
+                remaining++;
+        }
+
+        return remaining;
+    }
+
+    /** Puts back the cups that were hit, as between games. */
+    public void restore()
+    {
+        Arrays.fill(_hit, false);
+    }
+
+    public boolean isHit(int cup)
+    {
+        return _hit[cup];
+    }
+
+    public void setHit(int cup)
+    {
+        _hit[cup] = true;
+    }
+
+    /** Returns the distance in centimeters from the robot to the given cup. */
+    public float getDistance(int cup)
+    {
+        return (float) Math.hypot(_xPositions[cup], _yPositions[cup]);
+    }
+
+    /** Returns the number of degrees the turret must turn from its true heading to face the given cup. */
+    public float getDirection(int cup)
+    {
+        float bearing = (float) Math.toDegrees(Math.atan2(-_xPositions[cup], _yPositions[cup]));
+        float direction = bearing - _heading;
+
+        /* Keep the direction between -180 and 180 degrees. */
+        while (direction > 180)
+            direction -= 360;
+        while (direction < -180)
+            direction += 360;
+
+        return direction;
+    }
+
+    public float getHeading()
+    {
+        return _heading;
+    }
+
+    /** Turns the turret by the given number of degrees, as it really turns. */
+    public void turn(float degrees)
+    {
+        _heading += degrees;
+    }
+}
@@ -0,0 +1,106 @@
+package com.sabr.simulation;
+
+import com.sabr.targeting.policies.PolicyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs the robot's unmodified control loop in a simulated arena.
+ *
+ * The robot is given a simulated turret, shooter, clock and host connection, so each call of
+ * locateAndShoot goes through the same selection, rotation, prediction and shooting as on
+ * the brick. What the shot cost is measured on the simulated hardware.
+ *
+ * A simulation shares nothing with other simulations, so many can run at once, as
+ * SimulationRunner does.
+ */
+public class ArenaSimulation
+{
+    /* Presses of the shoot button per cup, after which the remaining cups are given up on. */
+    private static final int PressesPerCup = 2;
+
+    private final Arena _arena;
+    private final SimulatedClock _clock = new SimulatedClock();
+    private final SimulatedCamera _camera = new SimulatedCamera();
+    private final SimulatedConnection _connection;
+    private final SimulatedRotator _rotator;
+    private final SimulatedShooter _shooter;
+    private final SimulatedRobot _robot;
+
+    /** Creates a simulation of the given arena, with all randomness drawn from the given seed. */
+    public ArenaSimulation(Arena arena, PolicyFactory.TargetingPolicyType policyType, long seed)
+    {
+        Random random = new Random(seed);
+
+        Random connectionRandom = new Random(random.nextLong());
+        Random rotatorRandom = new Random(random.nextLong());
+        Random shooterRandom = new Random(random.nextLong());
+
+        this._arena = arena;
+        this._shooter = new SimulatedShooter(arena, _clock, shooterRandom);
+        this._connection = new SimulatedConnection(arena, _camera, _shooter, _clock, connectionRandom);
+        this._rotator = new SimulatedRotator(arena, _clock, rotatorRandom);
+
+        this._robot = new SimulatedRobot(_rotator, _shooter);
+        this._robot.Random.setSeed(random.nextLong());
+        this._robot.setClock(_clock);
+        this._robot.setTargetingPolicyType(policyType);
+
+        this._connection.awaitConnection();
+        this._robot.setConnection(_connection);
+    }
+
+    public Arena getArena()
+    {
+        return _arena;
+    }
+
+    public SimulatedCamera getCamera()
+    {
+        return _camera;
+    }
+
+    public SimulatedShooter getShooter()
+    {
+        return _shooter;
+    }
+
+    public SimulatedRobot getRobot()
+    {
+        return _robot;
+    }
+
+    /** Presses the shoot button once, and returns what it cost. */
+    public ShotResult shoot()
+    {
+        int turnsBefore = _rotator.getTurns();
+        int roundTripsBefore = _connection.getRoundTrips();
+        int shotsBefore = _shooter.getShots();
+        long timeBefore = _clock.currentTimeMillis();
+
+        _robot.locateAndShoot();
+
+        boolean shot = _shooter.getShots() > shotsBefore;
+        return new ShotResult(_rotator.getTurns() - turnsBefore, _connection.getRoundTrips() - roundTripsBefore,
+                              _clock.currentTimeMillis() - timeBefore, shot, shot && _shooter.isLastHit(),
+                              _robot.takeWarning());
+    }
+
+    /** Shoots until all cups are hit, no more can be found, or too many presses were needed. */
+    public List<ShotResult> clear()
+    {
+        List<ShotResult> results = new ArrayList<>();
+        for (int press = 0; press < PressesPerCup * _arena.getCupCount() && _arena.getRemainingCount() > 0; press++)
+        {
+            ShotResult result = shoot();
+            results.add(result);
+
+            if (!result.isShot())
+                break;
+        }
+
+        return results;
+    }
+}
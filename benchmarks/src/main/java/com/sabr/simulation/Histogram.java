@@ -0,0 +1,102 @@
+package com.sabr.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Counts of non-negative values in buckets of equal width, from which percentiles are read.
+ * Histograms of separate runs can be merged, so each thread can count into its own.
+ */
+public class Histogram
+{
+    private final long _bucketWidth;
+
+    private long[] _counts = new long[16];
+    private long _count = 0;
+    private long _sum = 0;
+    private long _max = 0;
+
+    public Histogram(long bucketWidth)
+    {
+        this._bucketWidth = bucketWidth;
+    }
+
+    public void add(long value)
+    {
+        int bucket = (int) (Math.max(value, 0) / _bucketWidth);
+        if (bucket >= _counts.length)
+            _counts = Arrays.copyOf(_counts, Math.max(bucket + 1, _counts.length * 2));
+
+        _counts[bucket]++;
+        _count++;
+        _sum += value;
+        _max = Math.max(_max, value);
+    }
+
+    /** Adds the counts of the given histogram, which must have the same bucket width. */
+    public void merge(Histogram other)
+    {
+        if (other._bucketWidth != _bucketWidth)
+            throw new IllegalArgumentException("Histograms have different bucket widths.");
+
+        if (other._counts.length > _counts.length)
+            _counts = Arrays.copyOf(_counts, other._counts.length);
+
+        for (int bucket = 0; bucket < other._counts.length; bucket++)
+            _counts[bucket] += other._counts[bucket];
+
+        _count += other._count;
+        _sum += other._sum;
+        _max = Math.max(_max, other._max);
+    }
+
+    public long getCount()
+    {
+        return _count;
+    }
+
+    public double getMean()
+    {
+        return _count == 0 ? 0 : (double) _sum / _count;
+    }
+
+    public long getMax()
+    {
+        return _max;
+    }
+
+    /**
+     * Returns the value below which the given share of the values lie, rounded up to the
+     * end of its bucket. For a bucket width of one, this is the value itself.
+     */
+    public long getPercentile(double share)
+    {
+        long rank = Math.max(1, (long) Math.ceil(share * _count));
+
+        long seen = 0;
+        for (int bucket = 0; bucket < _counts.length; bucket++)
+        {
+            seen += _counts[bucket];
+            if (seen >= rank)
+                return Math.min((bucket + 1) * _bucketWidth - 1, _max);
+        }
+
+        return _max;
+    }
+
+    public long getBucketWidth()
+    {
+        return _bucketWidth;
+    }
+
+    /** Returns the number of buckets up to the one holding the largest value. */
+    public int getBucketCount()
+    {
+        return _count == 0 ? 0 : (int) (_max / _bucketWidth) + 1;
+    }
+
+    /** Returns the number of values in the given bucket, which starts at bucket times the bucket width. */
+    public long getBucket(int bucket)
+    {
+        return bucket < _counts.length ? _counts[bucket] : 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sabr.simulation;
+
+/**
+ * What one press of the shoot button cost in the simulated arena, and whether it hit.
+ */
+public class ShotResult
+{
+    private final int _rotations;
+    private final int _roundTrips;
+    private final long _milliseconds;
+    private final boolean _shot;
+    private final boolean _hit;
+    private final String _warning;
+
+    public ShotResult(int rotations, int roundTrips, long milliseconds, boolean shot, boolean hit, String warning)
+    {
+        this._rotations = rotations;
+        this._roundTrips = roundTrips;
+        this._milliseconds = milliseconds;
+        this._shot = shot;
+        this._hit = hit;
+        this._warning = warning;
+    }
+
+    public int getRotations()
+    {
+        return _rotations;
+    }
+
+    /** The number of requests answered by the host. */
+    public int getRoundTrips()
+    {
+        return _roundTrips;
+    }
+
+    /** The simulated time from the press to the end of the shot. */
+    public long getMilliseconds()
+    {
+        return _milliseconds;
+    }
+
+    /** Whether a ball was shot, which it is not if no target was found or it was out of range. */
+    public boolean isShot()
+    {
+        return _shot;
+    }
+
+    public boolean isHit()
+    {
+        return _hit;
+    }
+
+    /** The warning the robot gave instead of shooting, or null. */
+    public String getWarning()
+    {
+        return _warning;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "rotations: " + _rotations + ", round trips: " + _roundTrips + ", time: " + _milliseconds + " ms, "
+               + (_warning != null ? _warning : _hit ? "hit" : "missed");
+    }
+}
@@ -0,0 +1,137 @@
+package com.sabr.simulation;
+
+import com.sabr.targeting.PrimitiveTargetContainer;
+import com.sabr.targeting.TargetBox;
+
+import java.util.Random;
+
+/**
+ * Synthesizes the boxes the host would detect in a frame of the arena.
+ *
+ * Cups are projected through a pinhole camera on the turret. A cup at an angle of a from
+ * the heading appears at a horizontal offset of f * tan(a) from the middle of the frame,
+ * where f is the focal length in pixels, and its pixel height is inversely proportional to
+ * its depth along the heading. The camera matches the one the robot's CameraModel is
+ * calibrated for, so without noise the robot finds the cups where they are, apart from the
+ * depth of cups off to the side.
+ *
+ * Detections are disturbed by Gaussian noise on their position and size, cups are missed at
+ * random, and boxes that are not cups are added at random, all with a confidence.
+ */
+public class SimulatedCamera
+{
+    public static final short DefaultFrameWidth = 1600;
+
+    /* Angle from the middle of the view to the edge of it, and the pixel height of a cup at a distance. */
+    private static final float HalfFieldOfView = 33.0f;
+    private static final float ReferenceHeight = 133.0f;
+    private static final float ReferenceDistance = 120.0f;
+
+    /* Width of a cup's box relative to its height. */
+    private static final float AspectRatio = 0.75f;
+
+    /* Confidences of cups, which drop with the size of their noise, and of false detections. */
+    private static final int MinCupConfidence = 160;
+    private static final int MaxFalseConfidence = 200;
+
+    private final short _frameWidth;
+    private final float _focalLength;
+
+    private float _positionNoise = 4.0f;
+    private float _sizeNoise = 0.02f;
+    private float _missProbability = 0.02f;
+    private float _falseDetectionProbability = 0.05f;
+
+    private short _frameId = 0;
+
+    public SimulatedCamera()
+    {
+        this(DefaultFrameWidth);
+    }
+
+    public SimulatedCamera(short frameWidth)
+    {
+        this._frameWidth = frameWidth;
+        this._focalLength = (frameWidth / 2) / (float) Math.tan(Math.toRadians(HalfFieldOfView));
+    }
+
+    /** Sets the standard deviation of the x-position of boxes, in pixels. */
+    public void setPositionNoise(float positionNoise)
+    {
+        this._positionNoise = positionNoise;
+    }
+
+    /** Sets the standard deviation of the size of boxes, relative to their size. */
+    public void setSizeNoise(float sizeNoise)
+    {
+        this._sizeNoise = sizeNoise;
+    }
+
+    /** Sets the probability that a cup in view is not detected in a frame. */
+    public void setMissProbability(float missProbability)
+    {
+        this._missProbability = missProbability;
+    }
+
+    /** Sets the probability that a frame holds a box that is not a cup. */
+    public void setFalseDetectionProbability(float falseDetectionProbability)
+    {
+        this._falseDetectionProbability = falseDetectionProbability;
+    }
+
+    public short getFrameWidth()
+    {
+        return _frameWidth;
+    }
+
+    /** Captures a frame of the cups in view from the turret's true heading. */
+    public PrimitiveTargetContainer capture(Arena arena, Random random)
+    {
+        PrimitiveTargetContainer frame = PrimitiveTargetContainer.withCapacity(arena.getCupCount() + 1);
+        frame.setFrameId(_frameId++);
+        frame.setFrameWidth(_frameWidth);
+
+        float frameMiddle = _frameWidth / 2;
+        for (int cup = 0; cup < arena.getCupCount(); cup++)
+        {
+            float direction = arena.getDirection(cup);
+            if (arena.isHit(cup) || Math.abs(direction) >= 90 || random.nextFloat() < _missProbability)
+                continue;
+
+            double radians = Math.toRadians(direction);
+            float depth = arena.getDistance(cup) * (float) Math.cos(radians);
+            float middle = frameMiddle - _focalLength * (float) Math.tan(radians);
+
+            /* Only cups whose middle is in view are detected. */
+            if (middle < 0 || middle >= _frameWidth)
+                continue;
+
+            float sizeError = (float) random.nextGaussian() * _sizeNoise;
+            float height = ReferenceHeight * ReferenceDistance / depth * (1 + sizeError);
+            float width = height * AspectRatio;
+            middle += (float) random.nextGaussian() * _positionNoise;
+
+            int confidence = TargetBox.MAX_CONFIDENCE - (int) (Math.abs(sizeError) / Math.max(_sizeNoise, 1e-6f) * 20);
+            addBox(frame, middle, width, height, Math.max(confidence, MinCupConfidence));
+        }
+
+        if (random.nextFloat() < _falseDetectionProbability)
+        {
+            float height = 40 + random.nextFloat() * 200;
+            float middle = random.nextFloat() * _frameWidth;
+            addBox(frame, middle, height * (0.3f + random.nextFloat()), height, random.nextInt(MaxFalseConfidence + 1));
+        }
+
+        return frame;
+    }
+
+    private void addBox(PrimitiveTargetContainer frame, float middle, float width, float height, int confidence)
+    {
+        /* Clip the box to the frame, as the detector does. */
+        float left = Math.max(0, middle - width / 2);
+        float right = Math.min(_frameWidth, middle + width / 2);
+
+        frame.addTarget((short) Math.round(height), (short) Math.round(right - left), (short) Math.round(left),
+                        (short) confidence);
+    }
+}
@@ -0,0 +1,22 @@
+package com.sabr.simulation;
+
+import com.sabr.utilities.Clock;
+
+/**
+ * Simulated time, which only passes when the simulated hardware and host advance it.
+ */
+public class SimulatedClock implements Clock
+{
+    private long _time = 0;
+
+    @Override
+    public long currentTimeMillis()
+    {
+        return _time;
+    }
+
+    public void advance(long milliseconds)
+    {
+        _time += milliseconds;
+    }
+}
@@ -0,0 +1,239 @@
+package com.sabr.simulation;
+
+import com.sabr.communication.Connection;
+import com.sabr.communication.packets.Packet;
+import com.sabr.communication.packets.PacketIds;
+import com.sabr.exceptions.UnknownPacketException;
+import com.sabr.targeting.PrimitiveTargetContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * An in-process connection to a simulated host, which answers requests from the arena.
+ *
+ * Packets are serialized exactly as over Bluetooth. Each packet the robot sends is parsed by
+ * the simulated host, whose reply is read back by the following receives. Target information
+ * is answered with a keyframe captured by the simulated camera, split into chunks like the
+ * host does, and target selection is answered as unsupported, so the robot selects targets
+ * itself. Shots are judged from where the simulated ball landed, as the host judges them from
+ * what changed around the targeted cup: a miss is seen if the ball stayed in view, and a hit
+ * if the ball shows at the rim of the cup. Each request advances the clock by the time the
+ * host takes to answer it.
+ */
+public class SimulatedConnection extends Connection
+{
+    /* Status the host replies with when it cannot run the requested policy. */
+    private static final byte SelectionUnsupported = 2;
+
+    /* Largest number of targets in a keyframe chunk, as sent by the host. */
+    private static final int MaxChunkTargets = 32;
+
+    private static final byte Keyframe = 0;
+
+    /* Stage of a shot verification asking for the shot to be judged, and its results. */
+    private static final byte AfterShot = 1;
+    private static final byte ShotHit = 0;
+    private static final byte ShotMissed = 1;
+    private static final byte ShotUnknown = 2;
+
+    /* Chances that a ball that missed stays in view of the camera, and that a ball in a cup shows at its rim. */
+    private static final float MissSeenChance = 0.8f;
+    private static final float HitSeenChance = 0.6f;
+
+    /* Time the host waits after a shot for the ball to come to rest. */
+    private static final long VerifySettleMillis = 1500;
+
+    private final Arena _arena;
+    private final SimulatedCamera _camera;
+    private final SimulatedShooter _shooter;
+    private final SimulatedClock _clock;
+    private final Random _random;
+
+    /* Time to capture a frame and detect the cups in it, and to send each packet. */
+    private long _captureMillis = 80;
+    private long _packetMillis = 15;
+
+    private final ByteArrayOutputStream _sent = new ByteArrayOutputStream();
+    private final DataOutputStream _outputStream = new DataOutputStream(_sent);
+    private DataInputStream _inputStream = new DataInputStream(new ByteArrayInputStream(new byte[0]));
+
+    private boolean _isConnected = false;
+    private int _roundTrips = 0;
+
+    public SimulatedConnection(Arena arena, SimulatedCamera camera, SimulatedShooter shooter, SimulatedClock clock,
+                               Random random)
+    {
+        this._arena = arena;
+        this._camera = camera;
+        this._shooter = shooter;
+        this._clock = clock;
+        this._random = random;
+    }
+
+    public void setLatency(long captureMillis, long packetMillis)
+    {
+        this._captureMillis = captureMillis;
+        this._packetMillis = packetMillis;
+    }
+
+    /** Returns the number of requests the host has answered. */
+    public int getRoundTrips()
+    {
+        return _roundTrips;
+    }
+
+    @Override
+    public void awaitConnection()
+    {
+        _isConnected = true;
+    }
+
+    @Override
+    public void closeConnection()
+    {
+        _isConnected = false;
+    }
+
+    @Override
+    public Packet receivePacket()
+    {
+        try
+        {
+            byte packetId = _inputStream.readByte();
+
+            Packet instantiatedPacket = Packet.instantiateFromId(PacketIds.fromByte(packetId));
+            instantiatedPacket.constructFromConnection(this);
+
+            return instantiatedPacket;
+        }
+        catch (IOException exception)
+        {
+            throw new IllegalStateException("Received more than the host sent.", exception);
+        }
+        catch (UnknownPacketException exception)
+        {
+            throw new IllegalStateException(exception.getMessage(), exception);
+        }
+    }
+
+    @Override
+    public void sendPacket(Packet packet)
+    {
+        try
+        {
+            _sent.reset();
+            _outputStream.writeByte(packet.getId().asByte());
+            packet.writeToConnection(this);
+            _outputStream.flush();
+
+            answer(new DataInputStream(new ByteArrayInputStream(_sent.toByteArray())));
+        }
+        catch (IOException exception)
+        {
+            throw new IllegalStateException("Could not serialize packet.", exception);
+        }
+    }
+
+    /* Parses a request as the host does, and queues the reply for the robot to receive. */
+    private void answer(DataInputStream request) throws IOException
+    {
+        PacketIds id = PacketIds.fromByte(request.readByte());
+
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        DataOutputStream stream = new DataOutputStream(reply);
+        switch (id)
+        {
+            case TargetDirectionRequest:
+                /* The acknowledged frame is ignored, as a keyframe is always a valid reply. */
+                request.readShort();
+                writeKeyframe(stream, _camera.capture(_arena, _random));
+                _roundTrips++;
+                break;
+            case TargetSelectionRequest:
+                stream.writeByte(PacketIds.TargetSelectionRequest.asByte());
+                stream.writeByte(SelectionUnsupported);
+                _clock.advance(_packetMillis);
+                _roundTrips++;
+                break;
+            case ShotVerification:
+                byte stage = request.readByte();
+                request.readFloat();
+                request.readShort();
+                stream.writeByte(PacketIds.ShotVerification.asByte());
+                stream.writeByte(stage == AfterShot ? verifyShot() : ShotUnknown);
+                _clock.advance(_captureMillis + _packetMillis);
+                _roundTrips++;
+                break;
+            default:
+                /* Debug messages need no reply. */
+                return;
+        }
+
+        _inputStream = new DataInputStream(new ByteArrayInputStream(reply.toByteArray()));
+    }
+
+    /* Judges the last shot once the ball has come to rest, from whether the host would see where it landed. */
+    private byte verifyShot()
+    {
+        _clock.advance(VerifySettleMillis);
+
+        if (_shooter.isLastHit())
+            return _random.nextFloat() < HitSeenChance ? ShotHit : ShotUnknown;
+
+        return _random.nextFloat() < MissSeenChance ? ShotMissed : ShotUnknown;
+    }
+
+    private void writeKeyframe(DataOutputStream stream, PrimitiveTargetContainer frame) throws IOException
+    {
+        _clock.advance(_captureMillis);
+
+        int total = frame.getTargetCount();
+        int offset = 0;
+        do
+        {
+            int count = Math.min(total - offset, MaxChunkTargets);
+
+            stream.writeByte(PacketIds.TargetDirectionRequest.asByte());
+            stream.writeShort(frame.getFrameId());
+            stream.writeByte(Keyframe);
+            stream.writeShort(frame.getFrameWidth());
+            stream.writeShort(total);
+            stream.writeShort(offset);
+            stream.writeByte(count);
+            for (int i = offset; i < offset + count; i++)
+            {
+                stream.writeShort(frame.getXPosition(i));
+                stream.writeShort(frame.getWidth(i));
+                stream.writeShort(frame.getHeight(i));
+                stream.writeByte(frame.getConfidence(i));
+            }
+
+            _clock.advance(_packetMillis);
+            offset += count;
+        }
+        while (offset < total);
+    }
+
+    @Override
+    public DataInputStream getInputStream()
+    {
+        return _inputStream;
+    }
+
+    @Override
+    public DataOutputStream getOutputStream()
+    {
+        return _outputStream;
+    }
+
+    @Override
+    public boolean isConnected()
+    {
+        return _isConnected;
+    }
+}
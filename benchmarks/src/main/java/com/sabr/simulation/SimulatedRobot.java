@@ -0,0 +1,41 @@
+package com.sabr.simulation;
+
+import com.sabr.Robot;
+import com.sabr.abortion.AbortCode;
+import com.sabr.movement.aiming.IRotator;
+import com.sabr.movement.shooting.IShooter;
+
+/**
+ * The robot with its screen, sound and buttons left out. Warnings are recorded instead of
+ * waiting for a button press, and aborting throws instead of exiting.
+ */
+public class SimulatedRobot extends Robot
+{
+    private String _lastWarning;
+
+    public SimulatedRobot(IRotator rotator, IShooter shooter)
+    {
+        super(rotator, shooter);
+    }
+
+    /** Returns the last warning, or null if there was none since the last call. */
+    public String takeWarning()
+    {
+        String warning = _lastWarning;
+        _lastWarning = null;
+
+        return warning;
+    }
+
+    @Override
+    public void warn(String message)
+    {
+        _lastWarning = message;
+    }
+
+    @Override
+    public void abort(AbortCode code, String message)
+    {
+        throw new IllegalStateException("Robot aborted with " + code + (message == null ? "." : ": " + message));
+    }
+}
@@ -0,0 +1,78 @@
+package com.sabr.simulation;
+
+import com.sabr.movement.aiming.IRotator;
+
+import java.util.Random;
+
+/**
+ * A kinematic model of the turret.
+ *
+ * Like Rotator, a turn is rounded to whole degrees of the motor, which the tacho count
+ * measures exactly. The turret itself turns by a slightly different amount, off by a gain
+ * error in the gears and a random error from backlash, which the robot only notices in the
+ * next frame. A turn takes the time to settle plus the time at the turret's top speed.
+ */
+public class SimulatedRotator implements IRotator
+{
+    /* Degrees the motor turns for each degree of the turret. */
+    private static final float GearRatio = 5.625f;
+
+    private final Arena _arena;
+    private final SimulatedClock _clock;
+    private final Random _random;
+
+    private float _gainError = 0.01f;
+    private float _backlash = 0.2f;
+
+    /* Top speed of the turret in degrees per second, and the time to start and stop. */
+    private float _speed = 160.0f;
+    private long _settleMillis = 150;
+
+    private int _tachoCount = 0;
+    private int _turns = 0;
+
+    public SimulatedRotator(Arena arena, SimulatedClock clock, Random random)
+    {
+        this._arena = arena;
+        this._clock = clock;
+        this._random = random;
+    }
+
+    /** Sets the share the turret turns too far, and the standard deviation of its random error in degrees. */
+    public void setErrors(float gainError, float backlash)
+    {
+        this._gainError = gainError;
+        this._backlash = backlash;
+    }
+
+    /** Returns the number of turns made. */
+    public int getTurns()
+    {
+        return _turns;
+    }
+
+    @Override
+    public void turnDegrees(float degrees)
+    {
+        int motorDegrees = (int) (degrees * GearRatio);
+        float measured = motorDegrees / GearRatio;
+
+        _tachoCount += motorDegrees;
+        _arena.turn(measured * (1 + _gainError) + (float) _random.nextGaussian() * _backlash);
+
+        _clock.advance(_settleMillis + (long) (Math.abs(measured) / _speed * 1000));
+        _turns++;
+    }
+
+    @Override
+    public void resetHeading()
+    {
+        turnDegrees(-getHeading());
+    }
+
+    @Override
+    public float getHeading()
+    {
+        return _tachoCount / GearRatio;
+    }
+}
@@ -0,0 +1,126 @@
+package com.sabr.simulation;
+
+import com.sabr.exceptions.OutOfRangeException;
+import com.sabr.movement.shooting.IShooter;
+import com.sabr.movement.shooting.PowerCalibration;
+import com.sabr.movement.shooting.PowerModel;
+
+import java.util.Random;
+
+/**
+ * A model of the shooter, which throws a ball along the turret's true heading.
+ *
+ * Distances out of range of the power model are refused like Shooter does. The ball lands
+ * at the requested distance, shifted by the drift of the shooter from the power model and
+ * off by a random error, and hits a cup if it lands within the
+ * cup's radius sideways and within its depth along the throw. A cup that is hit is removed
+ * from the arena.
+ */
+public class SimulatedShooter implements IShooter
+{
+    /* Radius of a cup, and how far along the throw the ball may land from the middle of a cup and still go in. */
+    private static final float CupRadius = 4.5f;
+    private static final float RangeTolerance = 6.0f;
+
+    private final Arena _arena;
+    private final SimulatedClock _clock;
+    private final Random _random;
+
+    /* Standard deviation of the distance the ball lands from the requested distance, in centimeters. */
+    private float _distanceNoise = 2.5f;
+
+    /* Centimeters the ball lands beyond the requested distance at the reference distance of PowerCalibration,
+       and the share of each further centimeter it lands beyond it, as when the battery is fuller than when the
+       power model was fitted. */
+    private float _driftOffset = 0;
+    private float _driftSlope = 0;
+
+    /* Time to shoot and to return the arm. */
+    private long _shotMillis = 1200;
+
+    private int _shots = 0;
+    private int _hits = 0;
+    private boolean _lastHit = false;
+
+    public SimulatedShooter(Arena arena, SimulatedClock clock, Random random)
+    {
+        this._arena = arena;
+        this._clock = clock;
+        this._random = random;
+    }
+
+    public void setDistanceNoise(float distanceNoise)
+    {
+        this._distanceNoise = distanceNoise;
+    }
+
+    public void setDrift(float offset, float slope)
+    {
+        this._driftOffset = offset;
+        this._driftSlope = slope;
+    }
+
+    public int getShots()
+    {
+        return _shots;
+    }
+
+    public int getHits()
+    {
+        return _hits;
+    }
+
+    /** Whether the last shot hit a cup. */
+    public boolean isLastHit()
+    {
+        return _lastHit;
+    }
+
+    /* The simulated motors run at the speed the power model was fitted at, so its range needs no compensation. */
+    @Override
+    public float getMinDistance()
+    {
+        return PowerModel.getMinDistance();
+    }
+
+    @Override
+    public float getMaxDistance()
+    {
+        return PowerModel.getMaxDistance();
+    }
+
+    @Override
+    public void shootDistance(float distance) throws OutOfRangeException
+    {
+        if (distance > getMaxDistance())
+            throw new OutOfRangeException("Target too far.");
+        else if (distance < getMinDistance())
+            throw new OutOfRangeException("Target too close.");
+
+        float landing = distance + _driftOffset + _driftSlope * (distance - PowerCalibration.ReferenceDistance)
+                        + (float) _random.nextGaussian() * _distanceNoise;
+
+        /* Find the cup the ball lands in, if any. */
+        _lastHit = false;
+        for (int cup = 0; cup < _arena.getCupCount() && !_lastHit; cup++)
+        {
+            if (_arena.isHit(cup))
+                continue;
+
+            double radians = Math.toRadians(_arena.getDirection(cup));
+            float cupDistance = _arena.getDistance(cup);
+            float sideways = cupDistance * (float) Math.sin(radians);
+            float along = cupDistance * (float) Math.cos(radians);
+
+            if (Math.abs(sideways) <= CupRadius && Math.abs(along - landing) <= RangeTolerance)
+            {
+                _arena.setHit(cup);
+                _lastHit = true;
+                _hits++;
+            }
+        }
+
+        _clock.advance(_shotMillis);
+        _shots++;
+    }
+}
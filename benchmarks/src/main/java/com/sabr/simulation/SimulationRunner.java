@@ -0,0 +1,227 @@
+package com.sabr.simulation;
+
+import com.sabr.targeting.policies.PolicyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Clears many seeded arenas in parallel and gathers the distributions of what each policy's
+ * shots cost.
+ *
+ * The arenas are split in halves until few enough remain for one task, and the statistics of
+ * the halves are merged as the tasks join. The seed of each arena follows from its index, so
+ * the results are the same however the work is split and however many threads run it, and
+ * every policy faces the same arenas.
+ *
+ * Run from the benchmarks directory after building it, optionally giving the number of
+ * arenas, the seed and the policies to compare, -t with the number of threads, -s with the
+ * most frames the robot measures the distance to a target in, and -m to shoot from a map of
+ * the arena, which makes the policies irrelevant:
+ *
+ *     java -cp target/benchmarks.jar:../leJOS-Linux/lib/nxt/classes.jar
+ *          com.sabr.simulation.SimulationRunner 10000 42 Nearest BiggestCluster -t 8 -s 3
+ */
+public class SimulationRunner
+{
+    /* Cups per arena, and where they are placed. Some are out of range of the shooter. */
+    private static final int CupCount = 6;
+    private static final float MinCupDistance = 95.0f;
+    private static final float MaxCupDistance = 155.0f;
+    private static final float MaxCupDirection = 60.0f;
+
+    /* Largest number of arenas a task clears without splitting. */
+    private static final int ArenasPerTask = 16;
+
+    /* Columns of the printed distribution of rotations per shot. */
+    private static final int RotationColumns = 6;
+
+    private final ForkJoinPool _pool;
+    private int _distanceSamples = 1;
+    private boolean _scanMode = false;
+
+    public SimulationRunner(ForkJoinPool pool)
+    {
+        this._pool = pool;
+    }
+
+    /** Sets the most frames the simulated robots measure the distance to a target in, as Robot.setDistanceSamples. */
+    public void setDistanceSamples(int distanceSamples)
+    {
+        this._distanceSamples = distanceSamples;
+    }
+
+    /** Sets whether the simulated robots shoot from a map of the arena, as Robot.setScanMode. */
+    public void setScanMode(boolean scanMode)
+    {
+        this._scanMode = scanMode;
+    }
+
+    /** Clears the given number of arenas using the given policy, and returns the statistics of its shots. */
+    public SimulationStatistics run(PolicyFactory.TargetingPolicyType policyType, int arenas, long seed)
+    {
+        return _pool.invoke(new ArenaTask(policyType, seed, _distanceSamples, _scanMode, 0, arenas));
+    }
+
+    /** Clears a single arena, which is the same for every policy given the same seed and index. */
+    public static SimulationStatistics runArena(PolicyFactory.TargetingPolicyType policyType, long seed,
+                                                int distanceSamples, boolean scanMode, int index)
+    {
+        long arenaSeed = mix(seed + index);
+        Arena arena = Arena.createRandom(CupCount, MinCupDistance, MaxCupDistance, MaxCupDirection, new Random(arenaSeed));
+
+        ArenaSimulation simulation = new ArenaSimulation(arena, policyType, mix(arenaSeed));
+        simulation.getRobot().setDistanceSamples(distanceSamples);
+        simulation.getRobot().setScanMode(scanMode);
+
+        SimulationStatistics statistics = new SimulationStatistics();
+        statistics.addArena(arena, simulation.clear());
+
+        return statistics;
+    }
+
+    /* Scrambles a seed, so that consecutive seeds give unrelated random sequences. */
+    private static long mix(long seed)
+    {
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class ArenaTask extends RecursiveTask<SimulationStatistics>
+    {
+        private final PolicyFactory.TargetingPolicyType _policyType;
+        private final long _seed;
+        private final int _distanceSamples;
+        private final boolean _scanMode;
+        private final int _from;
+        private final int _to;
+
+        ArenaTask(PolicyFactory.TargetingPolicyType policyType, long seed, int distanceSamples, boolean scanMode,
+                  int from, int to)
+        {
+            this._policyType = policyType;
+            this._seed = seed;
+            this._distanceSamples = distanceSamples;
+            this._scanMode = scanMode;
+            this._from = from;
+            this._to = to;
+        }
+
+        @Override
+        protected SimulationStatistics compute()
+        {
+            if (_to - _from <= ArenasPerTask)
+            {
+                SimulationStatistics statistics = new SimulationStatistics();
+                for (int index = _from; index < _to; index++)
+                    statistics.merge(runArena(_policyType, _seed, _distanceSamples, _scanMode, index));
+
+                return statistics;
+            }
+
+            int middle = (_from + _to) >>> 1;
+            ArenaTask first = new ArenaTask(_policyType, _seed, _distanceSamples, _scanMode, _from, middle);
+            first.fork();
+
+            SimulationStatistics statistics = new ArenaTask(_policyType, _seed, _distanceSamples, _scanMode, middle, _to).compute();
+            statistics.merge(first.join());
+
+            return statistics;
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int distanceSamples = 1;
+        boolean scanMode = false;
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++)
+        {
+            if (args[i].equals("-t") && i + 1 < args.length)
+                threads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-s") && i + 1 < args.length)
+                distanceSamples = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-m"))
+                scanMode = true;
+            else
+                arguments.add(args[i]);
+        }
+
+        int arenas = arguments.size() > 0 ? Integer.parseInt(arguments.get(0)) : 1000;
+        long seed = arguments.size() > 1 ? Long.parseLong(arguments.get(1)) : 42;
+
+        List<PolicyFactory.TargetingPolicyType> policyTypes = new ArrayList<>();
+        for (int i = 2; i < arguments.size(); i++)
+            policyTypes.add(PolicyFactory.TargetingPolicyType.valueOf(arguments.get(i)));
+
+        /* The adaptive policy keeps its statistics in a file, so it is only simulated when asked for. */
+        if (policyTypes.isEmpty())
+        {
+            for (PolicyFactory.TargetingPolicyType policyType : PolicyFactory.TargetingPolicyType.values())
+            {
+                if (policyType != PolicyFactory.TargetingPolicyType.Adaptive)
+                    policyTypes.add(policyType);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SimulationRunner runner = new SimulationRunner(pool);
+        runner.setDistanceSamples(distanceSamples);
+        runner.setScanMode(scanMode);
+
+        long start = System.nanoTime();
+        List<SimulationStatistics> results = new ArrayList<>();
+        for (PolicyFactory.TargetingPolicyType policyType : policyTypes)
+            results.add(runner.run(policyType, arenas, seed));
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        pool.shutdown();
+
+        System.out.printf("%d arenas of %d cups per policy, %d distance samples, %s, %d threads, %d ms%n%n", arenas,
+                          CupCount, distanceSamples, scanMode ? "scan mode" : "no scan", threads, elapsed);
+        System.out.printf("%-15s %7s %6s %8s  %-22s %-22s %-26s%n", "policy", "shots", "hit %", "cleared %",
+                          "rotations mean/p50/p90", "round trips mean/p90", "ms to shot mean/p50/p90/p99");
+        for (int i = 0; i < policyTypes.size(); i++)
+        {
+            SimulationStatistics statistics = results.get(i);
+            Histogram rotations = statistics.getRotations();
+            Histogram roundTrips = statistics.getRoundTrips();
+            Histogram times = statistics.getTimesToShot();
+
+            System.out.printf("%-15s %7d %6.1f %8.1f  %-22s %-22s %-26s%n", policyTypes.get(i), statistics.getShots(),
+                              100 * statistics.getHitRate(), 100 * statistics.getClearedRate(),
+                              String.format("%.2f/%d/%d", rotations.getMean(), rotations.getPercentile(0.5),
+                                            rotations.getPercentile(0.9)),
+                              String.format("%.2f/%d", roundTrips.getMean(), roundTrips.getPercentile(0.9)),
+                              String.format("%.0f/%d/%d/%d", times.getMean(), times.getPercentile(0.5),
+                                            times.getPercentile(0.9), times.getPercentile(0.99)));
+        }
+
+        /* The distribution of rotations per shot, as shares of the shots, with the long tail in the last column. */
+        System.out.printf("%n%-15s", "rotations");
+        for (int rotations = 0; rotations < RotationColumns; rotations++)
+            System.out.printf(" %6s", rotations + (rotations == RotationColumns - 1 ? "+" : ""));
+        System.out.println();
+
+        for (int i = 0; i < policyTypes.size(); i++)
+        {
+            Histogram rotations = results.get(i).getRotations();
+            System.out.printf("%-15s", policyTypes.get(i));
+
+            long tail = rotations.getCount();
+            for (int bucket = 0; bucket < RotationColumns; bucket++)
+            {
+                long count = bucket < RotationColumns - 1 ? rotations.getBucket(bucket) : tail;
+                tail -= count;
+                System.out.printf(" %5.1f%%", 100.0 * count / Math.max(rotations.getCount(), 1));
+            }
+            System.out.println();
+        }
+    }
+}
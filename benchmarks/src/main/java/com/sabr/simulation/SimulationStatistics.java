@@ -0,0 +1,96 @@
+package com.sabr.simulation;
+
+/**
+ * The distributions of what shots cost across many simulated arenas, for one policy.
+ * Only presses that shot a ball count towards the distributions.
+ */
+public class SimulationStatistics
+{
+    /* Width of the buckets of the time to shoot, in milliseconds. */
+    private static final long TimeBucketWidth = 100;
+
+    private final Histogram _rotations = new Histogram(1);
+    private final Histogram _roundTrips = new Histogram(1);
+    private final Histogram _timesToShot = new Histogram(TimeBucketWidth);
+
+    private int _arenas = 0;
+    private int _cups = 0;
+    private int _cupsHit = 0;
+    private int _presses = 0;
+    private int _hits = 0;
+
+    /** Adds the shots taken in an arena, after it has been cleared. */
+    public void addArena(Arena arena, Iterable<ShotResult> results)
+    {
+        _arenas++;
+        _cups += arena.getCupCount();
+        _cupsHit += arena.getCupCount() - arena.getRemainingCount();
+
+        for (ShotResult result : results)
+        {
+            _presses++;
+            if (!result.isShot())
+                continue;
+
+            _hits += result.isHit() ? 1 : 0;
+            _rotations.add(result.getRotations());
+            _roundTrips.add(result.getRoundTrips());
+            _timesToShot.add(result.getMilliseconds());
+        }
+    }
+
+    public void merge(SimulationStatistics other)
+    {
+        _rotations.merge(other._rotations);
+        _roundTrips.merge(other._roundTrips);
+        _timesToShot.merge(other._timesToShot);
+
+        _arenas += other._arenas;
+        _cups += other._cups;
+        _cupsHit += other._cupsHit;
+        _presses += other._presses;
+        _hits += other._hits;
+    }
+
+    public Histogram getRotations()
+    {
+        return _rotations;
+    }
+
+    public Histogram getRoundTrips()
+    {
+        return _roundTrips;
+    }
+
+    public Histogram getTimesToShot()
+    {
+        return _timesToShot;
+    }
+
+    public int getArenas()
+    {
+        return _arenas;
+    }
+
+    public long getShots()
+    {
+        return _timesToShot.getCount();
+    }
+
+    public int getPresses()
+    {
+        return _presses;
+    }
+
+    /** Returns the share of shots that hit a cup. */
+    public double getHitRate()
+    {
+        return getShots() == 0 ? 0 : (double) _hits / getShots();
+    }
+
+    /** Returns the share of all cups in the arenas that were hit. */
+    public double getClearedRate()
+    {
+        return _cups == 0 ? 0 : (double) _cupsHit / _cups;
+    }
+}
@@ -0,0 +1,19 @@
+import csv
+import collections
+import statistics
+
+# Prints the calibration points of CameraModel from measured target
+# heights: the median pixel height at each real distance, ordered by
+# increasing height. The heights depend on the camera resolution, so
+# measure at the resolution the host sends frames in.
+
+heights = collections.defaultdict(list)
+
+with open("testdata.csv") as f:
+	for row in csv.DictReader(f):
+		heights[float(row["real_distance"])].append(float(row["height_pixel"]))
+
+points = sorted((statistics.median(h), distance) for distance, h in heights.items())
+
+print("Heights:   {" + ", ".join("%.1ff" % height for height, _ in points) + "}")
+print("Distances: {" + ", ".join("%.1ff" % distance for _, distance in points) + "}")
@@ -14,7 +14,9 @@ public class Main
         
 	    Robot robot = Robot.getInstance();
 	    robot.addButtonListeners();
-	    robot.setTargetingPolicyType(PolicyFactory.TargetingPolicyType.Random);
+	    robot.setTargetingPolicyType(PolicyFactory.TargetingPolicyType.Adaptive);
+	    robot.setDistanceSamples(3);
+	    robot.setVerifyShots(true);
 	    robot.setConnectionType(ConnectionFactory.ConnectionType.Bluetooth);
         robot.setDebug(true);
 	    robot.awaitConnection(new ConnectionFactory());
@@ -7,20 +7,36 @@ import com.sabr.communication.ConnectionFactory;
 import com.sabr.communication.packets.DebugPacket;
 import com.sabr.communication.packets.Packet;
 import com.sabr.communication.packets.PacketIds;
+import com.sabr.communication.packets.ShotVerificationPacket;
 import com.sabr.communication.packets.TargetInfoRequestPacket;
+import com.sabr.communication.packets.TargetSelectionRequestPacket;
 import com.sabr.exceptions.OutOfRangeException;
 import com.sabr.listeners.ExitButtonListener;
 import com.sabr.listeners.ShootButtonListener;
 import com.sabr.movement.aiming.IRotator;
 import com.sabr.movement.aiming.Rotator;
 import com.sabr.movement.shooting.IShooter;
+import com.sabr.movement.shooting.PowerCalibration;
 import com.sabr.movement.shooting.Shooter;
+import com.sabr.targeting.CameraModel;
 import com.sabr.targeting.DirectionCalculator;
 import com.sabr.targeting.DistanceCalculator;
+import com.sabr.targeting.DistanceEstimator;
 import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.PrimitiveTargetContainer;
+import com.sabr.targeting.SalvoPlanner;
 import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetMap;
+import com.sabr.targeting.TargetSelection;
+import com.sabr.targeting.TargetTracker;
+import com.sabr.targeting.gating.GatingPipeline;
+import com.sabr.targeting.policies.ConfirmingPolicy;
+import com.sabr.targeting.policies.IncrementalPolicy;
 import com.sabr.targeting.policies.Policy;
 import com.sabr.targeting.policies.PolicyFactory;
+import com.sabr.utilities.Clock;
+import com.sabr.utilities.Deadline;
+import com.sabr.utilities.SystemClock;
 import lejos.nxt.Button;
 import lejos.nxt.LCD;
 import lejos.nxt.MotorPort;
@@ -29,41 +45,156 @@ import java.util.Random;
 
 import java.io.File;
 
-// The Robot class uses the singleton pattern, since only one robot can be used.
+// The robot on the brick is a singleton, since only one robot can be used. Simulations create their own robots.
 public class Robot implements IAbortable
 {
     private static final String CONNECTED_SOUND = "connected.wav";
     private static final String ERROR_SOUND = "error.wav";
 
-    private static Robot _robotInstance = new Robot();
+    private static Robot _robotInstance;
 
-    private static final float TARGET_ANGLE_MAX_DEVIATION = 0.70f;
+    /* Largest rotation in degrees, and oldest frame in milliseconds, from which we shoot without looking again. */
+    private static final float MAX_PREDICTED_ROTATION = 10.0f;
+    private static final long MAX_PREDICTED_FRAME_AGE = 1500;
 
-    private static final Button EXIT_BUTTON = Button.ESCAPE;
-    private static final Button SHOOT_BUTTON = Button.ENTER;
+    /* Number of extra frames looked at to confirm a marginal detection, after which it is shot at anyway. */
+    private static final int MAX_CONFIRMATIONS = 2;
+
+    /* Heading error in degrees that a salvo accumulates before it looks again, the error assumed for each turn
+       on top of what the motor measures, and how far from the expected direction a target may be found then. */
+    private static final float SALVO_MAX_HEADING_ERROR = 1.5f;
+    private static final float SALVO_TURN_ERROR = 0.25f;
+    private static final float SALVO_VERIFY_GATE = 5.0f;
+
+    /* Most frames whose distances to the target are fused before shooting, and how far in centimeters a
+       distance may be from the estimate before it is taken to be of another target. */
+    private static final int MAX_DISTANCE_SAMPLES = 5;
+    private static final float DISTANCE_SAMPLE_GATE = 15.0f;
+
+    /* Headings in degrees either side of the starting heading that a scan covers, the share of the field of view
+       the turret turns between the frames of a scan, so that targets at the edge of one frame are in the next,
+       and the most targets mapped. */
+    private static final float SCAN_RANGE = 90.0f;
+    private static final float SCAN_STEP = 0.8f;
+    private static final int MAX_MAP_TARGETS = 32;
+
+    /* How far in degrees from where the map puts it a target may be found in a confirmation frame, and the most
+       confirmation frames looked at for a single shot. */
+    private static final float MAP_CONFIRM_GATE = 4.0f;
+    private static final int MAX_MAP_CONFIRMATIONS = 6;
+
+    /* Milliseconds a policy may take to select a target from a frame, about the time between frames from the host.
+       Policies that would take longer settle for the best target found in time, so selecting never holds up a frame. */
+    private static final long SELECTION_BUDGET = 100;
+
+    /* Targets beyond this number are dropped when a frame is received, which bounds memory use. */
+    private static final int MAX_FRAME_TARGETS = 512;
 
     private final IShooter _shooter;
     private final IRotator _rotator;
 
     private PolicyFactory.TargetingPolicyType _targetingPolicyType = PolicyFactory.TargetingPolicyType.Nearest;
 
+    /* The policy of the targeting policy type. It is kept between shots, so it can remember its decisions. */
+    private Policy _policy;
+
     private Connection _connection;
     private ConnectionFactory.ConnectionType _connectionType = ConnectionFactory.ConnectionType.Bluetooth;
 
+    /* The last frame received from the host. Delta frames are applied to it in place. */
+    private ITargetContainer _lastFrame;
+
+    /* When the frame the last selection was made from was received. */
+    private long _frameTime;
+
+    /* Whether the incremental policy has already evaluated the last frame while it was received. */
+    private boolean _frameEvaluated = false;
+
+    /* Whether the last frame was gated while it arrived, and the targets that passed. */
+    private boolean _frameGated = false;
+    private ITargetContainer _gatedFrame;
+
     private boolean _debug = false;
 
+    /* Whether target selection, direction and distance are computed by the host. */
+    private boolean _policyOffload = false;
+
+    /* Whether a press of the shoot button shoots all targets in range instead of a single one. */
+    private boolean _salvoMode = false;
+    private final SalvoPlanner _salvoPlanner = new SalvoPlanner();
+
+    /* Whether targets selected from marginal detections must be seen again before turning towards them. */
+    private boolean _confirmTargets = true;
+
+    /* Removes targets that cannot be hit from frames before a policy selects from them, or null to keep all. */
+    private GatingPipeline _gatingPipeline;
+
+    /* Number of targets removed by the gating pipeline from the last frame. */
+    private int _rejectedCount;
+
+    /* Number of frames the distance to the target is measured in before shooting, or 1 to trust a single frame.
+       Fewer frames are used if the distances of the frames seen so far agree. */
+    private int _distanceSamples = 1;
+    private final DistanceEstimator _distanceEstimator = new DistanceEstimator(MAX_DISTANCE_SAMPLES);
+
+    /* Follows the targets selected from while their distance is measured, and the track the estimate is of, so
+       that distances to different targets are not fused. */
+    private final TargetTracker _distanceTracker = new TargetTracker();
+    private int _distanceTrackId = TargetTracker.NO_TRACK;
+
+    /* Number of frames requested by the last distance measurement. */
+    private int _measuredFrameCount;
+
+    /* Whether the host is asked after each shot whether it hit, which it tells from how a frame after the shot
+       differs from one just before it. The results teach the calibration how far throws drift from the power
+       model during the session, which the distances shot are corrected for. */
+    private boolean _verifyShots = false;
+    private final PowerCalibration _powerCalibration;
+
+    /* Whether targets are shot from a map of the arena, which is built by scanning it when no targets are known,
+       instead of from the frame in front of the turret. */
+    private boolean _scanMode = false;
+    private final TargetMap _targetMap = new TargetMap(MAX_MAP_TARGETS);
+
+    /* Source of the time, used to measure how long shots take and how old frames are. */
+    private Clock _clock = new SystemClock();
+
+    /** Returns the robot, setting up its motors the first time. */
     public static Robot getInstance()
     {
+        if (Robot._robotInstance == null)
+        {
+            /* Set up movement controllers with desired motors. */
+            Robot._robotInstance = new Robot(new Rotator(MotorPort.C), new Shooter(new MotorPort[]{MotorPort.A, MotorPort.B}));
+        }
+
         return Robot._robotInstance;
     }
 
     public final Random Random = new Random();
 
-    private Robot()
+    /**
+     * Creates a robot using the given movement controllers. The robot on the brick is created by
+     * getInstance, other robots are simulations.
+     */
+    public Robot(IRotator rotator, IShooter shooter)
+    {
+        this._rotator = rotator;
+        this._shooter = shooter;
+        this._gatingPipeline = GatingPipeline.createDefault(shooter);
+        this._powerCalibration = new PowerCalibration(shooter);
+    }
+
+    public void setClock(Clock clock)
     {
-        /* Set up movement controllers with desired motors. */
-        this._rotator = new Rotator(MotorPort.C);
-        this._shooter = new Shooter(new MotorPort[]{MotorPort.A, MotorPort.B});
+        this._clock = clock;
+    }
+
+    /** Uses an established connection to the host, such as a simulated one, instead of awaiting one. */
+    public void setConnection(Connection connection)
+    {
+        this.closeConnection();
+        this._connection = connection;
     }
 
     public boolean isDebug()
@@ -76,10 +207,77 @@ public class Robot implements IAbortable
         this._debug = debug;
     }
 
+    public boolean isPolicyOffload()
+    {
+        return this._policyOffload;
+    }
+
+    public void setPolicyOffload(boolean policyOffload)
+    {
+        this._policyOffload = policyOffload;
+    }
+
+    public boolean isSalvoMode()
+    {
+        return this._salvoMode;
+    }
+
+    public void setSalvoMode(boolean salvoMode)
+    {
+        this._salvoMode = salvoMode;
+    }
+
+    public void setGatingPipeline(GatingPipeline gatingPipeline)
+    {
+        this._gatingPipeline = gatingPipeline;
+    }
+
+    /**
+     * Sets the most frames the distance to a target is measured in before shooting at it, up to
+     * MAX_DISTANCE_SAMPLES. More frames are only requested until their distances agree.
+     */
+    public void setDistanceSamples(int distanceSamples)
+    {
+        this._distanceSamples = Math.max(1, Math.min(distanceSamples, MAX_DISTANCE_SAMPLES));
+    }
+
+    /** Asks the host whether each shot hit, to correct for drift of the shooter. Only hosts that support it may be asked. */
+    public void setVerifyShots(boolean verifyShots)
+    {
+        this._verifyShots = verifyShots;
+    }
+
+    /**
+     * Shoots the mapped target needing the least rotation at each press, scanning the arena
+     * when no targets are mapped. The targeting policy is not used in this mode.
+     */
+    public void setScanMode(boolean scanMode)
+    {
+        this._scanMode = scanMode;
+        this._targetMap.clear();
+    }
+
+    public TargetMap getTargetMap()
+    {
+        return this._targetMap;
+    }
+
+    public PowerCalibration getPowerCalibration()
+    {
+        return this._powerCalibration;
+    }
+
+    public void setConfirmTargets(boolean confirmTargets)
+    {
+        this._confirmTargets = confirmTargets;
+        this._policy = null;
+    }
+
     public void addButtonListeners()
     {
-        EXIT_BUTTON.addButtonListener(new ExitButtonListener());
-        SHOOT_BUTTON.addButtonListener(new ShootButtonListener());
+        /* The buttons are only looked up here, so simulated robots can be created off the brick. */
+        Button.ESCAPE.addButtonListener(new ExitButtonListener());
+        Button.ENTER.addButtonListener(new ShootButtonListener());
     }
 
     public void locateAndShoot()
@@ -88,64 +286,699 @@ public class Robot implements IAbortable
         if (_connection == null || !_connection.isConnected())
             return;
 
-        /* Choose a policy using the policy factory. */
-        Policy chosenPolicy = PolicyFactory.getPolicy(_targetingPolicyType);
+        /* Choose a policy using the policy factory, and reuse it for later shots. */
+        if (_policy == null)
+        {
+            _policy = PolicyFactory.getPolicy(_targetingPolicyType, Random, _shooter);
+            if (_confirmTargets)
+                _policy = new ConfirmingPolicy(_policy);
+        }
 
+        if (_scanMode)
+        {
+            shootFromMap();
+            return;
+        }
+
+        Policy chosenPolicy = _policy;
+        chosenPolicy.reset();
+        _distanceEstimator.reset();
+        _distanceTracker.reset();
+        _distanceTrackId = TargetTracker.NO_TRACK;
+
+        long startTime = _clock.currentTimeMillis();
         int numRotations = 0;
+        int numRoundTrips = 0;
+        int numConfirmations = 0;
         while (true)
         {
-            ITargetContainer targetContainer = receiveTargetInformation();
+            TargetSelection selection = selectTarget(chosenPolicy, numRotations);
+            numRoundTrips++;
 
             /* If there are no targets, we cannot proceed. */
-            if (targetContainer.getTargetCount() == 0)
+            if (selection == null)
             {
-                this.warn("No targets found.");
+                chosenPolicy.onPress(numRotations, numRoundTrips, _clock.currentTimeMillis() - startTime, false);
+                this.warn(_rejectedCount == 0 ? "No targets found." : "No targets in range.");
                 return;
             }
 
-            /* Get suggested target using the chosen policy. */
-            TargetBox target = chosenPolicy.selectTargetBox(targetContainer);
+            /* Look at a new frame before spending a rotation on a marginal detection. */
+            if (!chosenPolicy.isSelectionConfirmed() && numConfirmations++ < MAX_CONFIRMATIONS)
+                continue;
+
+            /* Every frame the target is seen in measures its distance, including those before rotating. */
+            if (_distanceSamples > 1)
+                addDistanceSample(selection);
 
-            // Calculate the angle to the target object.
-            float directionAngle = DirectionCalculator.calculateDirection(targetContainer, target);
-            if (Math.abs(directionAngle) > TARGET_ANGLE_MAX_DEVIATION)
+            // The angle to the target object, and how far from it we may shoot, which is more for nearer cups.
+            float directionAngle = selection.getDirection();
+            float tolerance = DirectionCalculator.calculateTolerance(selection.getDistance());
+            if (Math.abs(directionAngle) > tolerance)
             {
                 /* We are not facing the target, so we must rotate towards it first. */
+                float headingBefore = _rotator.getHeading();
                 _rotator.turnDegrees(directionAngle);
+                float rotated = _rotator.getHeading() - headingBefore;
+
+                chosenPolicy.onRotated(rotated);
+                _distanceTracker.predictRotation(rotated);
                 numRotations++;
+
+                /* The target has moved by the rotation we measured. If it is now predicted to be in front of us,
+                   shoot without requesting a new frame. */
+                float residualAngle = directionAngle - rotated;
+                if (!isPredictionReliable(directionAngle, residualAngle, tolerance))
+                    continue;
+
+                directionAngle = residualAngle;
             }
-            else
+
+            /* Look at more frames of the target until their distances agree. */
+            float distance = selection.getDistance();
+            if (_distanceSamples > 1)
+            {
+                boolean inFront = measureDistance(chosenPolicy, numRotations);
+                numRoundTrips += _measuredFrameCount;
+
+                /* After a rotation the frames measuring the distance are the first to show where the target is. If
+                   it is not in front of us, select it again rather than shooting where it was predicted to be. */
+                if (!inFront)
+                    continue;
+
+                distance = _distanceEstimator.getEstimate();
+            }
+
+            try
             {
-                try
+                /* Shoot as far as the calibration expects to land the ball at the target. */
+                float commandedDistance = _powerCalibration.getCommandedDistance(distance);
+                if (_verifyShots)
+                    prepareShotVerification(selection.getHeight(), directionAngle);
+
+                _shooter.shootDistance(commandedDistance);
+                chosenPolicy.onPress(numRotations, numRoundTrips, _clock.currentTimeMillis() - startTime, true);
+
+                if (_verifyShots)
+                    verifyShot(selection.getHeight(), directionAngle, distance, commandedDistance);
+
+                /* If debugging, output final departure angle and number of rotations. */
+                if (this._debug)
+                    this.sendDebugMessage("r: " + numRotations + ", a: " + directionAngle + ", d: " + distance
+                                          + ", c: " + commandedDistance);
+            }
+            catch (OutOfRangeException ex)
+            {
+                chosenPolicy.onPress(numRotations, numRoundTrips, _clock.currentTimeMillis() - startTime, false);
+                this.warn(ex.getMessage());
+            }
+
+            return;
+        }
+    }
+
+    /**
+     * Shoots all targets in range from a single frame. The targets are shot in the order needing
+     * the least rotation in total, turning between shots using the directions from that frame.
+     * Only when the heading may have drifted too far is a new frame requested, to find where
+     * the next target really is.
+     */
+    public void shootSalvo()
+    {
+        /* Do not send packets if we are not connected. */
+        if (_connection == null || !_connection.isConnected())
+            return;
+
+        long startTime = _clock.currentTimeMillis();
+
+        ITargetContainer frame = receiveTargetInformation(null);
+        float headingAtFrame = _rotator.getHeading();
+
+        /* Plan the targets that are within range of the shooter. */
+        int targetCount = frame.getTargetCount();
+        float[] directions = new float[targetCount];
+        float[] distances = new float[targetCount];
+
+        int inRange = 0;
+        for (int i = 0; i < targetCount; i++)
+        {
+            float distance = DistanceCalculator.calculateDistance(frame, i);
+            if (distance < _shooter.getMinDistance() || distance > _shooter.getMaxDistance())
+                continue;
+
+            directions[inRange] = DirectionCalculator.calculateDirection(frame, i);
+            distances[inRange++] = distance;
+        }
+
+        if (inRange == 0)
+        {
+            this.warn(targetCount == 0 ? "No targets found." : "No targets in range.");
+            return;
+        }
+
+        int planned = _salvoPlanner.plan(directions, inRange);
+
+        /* How far the targets are from where the first frame put them, and how far the heading may have drifted. */
+        float correction = 0;
+        float headingError = 0;
+
+        int shots = 0;
+        int verifications = 0;
+        int skipped = 0;
+        for (int step = 0; step < planned; step++)
+        {
+            int target = _salvoPlanner.getTarget(step);
+            float distance = distances[target];
+
+            float turn = directions[target] + correction - (_rotator.getHeading() - headingAtFrame);
+            if (Math.abs(turn) > DirectionCalculator.calculateTolerance(distance))
+                headingError += turnMeasured(turn) + SALVO_TURN_ERROR;
+
+            if (headingError > SALVO_MAX_HEADING_ERROR)
+            {
+                /* Look again, and face the target nearest to where it is expected. */
+                verifications++;
+                ITargetContainer check = receiveTargetInformation(null);
+
+                int nearest = -1;
+                float nearestDirection = 0;
+                for (int i = 0; i < check.getTargetCount(); i++)
                 {
-                    float distance = DistanceCalculator.calculateDistance(target);
-                    _shooter.shootDistance(distance);
+                    float direction = DirectionCalculator.calculateDirection(check, i);
+                    if (nearest < 0 || Math.abs(direction) < Math.abs(nearestDirection))
+                    {
+                        nearest = i;
+                        nearestDirection = direction;
+                    }
+                }
 
-                    /* If debugging, output final departure angle and number of rotations. */
-                    if (this._debug)
-                        this.sendDebugMessage("r: " + numRotations + ", a: " + directionAngle + ", d: " + distance);
+                /* The target is gone, or was already hit. The turret has turned for it, so correct the heading from
+                   the remaining target seen nearest to where it is expected instead, and count the error anew, as
+                   looking again before the next target would not show more. */
+                if (nearest < 0 || Math.abs(nearestDirection) > SALVO_VERIFY_GATE)
+                {
+                    correction += findSalvoCorrection(check, directions, step + 1, planned, correction,
+                                                      _rotator.getHeading() - headingAtFrame);
+                    headingError = 0;
+                    skipped++;
+                    continue;
                 }
-                catch (OutOfRangeException ex)
+
+                correction = (_rotator.getHeading() - headingAtFrame) + nearestDirection - directions[target];
+                distance = DistanceCalculator.calculateDistance(check, nearest);
+
+                if (Math.abs(nearestDirection) > DirectionCalculator.calculateTolerance(distance))
+                    turnMeasured(nearestDirection);
+
+                headingError = 0;
+            }
+
+            try
+            {
+                _shooter.shootDistance(_powerCalibration.getCommandedDistance(distance));
+                shots++;
+            }
+            catch (OutOfRangeException ex)
+            {
+                /* Skip the target, the others may still be in range. */
+            }
+        }
+
+        /* If debugging, output the number of shots and cups per minute. */
+        if (this._debug)
+        {
+            long elapsed = _clock.currentTimeMillis() - startTime;
+            this.sendDebugMessage("salvo: " + shots + "/" + planned + ", v: " + verifications + ", s: " + skipped
+                                  + ", t: " + elapsed
+                                  + " ms, " + (shots * 60000f / Math.max(elapsed, 1)) + " per min");
+        }
+    }
+
+    /**
+     * Turns straight to the mapped target needing the least rotation, and shoots it once a frame
+     * confirms it is there. The confirmation frame also updates the map, which forgets targets
+     * that are no longer seen, so a target that is not confirmed is given up for the next. The
+     * arena is scanned when no targets are mapped.
+     */
+    private void shootFromMap()
+    {
+        long startTime = _clock.currentTimeMillis();
+        boolean scanned = false;
+        int numRotations = 0;
+        int numConfirmations = 0;
+        while (numConfirmations < MAX_MAP_CONFIRMATIONS)
+        {
+            if (_targetMap.getCount() == 0)
+            {
+                /* Scan at most once per press, as targets not found in a scan will not be found in the next. */
+                if (scanned)
+                    break;
+
+                numRotations += scan();
+                scanned = true;
+                continue;
+            }
+
+            int target = _targetMap.getNearest(_rotator.getHeading());
+            float bearing = _targetMap.getBearing(target);
+            float turn = bearing - _rotator.getHeading();
+            if (Math.abs(turn) > DirectionCalculator.calculateTolerance(_targetMap.getDistance(target)))
+            {
+                _rotator.turnDegrees(turn);
+                numRotations++;
+            }
+
+            /* Look for the target near where the map puts it. */
+            float heading = _rotator.getHeading();
+            ITargetContainer frame = receiveMapFrame(heading);
+            numConfirmations++;
+
+            int seen = -1;
+            float direction = 0;
+            for (int i = 0; i < frame.getTargetCount(); i++)
+            {
+                float offset = DirectionCalculator.calculateDirection(frame, i);
+                if (Math.abs(heading + offset - bearing) <= MAP_CONFIRM_GATE
+                    && (seen < 0 || Math.abs(heading + offset - bearing) < Math.abs(heading + direction - bearing)))
                 {
-                    this.warn(ex.getMessage());
+                    seen = i;
+                    direction = offset;
                 }
+            }
 
-                return;
+            /* The target is gone, or was not seen this time, which the map has counted. */
+            if (seen < 0)
+                continue;
+
+            /* Shoot at the distance averaged over the frames the target was mapped in. */
+            float distance = DistanceCalculator.calculateRange(frame, seen, direction);
+            int mapped = _targetMap.find(heading + direction, distance);
+            if (mapped >= 0)
+                distance = _targetMap.getDistance(mapped);
+
+            if (Math.abs(direction) > DirectionCalculator.calculateTolerance(distance))
+            {
+                turnMeasured(direction);
+                direction = heading + direction - _rotator.getHeading();
+                numRotations++;
             }
+
+            try
+            {
+                float commandedDistance = _powerCalibration.getCommandedDistance(distance);
+                short height = frame.getHeight(seen);
+                if (_verifyShots)
+                    prepareShotVerification(height, direction);
+
+                _shooter.shootDistance(commandedDistance);
+
+                /* Forget a target known to be hit, rather than looking for it again. A target that was missed, or
+                   that the host could not judge, stays mapped. */
+                if (_verifyShots && verifyShot(height, direction, distance, commandedDistance) && mapped >= 0)
+                    _targetMap.remove(mapped);
+
+                if (this._debug)
+                    this.sendDebugMessage("r: " + numRotations + ", c: " + numConfirmations + ", a: " + direction
+                                          + ", d: " + distance + ", m: " + _targetMap.getCount() + ", t: "
+                                          + (_clock.currentTimeMillis() - startTime) + " ms");
+            }
+            catch (OutOfRangeException ex)
+            {
+                this.warn(ex.getMessage());
+            }
+
+            return;
+        }
+
+        this.warn("No targets found.");
+    }
+
+    /**
+     * Maps the arena by sweeping the turret across it, looking at a frame every step of about a
+     * field of view. The sweep starts at the end nearest to the current heading, and the map is
+     * replaced by what the sweep finds. Returns the number of rotations made.
+     */
+    private int scan()
+    {
+        float halfView = CameraModel.getDefault().getHalfFieldOfView();
+        float sweep = 2 * (SCAN_RANGE - halfView);
+        int steps = (int) Math.ceil(sweep / (2 * halfView * SCAN_STEP));
+        float first = _rotator.getHeading() < 0 ? -sweep / 2 : sweep / 2;
+
+        _targetMap.clear();
+
+        int numRotations = 0;
+        for (int step = 0; step <= steps; step++)
+        {
+            /* Frames need not be taken at exact headings, as long as they overlap. */
+            float turn = first - Math.signum(first) * step * sweep / steps - _rotator.getHeading();
+            if (Math.abs(turn) > halfView * (1 - SCAN_STEP))
+            {
+                _rotator.turnDegrees(turn);
+                numRotations++;
+            }
+
+            receiveMapFrame(_rotator.getHeading());
+        }
+
+        if (_debug)
+            this.sendDebugMessage("scan: " + _targetMap.getCount() + " targets");
+
+        return numRotations;
+    }
+
+    /* Receives a frame taken at the given heading, removes the targets that cannot be hit and maps the others. */
+    private ITargetContainer receiveMapFrame(float heading)
+    {
+        ITargetContainer frame = receiveTargetInformation(null);
+        _frameTime = _clock.currentTimeMillis();
+
+        if (_gatingPipeline != null)
+            frame = _gatingPipeline.apply(frame);
+
+        _targetMap.update(frame, heading);
+        return frame;
+    }
+
+    /* Has the host capture the frame the shot at the target is judged against, before the ball is in it. */
+    private void prepareShotVerification(short height, float direction)
+    {
+        requestShotVerification(ShotVerificationPacket.BEFORE_SHOT, height, direction);
+    }
+
+    /**
+     * Asks the host whether the shot prepared for hit the targeted cup, and learns from the
+     * answer how far the throw landed from where it was meant to. Shots the host cannot judge
+     * are not learned from. Returns whether the shot is known to have hit.
+     */
+    private boolean verifyShot(short height, float direction, float distance, float commandedDistance)
+    {
+        ShotVerificationPacket verification =
+                requestShotVerification(ShotVerificationPacket.AFTER_SHOT, height, direction);
+        if (!verification.isKnown())
+            return false;
+
+        _powerCalibration.addResult(distance, commandedDistance, verification.isHit());
+        return verification.isHit();
+    }
+
+    private ShotVerificationPacket requestShotVerification(byte stage, short height, float direction)
+    {
+        this._connection.sendPacket(new ShotVerificationPacket(stage, direction, height));
+
+        Packet receivedPacket = this._connection.receivePacket();
+        if (receivedPacket.getId() != PacketIds.ShotVerification)
+            this.abort(AbortCode.UNKNOWN_PACKET, "Expected shot verification.");
+
+        return (ShotVerificationPacket) receivedPacket;
+    }
+
+    /**
+     * Returns how much further the targets of a salvo are from where the first frame put them, from
+     * the target in a verification frame nearest to where one of the remaining targets is expected.
+     * Returns zero if no target is within the verification gate of where one is expected.
+     */
+    private float findSalvoCorrection(ITargetContainer check, float[] directions, int fromStep, int planned,
+                                      float correction, float turned)
+    {
+        float best = 0;
+        float bestOffset = SALVO_VERIFY_GATE;
+        for (int step = fromStep; step < planned; step++)
+        {
+            float expected = directions[_salvoPlanner.getTarget(step)] + correction - turned;
+            for (int i = 0; i < check.getTargetCount(); i++)
+            {
+                float offset = DirectionCalculator.calculateDirection(check, i) - expected;
+                if (Math.abs(offset) <= bestOffset)
+                {
+                    best = offset;
+                    bestOffset = Math.abs(offset);
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Adds the distance to the selected target to the estimate, starting over if the target is on
+     * another track than the one estimated so far. Targets selected by the host are not followed,
+     * so for them the estimate starts over if the distance is too far off to be of the same target.
+     */
+    private void addDistanceSample(TargetSelection selection)
+    {
+        float distance = selection.getRange();
+        int trackId = selection.getTrackId();
+
+        boolean sameTarget = trackId != TargetTracker.NO_TRACK ?
+                trackId == _distanceTrackId :
+                Math.abs(distance - _distanceEstimator.getEstimate()) <= DISTANCE_SAMPLE_GATE;
+        if (_distanceEstimator.getCount() > 0 && !sameTarget)
+            _distanceEstimator.reset();
+
+        _distanceTrackId = trackId;
+        _distanceEstimator.add(distance);
+    }
+
+    /**
+     * Requests frames of the target in front of us until the distance estimate is settled or enough
+     * frames were seen, counting them in _measuredFrameCount. Returns false if a frame shows that
+     * the selected target is no longer in front of us, or is gone, which ends the measurement.
+     */
+    private boolean measureDistance(Policy policy, int pass)
+    {
+        _measuredFrameCount = 0;
+        while (!_distanceEstimator.isSettled() && _distanceEstimator.getCount() < _distanceSamples)
+        {
+            TargetSelection selection = selectTarget(policy, pass, _distanceTrackId);
+            _measuredFrameCount++;
+
+            if (selection == null
+                || Math.abs(selection.getDirection()) > DirectionCalculator.calculateTolerance(selection.getDistance()))
+                return false;
+
+            addDistanceSample(selection);
         }
+
+        return true;
+    }
+
+    /* Turns the given number of degrees and returns how far the measured rotation is off. */
+    private float turnMeasured(float degrees)
+    {
+        float headingBefore = _rotator.getHeading();
+        _rotator.turnDegrees(degrees);
+
+        return Math.abs(degrees - (_rotator.getHeading() - headingBefore));
     }
 
-    private ITargetContainer receiveTargetInformation()
+    /**
+     * Whether the target can be assumed to be within the tolerance after a rotation, without looking again.
+     * Large rotations are not trusted, as the angle per pixel is not constant across the frame, and
+     * neither are old frames, as the targets may have moved since.
+     */
+    private boolean isPredictionReliable(float rotation, float residualAngle, float tolerance)
     {
-        /* Request target information. */
-        this._connection.sendPacket(new TargetInfoRequestPacket());
+        return Math.abs(residualAngle) <= tolerance
+               && Math.abs(rotation) <= MAX_PREDICTED_ROTATION
+               && _clock.currentTimeMillis() - _frameTime <= MAX_PREDICTED_FRAME_AGE;
+    }
 
+    /**
+     * Selects the target for the given pass. If policy offloading is enabled, the host
+     * runs the policy and returns the target with its angle and distance. Otherwise, or
+     * if the host does not support the policy, the policy runs on the robot.
+     * Returns null if no targets were found.
+     */
+    private TargetSelection selectTarget(Policy policy, int pass)
+    {
+        return selectTarget(policy, pass, TargetTracker.NO_TRACK);
+    }
+
+    /**
+     * Selects the target for the given pass as above, but selects the target on the given track
+     * instead of the policy's while it is seen, so that the distance is measured to one target.
+     */
+    private TargetSelection selectTarget(Policy policy, int pass, int lockedTrackId)
+    {
+        if (_policyOffload)
+        {
+            TargetSelectionRequestPacket offloadedSelection = requestTargetSelection(pass);
+            _frameTime = _clock.currentTimeMillis();
+            if (offloadedSelection.isSelected())
+                return offloadedSelection.getSelection();
+            else if (offloadedSelection.hasNoTargets())
+                return null;
+
+            /* The host cannot run this policy, so stop asking for the rest of the session. */
+            _policyOffload = false;
+            if (_debug)
+                this.sendDebugMessage("Policy offload unsupported, selecting on robot.");
+        }
+
+        ITargetContainer targetContainer = receiveTargetInformation(policy);
+        _frameTime = _clock.currentTimeMillis();
+
+        /* Drop the targets that cannot be hit before the policy sees them, unless the frame was gated as it arrived. */
+        _rejectedCount = 0;
+        if (_gatingPipeline != null)
+        {
+            if (!_frameGated)
+                targetContainer = _gatingPipeline.apply(targetContainer);
+            else
+                targetContainer = _gatedFrame;
+
+            _rejectedCount = _gatingPipeline.getRejectedCount();
+        }
+
+        if (targetContainer.getTargetCount() == 0)
+            return null;
+
+        /* Get suggested target using the chosen policy, unless it already evaluated the frame while it arrived. */
+        TargetBox target = _frameEvaluated ?
+                ((IncrementalPolicy) policy).getSelectedTarget(targetContainer) :
+                policy.selectTargetBox(targetContainer, Deadline.after(_clock, SELECTION_BUDGET));
+
+        /* Follow the targets while their distance is measured over several frames. */
+        int trackId = TargetTracker.NO_TRACK;
+        if (_distanceSamples > 1)
+        {
+            _distanceTracker.update(targetContainer);
+
+            int index = lockedTrackId == TargetTracker.NO_TRACK ?
+                    TargetTracker.NO_TRACK : _distanceTracker.findTarget(lockedTrackId);
+            if (index >= 0)
+                target = targetContainer.getTarget(index);
+            else
+                index = Policy.indexOf(targetContainer, target);
+
+            if (index >= 0)
+                trackId = _distanceTracker.getTrackId(index);
+        }
+
+        return new TargetSelection(targetContainer, target, trackId);
+    }
+
+    private TargetSelectionRequestPacket requestTargetSelection(int pass)
+    {
+        this._connection.sendPacket(new TargetSelectionRequestPacket(_targetingPolicyType, pass));
+
+        Packet receivedPacket = this._connection.receivePacket();
+        if (receivedPacket.getId() != PacketIds.TargetSelectionRequest)
+            this.abort(AbortCode.UNKNOWN_PACKET, "Expected target selection.");
+
+        return (TargetSelectionRequestPacket) receivedPacket;
+    }
+
+    /**
+     * Requests and receives the next frame. Keyframes are assembled chunk by chunk, and
+     * if the policy is incremental, each chunk is gated and evaluated as soon as it arrives.
+     */
+    private ITargetContainer receiveTargetInformation(Policy policy)
+    {
+        _frameEvaluated = false;
+        _frameGated = false;
+
+        /* Request target information, acknowledging the frame we hold so the host can send a delta. */
+        short acknowledgedFrameId = _lastFrame == null ? TargetInfoRequestPacket.NO_FRAME : _lastFrame.getFrameId();
+        this._connection.sendPacket(new TargetInfoRequestPacket(acknowledgedFrameId));
+
+        TargetInfoRequestPacket targetPacket = receiveTargetPacket();
+        if (targetPacket.isKeyframe())
+        {
+            _lastFrame = assembleKeyframe(targetPacket, policy);
+        }
+        else if (_lastFrame != null && targetPacket.getDelta().getBaseFrameId() == _lastFrame.getFrameId())
+        {
+            _lastFrame.applyDelta(targetPacket.getDelta());
+        }
+        else
+        {
+            /* The delta does not match our frame, so drop it and request a keyframe. */
+            _lastFrame = null;
+            return receiveTargetInformation(policy);
+        }
+
+        return _lastFrame;
+    }
+
+    private ITargetContainer assembleKeyframe(TargetInfoRequestPacket chunk, Policy policy)
+    {
+        /* Only allocate room for the targets we keep, however many the host found. */
+        int totalCount = chunk.getTotalCount();
+        PrimitiveTargetContainer frame = PrimitiveTargetContainer.withCapacity(Math.min(totalCount, MAX_FRAME_TARGETS));
+        frame.setFrameId(chunk.getFrameId());
+        frame.setFrameWidth(chunk.getFrameWidth());
+
+        IncrementalPolicy incrementalPolicy = policy instanceof IncrementalPolicy
+                                              && ((IncrementalPolicy) policy).acceptsChunks() ?
+                (IncrementalPolicy) policy : null;
+
+        /* The policy evaluates the targets that pass the gates judging each target on its own. */
+        ITargetContainer evaluatedFrame = frame;
+        if (incrementalPolicy != null && _gatingPipeline != null)
+            evaluatedFrame = _gatingPipeline.beginFrame(frame);
+
+        if (incrementalPolicy != null)
+            incrementalPolicy.beginFrame(evaluatedFrame);
+
+        int received = 0;
+        while (true)
+        {
+            if (chunk.getFrameId() != frame.getFrameId() || chunk.getChunkOffset() != received)
+                this.abort(AbortCode.UNKNOWN_PACKET, "Target frame out of order.");
+
+            /* Keep the targets of this chunk that fit, and evaluate them while the next chunk arrives. */
+            int firstIndex = frame.getTargetCount();
+            for (int i = 0; i < chunk.getChunkCount() && frame.getTargetCount() < MAX_FRAME_TARGETS; i++)
+                frame.addTarget(chunk.getChunkHeight(i), chunk.getChunkWidth(i), chunk.getChunkXPosition(i),
+                                chunk.getChunkConfidence(i));
+
+            if (incrementalPolicy != null)
+            {
+                int firstEvaluatedIndex = evaluatedFrame.getTargetCount();
+                if (_gatingPipeline != null)
+                    _gatingPipeline.acceptTargets(frame, firstIndex, frame.getTargetCount());
+
+                incrementalPolicy.acceptTargets(evaluatedFrame, firstEvaluatedIndex, evaluatedFrame.getTargetCount());
+            }
+
+            received += chunk.getChunkCount();
+            if (received >= totalCount)
+                break;
+
+            chunk = receiveTargetPacket();
+            if (!chunk.isKeyframe())
+                this.abort(AbortCode.UNKNOWN_PACKET, "Expected target frame chunk.");
+        }
+
+        /* The host mirrors the whole frame, so a truncated frame must not be used as the base of a delta. */
+        if (totalCount > MAX_FRAME_TARGETS)
+            frame.setFrameId(TargetInfoRequestPacket.NO_FRAME);
+
+        _frameEvaluated = incrementalPolicy != null;
+
+        /* Apply the gates that need the whole frame. The evaluation only holds if they removed no targets, as when
+           there are no duplicate detections. */
+        if (incrementalPolicy != null && _gatingPipeline != null)
+        {
+            _frameGated = true;
+            _gatedFrame = evaluatedFrame;
+            if (_gatingPipeline.endFrame(frame))
+                _frameEvaluated = false;
+        }
+
+        return frame;
+    }
+
+    private TargetInfoRequestPacket receiveTargetPacket()
+    {
         /* Receive packet with target information. */
         Packet receivedPacket = this._connection.receivePacket();
         if (receivedPacket.getId() != PacketIds.TargetDirectionRequest)
             this.abort(AbortCode.UNKNOWN_PACKET, "Expected target information.");
 
-        return ((TargetInfoRequestPacket)receivedPacket).getTargetBoxInfo();
+        return (TargetInfoRequestPacket) receivedPacket;
     }
 
     private void closeConnection()
@@ -155,6 +988,9 @@ public class Robot implements IAbortable
             this._connection.closeConnection();
             this._connection = null;
         }
+
+        /* A new host does not know our last frame. */
+        this._lastFrame = null;
     }
 
     public void sendDebugMessage(String message)
@@ -188,6 +1024,7 @@ public class Robot implements IAbortable
     public void setTargetingPolicyType(PolicyFactory.TargetingPolicyType policyType)
     {
         this._targetingPolicyType = policyType;
+        this._policy = null;
     }
 
     public void setConnectionType(ConnectionFactory.ConnectionType connectionType)
@@ -20,6 +20,10 @@ public abstract class Packet
                 return new HandshakePacket();
             case TargetDirectionRequest:
                 return new TargetInfoRequestPacket();
+            case TargetSelectionRequest:
+                return new TargetSelectionRequestPacket();
+            case ShotVerification:
+                return new ShotVerificationPacket();
             default:
                 throw new UnknownPacketException("Packet Id " + id + " is unknown.");
         }
@@ -4,7 +4,9 @@ public enum PacketIds
 {
     Handshake((byte) 0x0),
     TargetDirectionRequest((byte) 0x1),
-    Debug((byte) 0x2);
+    Debug((byte) 0x2),
+    TargetSelectionRequest((byte) 0x3),
+    ShotVerification((byte) 0x4);
 
     private byte _id;
 
@@ -0,0 +1,81 @@
+package com.sabr.communication.packets;
+
+import com.sabr.communication.Connection;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Asks the host whether a shot hit. Before the shot, the robot has the host capture a frame
+ * of the targeted cup. After it, the host compares a new frame with that one: a ball that
+ * appeared on the table next to the cup is a miss, and a change at the rim of the cup, or
+ * the cup being gone, is a hit. The robot sends where it expects the cup and how high its
+ * box was. The host replies unknown when it sees neither, as when the ball left the view.
+ */
+public class ShotVerificationPacket extends Packet
+{
+    /** Stage of a verification asking the host to capture the frame before the shot. */
+    public static final byte BEFORE_SHOT = 0;
+
+    /** Stage of a verification asking the host to judge the shot. */
+    public static final byte AFTER_SHOT = 1;
+
+    private static final byte HIT = 0;
+    private static final byte MISSED = 1;
+    private static final byte UNKNOWN = 2;
+
+    private byte _stage;
+    private float _direction;
+    private short _height;
+
+    private byte _status = UNKNOWN;
+
+    public ShotVerificationPacket()
+    {
+    }
+
+    /**
+     * @param stage BEFORE_SHOT or AFTER_SHOT.
+     * @param direction the angle in degrees from the middle of the frame to the targeted cup after aiming.
+     * @param height the height in pixels of the box of the targeted cup.
+     */
+    public ShotVerificationPacket(byte stage, float direction, short height)
+    {
+        this._stage = stage;
+        this._direction = direction;
+        this._height = height;
+    }
+
+    @Override
+    public void constructFromConnection(Connection connection) throws IOException
+    {
+        this._status = connection.getInputStream().readByte();
+    }
+
+    @Override
+    public void writeToConnection(Connection connection) throws IOException
+    {
+        DataOutputStream stream = connection.getOutputStream();
+
+        stream.writeByte(_stage);
+        stream.writeFloat(_direction);
+        stream.writeShort(_height);
+    }
+
+    public boolean isHit()
+    {
+        return this._status == HIT;
+    }
+
+    /** False if the host could not tell whether the shot hit, in which case the result must not be learned from. */
+    public boolean isKnown()
+    {
+        return this._status == HIT || this._status == MISSED;
+    }
+
+    @Override
+    public PacketIds getId()
+    {
+        return PacketIds.ShotVerification;
+    }
+}
@@ -1,52 +1,189 @@
 package com.sabr.communication.packets;
 
 import com.sabr.communication.Connection;
-import com.sabr.targeting.ITargetContainer;
 import com.sabr.targeting.TargetBox;
-import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.TargetDelta;
 
 import java.io.DataInputStream;
 import java.io.IOException;
 
+/**
+ * Requests target information from the host. The reply is either a delta
+ * relative to the acknowledged frame, or a keyframe. Keyframes are split
+ * into chunks, each sent as a separate packet carrying the frame id, the
+ * total number of targets and the offset of its first target.
+ */
 public class TargetInfoRequestPacket extends Packet
 {
-    private TargetContainer _boxInfo;
+    /** Acknowledged when the robot holds no frame, which makes the host send a keyframe. */
+    public static final short NO_FRAME = -1;
+
+    private static final byte KEYFRAME = 0;
+    private static final byte DELTA_FRAME = 1;
+
+    private short _acknowledgedFrameId = NO_FRAME;
+
+    private short _frameId;
+    private short _frameWidth;
+
+    /* Keyframe chunk. */
+    private int _totalCount;
+    private int _chunkOffset;
+    private int _chunkCount;
+    private short[] _chunkXPositions;
+    private short[] _chunkWidths;
+    private short[] _chunkHeights;
+    private short[] _chunkConfidences;
+
+    private TargetDelta _delta;
+
+    public TargetInfoRequestPacket()
+    {
+    }
+
+    /** Requests target information relative to the last frame the robot holds. */
+    public TargetInfoRequestPacket(short acknowledgedFrameId)
+    {
+        this._acknowledgedFrameId = acknowledgedFrameId;
+    }
 
     @Override
     public void constructFromConnection(Connection connection) throws IOException
     {
         DataInputStream stream = connection.getInputStream();
 
+        // Read the frame header
+        this._frameId = stream.readShort();
+        byte frameType = stream.readByte();
+
         // Read the width of the frame, used to calculate the middle of the image
-        short frameWidth = stream.readShort();
+        this._frameWidth = stream.readShort();
 
-        // Read the number of samples and create target box info object
-        byte numBoxSamples = stream.readByte();
+        if (frameType == DELTA_FRAME)
+        {
+            constructDelta(stream);
+            return;
+        }
 
-        this._boxInfo = new TargetContainer(numBoxSamples);
-        this._boxInfo.setFrameWidth(frameWidth);
+        // Read the total number of targets in the frame and the position of this chunk
+        this._totalCount = stream.readUnsignedShort();
+        this._chunkOffset = stream.readUnsignedShort();
 
-        // Get target box samples
-        for (byte i = 0; i < numBoxSamples; i++)
+        // Get the target box samples of this chunk
+        this._chunkCount = stream.readUnsignedByte();
+        this._chunkXPositions = new short[this._chunkCount];
+        this._chunkWidths = new short[this._chunkCount];
+        this._chunkHeights = new short[this._chunkCount];
+        this._chunkConfidences = new short[this._chunkCount];
+        for (int i = 0; i < this._chunkCount; i++)
         {
-            // Read info from data stream
-            short xPos = stream.readShort();
-            short width = stream.readShort();
-            short height = stream.readShort();
+            this._chunkXPositions[i] = stream.readShort();
+            this._chunkWidths[i] = stream.readShort();
+            this._chunkHeights[i] = stream.readShort();
+            this._chunkConfidences[i] = (short) stream.readUnsignedByte();
+        }
+    }
+
+    private void constructDelta(DataInputStream stream) throws IOException
+    {
+        short baseFrameId = stream.readShort();
 
-            // Instantiate the target box and add to target container
-            this._boxInfo.setTarget(i, new TargetBox(height, width, xPos));
+        // Indices of targets no longer present, relative to the base frame
+        short[] removedIndices = new short[stream.readUnsignedShort()];
+        for (int i = 0; i < removedIndices.length; i++)
+            removedIndices[i] = stream.readShort();
+
+        // Targets of the base frame that have moved, along with their new dimensions
+        int numMoved = stream.readUnsignedShort();
+        short[] movedIndices = new short[numMoved];
+        TargetBox[] movedTargets = new TargetBox[numMoved];
+        for (int i = 0; i < numMoved; i++)
+        {
+            movedIndices[i] = stream.readShort();
+            movedTargets[i] = readTargetBox(stream);
         }
+
+        // Targets that were not present in the base frame
+        TargetBox[] addedTargets = new TargetBox[stream.readUnsignedShort()];
+        for (int i = 0; i < addedTargets.length; i++)
+            addedTargets[i] = readTargetBox(stream);
+
+        this._delta = new TargetDelta(_frameId, baseFrameId, removedIndices, movedIndices, movedTargets, addedTargets);
+    }
+
+    private TargetBox readTargetBox(DataInputStream stream) throws IOException
+    {
+        // Read info from data stream
+        short xPos = stream.readShort();
+        short width = stream.readShort();
+        short height = stream.readShort();
+        short confidence = (short) stream.readUnsignedByte();
+
+        return new TargetBox(height, width, xPos, confidence);
+    }
+
+    public boolean isKeyframe()
+    {
+        return this._delta == null;
+    }
+
+    public short getFrameId()
+    {
+        return this._frameId;
+    }
+
+    public short getFrameWidth()
+    {
+        return this._frameWidth;
+    }
+
+    /** The number of targets in the whole keyframe. */
+    public int getTotalCount()
+    {
+        return this._totalCount;
+    }
+
+    /** The index in the keyframe of the first target of this chunk. */
+    public int getChunkOffset()
+    {
+        return this._chunkOffset;
+    }
+
+    public int getChunkCount()
+    {
+        return this._chunkCount;
+    }
+
+    public short getChunkXPosition(int index)
+    {
+        return this._chunkXPositions[index];
+    }
+
+    public short getChunkWidth(int index)
+    {
+        return this._chunkWidths[index];
+    }
+
+    public short getChunkHeight(int index)
+    {
+        return this._chunkHeights[index];
+    }
+
+    public short getChunkConfidence(int index)
+    {
+        return this._chunkConfidences[index];
     }
 
-    public ITargetContainer getTargetBoxInfo()
+    /** Returns the received delta, or null if a keyframe chunk was received. */
+    public TargetDelta getDelta()
     {
-        return this._boxInfo;
+        return this._delta;
     }
 
     @Override
     public void writeToConnection(Connection connection) throws IOException
     {
+        connection.getOutputStream().writeShort(_acknowledgedFrameId);
     }
 
     @Override
@@ -0,0 +1,97 @@
+package com.sabr.communication.packets;
+
+import com.sabr.communication.Connection;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetSelection;
+import com.sabr.targeting.policies.PolicyFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Asks the host to run the targeting policy on its own frame and
+ * reply with the selected target, the angle to it and its distance.
+ */
+public class TargetSelectionRequestPacket extends Packet
+{
+    private static final byte SELECTED = 0;
+    private static final byte NO_TARGETS = 1;
+    private static final byte UNSUPPORTED = 2;
+
+    private PolicyFactory.TargetingPolicyType _policyType;
+    private byte _pass;
+
+    private byte _status = UNSUPPORTED;
+    private TargetSelection _selection;
+
+    public TargetSelectionRequestPacket()
+    {
+    }
+
+    /**
+     * @param policyType the policy the host should use.
+     * @param pass the number of passes already made towards the current target,
+     *             as policies such as the double policy change behaviour after the first pass.
+     */
+    public TargetSelectionRequestPacket(PolicyFactory.TargetingPolicyType policyType, int pass)
+    {
+        this._policyType = policyType;
+        this._pass = (byte) Math.min(pass, Byte.MAX_VALUE);
+    }
+
+    @Override
+    public void constructFromConnection(Connection connection) throws IOException
+    {
+        DataInputStream stream = connection.getInputStream();
+
+        this._status = stream.readByte();
+        if (this._status != SELECTED)
+            return;
+
+        short xPos = stream.readShort();
+        short width = stream.readShort();
+        short height = stream.readShort();
+        short confidence = (short) stream.readUnsignedByte();
+        float direction = stream.readFloat();
+        float distance = stream.readFloat();
+
+        this._selection = new TargetSelection(new TargetBox(height, width, xPos, confidence), direction, distance);
+    }
+
+    @Override
+    public void writeToConnection(Connection connection) throws IOException
+    {
+        DataOutputStream stream = connection.getOutputStream();
+
+        stream.writeByte(_policyType.ordinal());
+        stream.writeByte(_pass);
+    }
+
+    public boolean isSelected()
+    {
+        return this._status == SELECTED;
+    }
+
+    public boolean hasNoTargets()
+    {
+        return this._status == NO_TARGETS;
+    }
+
+    /** False if the host cannot run the requested policy, in which case the robot must select locally. */
+    public boolean isSupported()
+    {
+        return this._status != UNSUPPORTED;
+    }
+
+    public TargetSelection getSelection()
+    {
+        return this._selection;
+    }
+
+    @Override
+    public PacketIds getId()
+    {
+        return PacketIds.TargetSelectionRequest;
+    }
+}
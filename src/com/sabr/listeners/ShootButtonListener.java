@@ -14,6 +14,10 @@ public class ShootButtonListener implements ButtonListener
     @Override
     public void buttonReleased(Button button)
     {
-        Robot.getInstance().locateAndShoot();
+        Robot robot = Robot.getInstance();
+        if (robot.isSalvoMode())
+            robot.shootSalvo();
+        else
+            robot.locateAndShoot();
     }
 }
@@ -8,4 +8,7 @@ public interface IRotator
 {
     void turnDegrees(float degrees);
     void resetHeading();
+
+    /** The number of degrees turned since start, as measured by the motor, in the direction of turnDegrees. */
+    float getHeading();
 }
\ No newline at end of file
@@ -36,4 +36,10 @@ public class Rotator extends MotorController implements IRotator
     {
         turnDegrees(-currentHeading);
     }
+
+    public float getHeading()
+    {
+        /* The motor turns backwards for positive degrees. */
+        return -_regMotor.getTachoCount() / getGearRatio();
+    }
 }
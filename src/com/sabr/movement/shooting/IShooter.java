@@ -9,4 +9,10 @@ import com.sabr.exceptions.OutOfRangeException;
 public interface IShooter
 {
     void shootDistance(float distance)throws OutOfRangeException;
+
+    /** The shortest distance the shooter can currently shoot. */
+    float getMinDistance();
+
+    /** The longest distance the shooter can currently shoot, which is less when the batteries are low. */
+    float getMaxDistance();
 }
@@ -0,0 +1,195 @@
+package com.sabr.movement.shooting;
+
+/**
+ * Learns during a session how far throws drift from the power model, from whether shots hit,
+ * and corrects the distances shot for it.
+ *
+ * The drift is a change of the model's line: a throw meant for a distance d lands at
+ *     d + offset + slope * (d - ReferenceDistance)
+ * as battery level and ball wear change the throws. A grid of offsets and slopes is weighted
+ * by how well each explains the hits and misses so far, starting from a prior around no
+ * drift. A hit is likely if a hypothesis puts the landing near the target, so a hit raises the
+ * weight of the hypotheses that agree with the correction shot with, and a miss lowers it.
+ *
+ * Learning is bounded three ways, so a few unlucky shots cannot throw the shooter off: each
+ * result only counts as much as the square root of its likelihood, the weights return slowly
+ * to the prior so that old results are forgotten as the drift changes, and the correction moves
+ * towards the most likely hypothesis by at most a small step per shot.
+ */
+public class PowerCalibration
+{
+    /** Distance in centimeters about which the slope turns the line, in the middle of the shooter's range. */
+    public static final float ReferenceDistance = 125.0f;
+
+    /* Hypotheses of the offset in centimeters and of the slope. */
+    private static final float MaxOffset = 15.0f;
+    private static final float OffsetStep = 1.5f;
+    private static final float MaxSlope = 0.1f;
+    private static final float SlopeStep = 0.025f;
+
+    /* Spread of the prior, as the power model is fitted on test shots. */
+    private static final float PriorOffsetDeviation = 5.0f;
+    private static final float PriorSlopeDeviation = 0.05f;
+
+    /* Share of aimed shots that hit when the distance is right, and the landing error in centimeters at which
+       the chance of a hit has dropped by about 40 percent, from the depth of a cup and the spread of throws. */
+    private static final float MaxHitRate = 0.9f;
+    private static final float HitSpread = 5.0f;
+
+    /* Share of the weights returned to the prior after each result. */
+    private static final float Forgetting = 0.01f;
+
+    /* Largest change of the correction per shot. */
+    private static final float MaxOffsetChange = 1.5f;
+    private static final float MaxSlopeChange = 0.01f;
+
+    /* How much more likely than the hypothesis moved towards another one must be to move towards it instead. */
+    private static final float TargetSwitchRatio = 2.0f;
+
+    private static final int OffsetCount = Math.round(2 * MaxOffset / OffsetStep) + 1;
+    private static final int SlopeCount = Math.round(2 * MaxSlope / SlopeStep) + 1;
+
+    /* Weights of the hypotheses, indexed by slope and then offset, and the prior they return to. */
+    private final float[] _prior = new float[OffsetCount * SlopeCount];
+    private final float[] _weights = new float[OffsetCount * SlopeCount];
+
+    /* The hypothesis the correction moves towards. It is only given up for one clearly more likely, as after
+       misses the hypotheses on either side are often about as likely, and switching between them would keep
+       the correction from getting to either. */
+    private int _target;
+
+    /* The drift corrected for. */
+    private float _offset = 0;
+    private float _slope = 0;
+
+    private int _results = 0;
+
+    /* The shooter whose range distances shot are kept within. */
+    private final IShooter _shooter;
+
+    public PowerCalibration(IShooter shooter)
+    {
+        this._shooter = shooter;
+
+        float sum = 0;
+        for (int s = 0; s < SlopeCount; s++)
+        {
+            for (int o = 0; o < OffsetCount; o++)
+            {
+                float offset = getOffsetHypothesis(o) / PriorOffsetDeviation;
+                float slope = getSlopeHypothesis(s) / PriorSlopeDeviation;
+
+                _prior[s * OffsetCount + o] = (float) Math.exp(-(offset * offset + slope * slope) / 2);
+                sum += _prior[s * OffsetCount + o];
+            }
+        }
+
+        for (int i = 0; i < _prior.length; i++)
+            _prior[i] /= sum;
+
+        reset();
+    }
+
+    /** Forgets all results, as when the batteries or balls are replaced. */
+    public void reset()
+    {
+        System.arraycopy(_prior, 0, _weights, 0, _prior.length);
+        _target = _prior.length / 2;
+        _offset = 0;
+        _slope = 0;
+        _results = 0;
+    }
+
+    /** Returns the distance to shoot for the ball to land at the given distance, given the drift corrected for. */
+    public float getCommandedDistance(float distance)
+    {
+        float commandedDistance = (distance - _offset + _slope * ReferenceDistance) / (1 + _slope);
+
+        /* Targets within range are kept within range, as a target that is no longer shot at cannot show that the
+           correction is wrong. */
+        float minDistance = _shooter.getMinDistance();
+        float maxDistance = _shooter.getMaxDistance();
+        if (distance >= minDistance && distance <= maxDistance)
+            commandedDistance = Math.max(minDistance, Math.min(commandedDistance, maxDistance));
+
+        return commandedDistance;
+    }
+
+    /**
+     * Learns from whether a shot hit.
+     *
+     * @param distance the distance to the target.
+     * @param commandedDistance the distance shot, as returned by getCommandedDistance.
+     * @param hit whether the ball landed in the target.
+     */
+    public void addResult(float distance, float commandedDistance, boolean hit)
+    {
+        float sum = 0;
+        for (int s = 0; s < SlopeCount; s++)
+        {
+            float slope = getSlopeHypothesis(s);
+            for (int o = 0; o < OffsetCount; o++)
+            {
+                /* Where the throw lands if this hypothesis is true. */
+                float error = commandedDistance + getOffsetHypothesis(o)
+                              + slope * (commandedDistance - ReferenceDistance) - distance;
+                float hitChance = MaxHitRate * (float) Math.exp(-error * error / (2 * HitSpread * HitSpread));
+                float likelihood = hit ? hitChance : 1 - hitChance;
+
+                int i = s * OffsetCount + o;
+                _weights[i] *= (float) Math.sqrt(likelihood);
+                sum += _weights[i];
+            }
+        }
+
+        /* Normalize, and return some of the weight to the prior. */
+        int best = 0;
+        for (int i = 0; i < _weights.length; i++)
+        {
+            _weights[i] = (1 - Forgetting) * _weights[i] / sum + Forgetting * _prior[i];
+            if (_weights[i] > _weights[best])
+                best = i;
+        }
+
+        /* Move the correction towards the most likely drift. */
+        if (_weights[best] > TargetSwitchRatio * _weights[_target])
+            _target = best;
+
+        _offset += clamp(getOffsetHypothesis(_target % OffsetCount) - _offset, MaxOffsetChange);
+        _slope += clamp(getSlopeHypothesis(_target / OffsetCount) - _slope, MaxSlopeChange);
+        _results++;
+    }
+
+    /** Returns the number of centimeters throws are corrected for landing beyond the power model at the reference distance. */
+    public float getOffset()
+    {
+        return _offset;
+    }
+
+    /** Returns how much farther than the power model throws are corrected for landing per centimeter of distance. */
+    public float getSlope()
+    {
+        return _slope;
+    }
+
+    /** Returns the number of results learned from since the last reset. */
+    public int getResultCount()
+    {
+        return _results;
+    }
+
+    private static float getOffsetHypothesis(int index)
+    {
+        return index * OffsetStep - MaxOffset;
+    }
+
+    private static float getSlopeHypothesis(int index)
+    {
+        return index * SlopeStep - MaxSlope;
+    }
+
+    private static float clamp(float value, float limit)
+    {
+        return Math.max(-limit, Math.min(value, limit));
+    }
+}
@@ -0,0 +1,56 @@
+package com.sabr.movement.shooting;
+
+import com.sabr.utilities.FixedPoint;
+
+/**
+ * The relation between motor power and shooting distance, fitted on test shots:
+ *     distance = 78.102 + 0.802 * power
+ * Measured distances fall 11.5 cm short of this line, which the model corrects for.
+ */
+public class PowerModel
+{
+    /** Lowest power that reliably reaches a target. */
+    public static final int MIN_POWER = 45;
+
+    /** Highest power the motors can be set to. */
+    public static final int MAX_POWER = 100;
+
+    private static final float Intercept = 78.102f;
+    private static final float Slope = 0.802f;
+    private static final float DistanceCorrection = 11.5f;
+
+    /* The same line in Q16.16 fixed point, with the division turned into a multiplication. */
+    private static final int FixedOffset = FixedPoint.fromFloat(DistanceCorrection - Intercept);
+    private static final int FixedInverseSlope = FixedPoint.fromFloat(1 / Slope);
+
+    /** Power needed to shoot the given distance, before compensating for the motor speed. */
+    public static float getRawPower(float distance)
+    {
+        float correctedDistance = distance + DistanceCorrection;
+        return (correctedDistance - Intercept) / Slope;
+    }
+
+    /** Power needed to shoot the given distance as above, with both in Q16.16 fixed point. */
+    public static int getRawPowerFixed(int distance)
+    {
+        return FixedPoint.multiply(distance + FixedOffset, FixedInverseSlope);
+    }
+
+    /** Distance reached when shooting at the given power, before compensating for the motor speed. */
+    public static float getDistance(float rawPower)
+    {
+        return rawPower * Slope + Intercept - DistanceCorrection;
+    }
+
+    /** The shortest distance within range of the shooter, before compensating for the motor speed. */
+    public static float getMinDistance()
+    {
+        return getDistance(MIN_POWER);
+    }
+
+    /** The longest distance within range of the shooter, before compensating for the motor speed. */
+    public static float getMaxDistance()
+    {
+        return getDistance(MAX_POWER);
+    }
+}
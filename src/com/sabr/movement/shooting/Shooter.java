@@ -5,6 +5,7 @@ import java.lang.Math;
 import com.sabr.exceptions.OutOfRangeException;
 
 import com.sabr.movement.MotorController;
+import com.sabr.utilities.FixedPoint;
 import lejos.nxt.*;
 import lejos.robotics.RegulatedMotor;
 
@@ -27,18 +28,40 @@ public class Shooter extends MotorController implements IShooter
 
     private int getPowerLinear(float distance)
     {
-        /* distance=  78.102 + 0.807 * power
-         * giving...
-         * power = (distance - 78.102) / 0.802
-         * */
+        if (FixedPoint.ENABLED)
+            return getPowerLinearFixed(distance);
 
-        float correctedDistance = distance + 11.5f;
-        float rawPower = (correctedDistance - 78.102f) / 0.802f;
+        float rawPower = PowerModel.getRawPower(distance);
+        return (int) Math.round(rawPower * getCompensationFactor());
+    }
 
+    /* How much more power the motors need than the power model gives, as they are slower below 9V. */
+    private float getCompensationFactor()
+    {
         int theoreticalMaxSpeed = 900; /* 9V * approx. 100 */
-        float compensationFactor = theoreticalMaxSpeed / regMotor.getMaxSpeed();
+        return theoreticalMaxSpeed / regMotor.getMaxSpeed();
+    }
+
+    private int getPowerLinearFixed(float distance)
+    {
+        int rawPower = PowerModel.getRawPowerFixed(FixedPoint.fromFloat(distance));
+
+        int theoreticalMaxSpeed = FixedPoint.fromInt(900); /* 9V * approx. 100 */
+        int compensationFactor = FixedPoint.divide(theoreticalMaxSpeed, FixedPoint.fromFloat(regMotor.getMaxSpeed()));
 
-        return (int) Math.round(rawPower * compensationFactor);
+        return FixedPoint.round(FixedPoint.multiply(rawPower, compensationFactor));
+    }
+
+    /** The shortest distance shot at no less than the lowest power, once compensated for the motor speed. */
+    public float getMinDistance()
+    {
+        return PowerModel.getDistance(PowerModel.MIN_POWER / getCompensationFactor());
+    }
+
+    /** The longest distance shot at no more than the highest power, once compensated for the motor speed. */
+    public float getMaxDistance()
+    {
+        return PowerModel.getDistance(PowerModel.MAX_POWER / getCompensationFactor());
     }
 
     public void shootDistance(float distance)throws OutOfRangeException
@@ -46,9 +69,9 @@ public class Shooter extends MotorController implements IShooter
         int power = getPowerLinear(distance);
 
         // Check if target is out of range
-        if (power > 100)
+        if (power > PowerModel.MAX_POWER)
             throw new OutOfRangeException("Target too far.");
-        else if (power < 45)
+        else if (power < PowerModel.MIN_POWER)
             throw new OutOfRangeException("Target too close.");
 
         // Run motors
@@ -0,0 +1,239 @@
+package com.sabr.targeting;
+
+import com.sabr.utilities.FixedPoint;
+
+/**
+ * A pinhole model of the camera, used to turn pixel positions into angles and pixel
+ * heights into distances.
+ *
+ * A target at a horizontal offset u from the middle of the frame is at an angle of
+ * atan(u / f), where f is the focal length in pixels. This follows from the field of view:
+ * the edge of the frame is at half the field of view. The angle per pixel is therefore
+ * largest in the middle of the frame and smaller towards its edges.
+ *
+ * The distance to a target is inversely proportional to its pixel height. It is found by
+ * interpolating linearly in 1 / height between calibration points, each a pixel height
+ * measured at a known distance. Below the smallest calibration height the line through
+ * the last point and the origin is used, which for a single point is similar triangles.
+ *
+ * Both are precomputed into lookup tables. The angle table is built for the frame width
+ * in use and sampled every few pixels, and the distance table holds every whole pixel
+ * height. Computing an angle or distance is then a table read, plus an interpolation for
+ * angles.
+ *
+ * The tables are also kept in Q16.16 fixed point, for use when FixedPoint is enabled.
+ *
+ * A model may be shared by robots simulated on several threads. The distance table is built
+ * by the constructor, and the angle table is immutable once built and published through a
+ * single volatile field, so a thread sees either a whole table or none. Threads that find no
+ * table for their frame width build their own.
+ */
+public class CameraModel
+{
+    /** Angle from the middle of the Logitech camera's view to the edge of it. */
+    private static final float DefaultHalfFieldOfView = 33.0f;
+
+    /** Pixel height of a target at 120 cm. */
+    private static final float[] DefaultCalibrationHeights = {133.0f};
+    private static final float[] DefaultCalibrationDistances = {120.0f};
+
+    private static final CameraModel _default =
+            new CameraModel(DefaultHalfFieldOfView, DefaultCalibrationHeights, DefaultCalibrationDistances);
+
+    /* Pixels between the samples of the angle table. Must be a power of two. */
+    private static final int AngleStepShift = 3;
+    private static final int AngleStep = 1 << AngleStepShift;
+
+    /* Largest pixel height in the distance table. Taller targets are computed directly. */
+    private static final int MaxTableHeight = 480;
+
+    private final float _halfFieldOfView;
+    private final float _tanHalfFieldOfView;
+
+    /* Calibration points, ordered by increasing height. */
+    private final float[] _calibrationHeights;
+    private final float[] _calibrationDistances;
+
+    /* Angle table of the frame width last used. */
+    private volatile AngleTable _angleTable;
+
+    private final float[] _distances = new float[MaxTableHeight + 1];
+    private final int[] _fixedDistances = new int[MaxTableHeight + 1];
+
+    /**
+     * Creates a camera model with the given half field of view in degrees, and calibration points
+     * given as pixel heights and their distances in centimeters, ordered by increasing height.
+     */
+    public CameraModel(float halfFieldOfView, float[] calibrationHeights, float[] calibrationDistances)
+    {
+        this._halfFieldOfView = halfFieldOfView;
+        this._tanHalfFieldOfView = (float) Math.tan(Math.toRadians(halfFieldOfView));
+        this._calibrationHeights = calibrationHeights;
+        this._calibrationDistances = calibrationDistances;
+
+        for (int height = 1; height <= MaxTableHeight; height++)
+        {
+            _distances[height] = computeDistance(height);
+            _fixedDistances[height] = FixedPoint.fromFloat(_distances[height]);
+        }
+
+        _distances[0] = Float.POSITIVE_INFINITY;
+        _fixedDistances[0] = Integer.MAX_VALUE;
+    }
+
+    public static CameraModel getDefault()
+    {
+        return _default;
+    }
+
+    public float getHalfFieldOfView()
+    {
+        return _halfFieldOfView;
+    }
+
+    /**
+     * Returns the number of degrees to turn to face a target at the given x-position.
+     * Positive angles are to the left of the middle of the frame.
+     */
+    public float getDirection(short frameWidth, float xPosition)
+    {
+        float frameMiddle = frameWidth / 2;
+        float offset = frameMiddle - xPosition;
+
+        AngleTable table = getAngleTable(frameWidth);
+        float[] angles = table.angles;
+
+        /* Look up the angle of the absolute offset, interpolating between samples. */
+        float absoluteOffset = Math.abs(offset);
+        int sample = (int) absoluteOffset >> AngleStepShift;
+
+        float angle;
+        if (sample + 1 < angles.length)
+        {
+            float fraction = (absoluteOffset - (sample << AngleStepShift)) / AngleStep;
+            angle = angles[sample] + fraction * (angles[sample + 1] - angles[sample]);
+        }
+        else
+        {
+            angle = computeAngle(absoluteOffset, table.focalLength);
+        }
+
+        return offset < 0 ? -angle : angle;
+    }
+
+    /** Returns the angle to a target at the given whole x-position as above, in Q16.16 fixed point. */
+    public int getDirectionFixed(short frameWidth, int xPosition)
+    {
+        int offset = frameWidth / 2 - xPosition;
+
+        AngleTable table = getAngleTable(frameWidth);
+        int[] fixedAngles = table.fixedAngles;
+
+        int absoluteOffset = offset < 0 ? -offset : offset;
+        int sample = absoluteOffset >> AngleStepShift;
+
+        int angle;
+        if (sample + 1 < fixedAngles.length)
+        {
+            int fraction = absoluteOffset & (AngleStep - 1);
+            angle = fixedAngles[sample] + (((fixedAngles[sample + 1] - fixedAngles[sample]) * fraction) >> AngleStepShift);
+        }
+        else
+        {
+            angle = FixedPoint.fromFloat(computeAngle(absoluteOffset, table.focalLength));
+        }
+
+        return offset < 0 ? -angle : angle;
+    }
+
+    /**
+     * Returns the horizontal offset in pixels from the middle of the frame, positive to the left,
+     * at which a target at the given angle appears.
+     */
+    public float getOffset(short frameWidth, float degrees)
+    {
+        return getAngleTable(frameWidth).focalLength * (float) Math.tan(Math.toRadians(degrees));
+    }
+
+    /** Returns the distance in centimeters to a target with the given pixel height. */
+    public float getDistance(int height)
+    {
+        if (height >= 0 && height <= MaxTableHeight)
+            return _distances[height];
+
+        return computeDistance(height);
+    }
+
+    /** Returns the distance to a target with the given pixel height as above, in Q16.16 fixed point. */
+    public int getDistanceFixed(int height)
+    {
+        if (height >= 0 && height <= MaxTableHeight)
+            return _fixedDistances[height];
+
+        return FixedPoint.fromFloat(computeDistance(height));
+    }
+
+    private AngleTable getAngleTable(short frameWidth)
+    {
+        /* Read the field once, so the table cannot be replaced by another thread between the check and its use. */
+        AngleTable table = _angleTable;
+        if (table == null || table.frameWidth != frameWidth)
+        {
+            table = new AngleTable(frameWidth, _tanHalfFieldOfView);
+            _angleTable = table;
+        }
+
+        return table;
+    }
+
+    private static float computeAngle(float offset, float focalLength)
+    {
+        return (float) Math.toDegrees(Math.atan(offset / focalLength));
+    }
+
+    private float computeDistance(float height)
+    {
+        int last = _calibrationHeights.length - 1;
+
+        /* Below the smallest calibration height, and for a single point, scale inversely with the height. */
+        if (last == 0 || height <= _calibrationHeights[0])
+            return _calibrationDistances[0] * _calibrationHeights[0] / height;
+
+        /* Find the segment containing the height, or use the last segment beyond the largest height. */
+        int segment = 0;
+        while (segment < last - 1 && height > _calibrationHeights[segment + 1])
+            segment++;
+
+        float inverseFrom = 1 / _calibrationHeights[segment];
+        float inverseTo = 1 / _calibrationHeights[segment + 1];
+        float fraction = (1 / height - inverseFrom) / (inverseTo - inverseFrom);
+
+        return _calibrationDistances[segment]
+               + fraction * (_calibrationDistances[segment + 1] - _calibrationDistances[segment]);
+    }
+
+    /* Angles for offsets from the middle of the frame of 0, AngleStep, 2 * AngleStep and so on. */
+    private static final class AngleTable
+    {
+        final short frameWidth;
+        final float focalLength;
+        final float[] angles;
+        final int[] fixedAngles;
+
+        AngleTable(short frameWidth, float tanHalfFieldOfView)
+        {
+            float frameMiddle = frameWidth / 2;
+            this.frameWidth = frameWidth;
+            this.focalLength = frameMiddle / tanHalfFieldOfView;
+
+            /* Cover offsets up to the edge of the frame, and one sample beyond to interpolate towards. */
+            this.angles = new float[((int) frameMiddle >> AngleStepShift) + 2];
+            this.fixedAngles = new int[angles.length];
+            for (int sample = 0; sample < angles.length; sample++)
+            {
+                angles[sample] = computeAngle(sample << AngleStepShift, focalLength);
+                fixedAngles[sample] = FixedPoint.fromFloat(angles[sample]);
+            }
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package com.sabr.targeting;
 
+import com.sabr.utilities.FixedPoint;
+
 public class DirectionCalculator
 {
-    /**
-     * Dependant on the type of camera.
-     * Currently using: Logitech
-     * Is the angle from the center point of the camera,
-     * to the egde of the cameras field of view.
-     */
-    private static final float _maxAngle = 33.0F;
+    /* Radius of the rim of a cup in centimeters, and the share of the angle it spans that the aim may be off by,
+       leaving the rest for the spread of the shooter. At the longest range this allows 0.7 degrees. */
+    private static final float CupRadius = 4.5f;
+    private static final float ToleranceSafetyFactor = 0.4f;
+
+    /* Bounds of the tolerance, as the turret cannot aim finer than a few motor degrees. */
+    private static final float MinTolerance = 0.35f;
+    private static final float MaxTolerance = 3.0f;
 
     /** Returns the number of degrees that should be turned
      * in order to face the target. Return value can be both
@@ -16,14 +19,51 @@ public class DirectionCalculator
      * of the turn. */
     public static float calculateDirection(ITargetContainer targetContainer, ITargetBox target)
     {
-        /* Calculate frame middle and number of degrees per pixel. */
-        float frameMiddle = targetContainer.getFrameWidth() / 2;
-        float degreesPerPixel = _maxAngle / frameMiddle;
+        /* Measure where the center of the target is, and project it through the camera. */
+        int boxOffset = target.getXPosition() + target.getWidth() / 2;
+
+        if (FixedPoint.ENABLED)
+            return FixedPoint.toFloat(CameraModel.getDefault().getDirectionFixed(targetContainer.getFrameWidth(), boxOffset));
+
+        return CameraModel.getDefault().getDirection(targetContainer.getFrameWidth(), boxOffset);
+    }
+
+    /** Returns the number of degrees to turn in order to face the target at the given index. */
+    public static float calculateDirection(ITargetContainer targetContainer, int index)
+    {
+        if (FixedPoint.ENABLED)
+            return FixedPoint.toFloat(calculateDirectionFixed(targetContainer, index));
+
+        return CameraModel.getDefault().getDirection(targetContainer.getFrameWidth(),
+                                                     targetContainer.getMiddleX(index));
+    }
+
+    /** Returns the number of degrees to turn to face the target at the given index, in Q16.16 fixed point. */
+    public static int calculateDirectionFixed(ITargetContainer targetContainer, int index)
+    {
+        return CameraModel.getDefault().getDirectionFixed(targetContainer.getFrameWidth(),
+                                                          targetContainer.getMiddleX(index));
+    }
+
+    /**
+     * Returns the number of degrees a target at the given distance may be from facing it, and
+     * still be shot at. This is the half-angle the cup spans, reduced by a safety factor, so near
+     * cups need less precise aim than far ones. An unknown distance gets the smallest tolerance.
+     */
+    public static float calculateTolerance(float distance)
+    {
+        if (Float.isNaN(distance))
+            return MinTolerance;
+        else if (distance <= CupRadius)
+            return MaxTolerance;
 
-        /* Measure how far the center of the target is from the middle of the frame. */
-        float boxOffset = target.getXPosition() + target.getWidth() / 2;
+        float halfAngle = (float) Math.toDegrees(Math.atan(CupRadius / distance));
+        return Math.max(MinTolerance, Math.min(ToleranceSafetyFactor * halfAngle, MaxTolerance));
+    }
 
-        /* Use the calculations to calculate the direction. */
-        return (frameMiddle - boxOffset) * degreesPerPixel;
+    /** Returns the largest number of degrees a target in the frame can be from facing it. */
+    public static float getMaxAngle()
+    {
+        return CameraModel.getDefault().getHalfFieldOfView();
     }
 }
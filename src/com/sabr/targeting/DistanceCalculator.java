@@ -1,22 +1,11 @@
 package com.sabr.targeting;
 
+import com.sabr.utilities.FixedPoint;
+
 // Calculates the distance to the target object based on
-// triangle similarity using the height of the target object.
+// the height of the target object, using the camera model.
 public class DistanceCalculator
 {
-    /** Physical height, manually measured */
-    private static final float _targetHeight = 12.0f;
-
-    /** Pixel height at distance = _knownRealDistance */
-    private static final float _knownHeight = 133.0f;
-
-    /** Real distance in centimeters */
-    private static final float _knownRealDistance = 120.0f;
-
-    /** Focal length is the distance between the image plane and lens of the camera
-      * Used for calculating the distance to an object */
-    private static final float _focalLengthHeight = _knownHeight * _knownRealDistance / _targetHeight;
-
     /**
      * Returns a float representing the distance to the target object.
      * It assumes that the target object is close to directly in front
@@ -26,10 +15,38 @@ public class DistanceCalculator
      * Input: An instance of a class implementing ITargetBox
 
      * Computation:
-     *  - Calculate the distance using the focal length
+     *  - Look up the distance of the pixel height in the camera model
      */
     public static float calculateDistance(ITargetBox target)
     {
-        return (_focalLengthHeight * _targetHeight / target.getHeight());
+        if (FixedPoint.ENABLED)
+            return FixedPoint.toFloat(CameraModel.getDefault().getDistanceFixed(target.getHeight()));
+
+        return CameraModel.getDefault().getDistance(target.getHeight());
+    }
+
+    /** Returns the distance to the target at the given index, as above. */
+    public static float calculateDistance(ITargetContainer targetContainer, int index)
+    {
+        if (FixedPoint.ENABLED)
+            return FixedPoint.toFloat(calculateDistanceFixed(targetContainer, index));
+
+        return CameraModel.getDefault().getDistance(targetContainer.getHeight(index));
+    }
+
+    /**
+     * Returns the distance to the target at the given index that is seen at the given direction
+     * from the middle of the frame. The height of a box gives the depth of a target along the
+     * heading, so targets off to the side are farther away than calculateDistance returns.
+     */
+    public static float calculateRange(ITargetContainer targetContainer, int index, float direction)
+    {
+        return calculateDistance(targetContainer, index) / (float) Math.cos(Math.toRadians(direction));
+    }
+
+    /** Returns the distance to the target at the given index in Q16.16 fixed point. */
+    public static int calculateDistanceFixed(ITargetContainer targetContainer, int index)
+    {
+        return CameraModel.getDefault().getDistanceFixed(targetContainer.getHeight(index));
     }
 }
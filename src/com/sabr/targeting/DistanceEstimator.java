@@ -0,0 +1,131 @@
+package com.sabr.targeting;
+
+/**
+ * Fuses the distances to a target measured in several frames into a single estimate.
+ *
+ * The distance of a single frame follows from the height of a box, which varies from frame
+ * to frame. The estimate is a trimmed mean of the samples: the smallest and largest quarter
+ * are dropped, but at least one of each once there are three samples, so a single bad box
+ * does not move it. The spread is the median absolute deviation from the median, which is
+ * likewise not thrown by one bad box. The estimate is settled once there are two samples
+ * and the spread is within a threshold, after which more frames are not worth waiting for.
+ */
+public class DistanceEstimator
+{
+    /** Spread in centimeters within which the estimate is settled, well within the radius of a cup. */
+    public static final float DefaultMaxSpread = 2.0f;
+
+    private static final int MinSettledSamples = 2;
+
+    private final float _maxSpread;
+
+    /* Samples, kept in increasing order. */
+    private final float[] _samples;
+    private int _count = 0;
+
+    /* Scratch for the deviations from the median. */
+    private final float[] _deviations;
+
+    public DistanceEstimator(int capacity)
+    {
+        this(capacity, DefaultMaxSpread);
+    }
+
+    public DistanceEstimator(int capacity, float maxSpread)
+    {
+        this._samples = new float[capacity];
+        this._deviations = new float[capacity];
+        this._maxSpread = maxSpread;
+    }
+
+    public void reset()
+    {
+        _count = 0;
+    }
+
+    /** Adds a sample, dropping the one furthest from the median if there is no room for it. */
+    public void add(float distance)
+    {
+        if (_count == _samples.length)
+        {
+            /* The furthest sample is at either end. */
+            float median = getMedian();
+            if (median - _samples[0] > _samples[_count - 1] - median)
+                System.arraycopy(_samples, 1, _samples, 0, _count - 1);
+
+            _count--;
+        }
+
+        /* Insert the sample in order. */
+        int position = _count;
+        while (position > 0 && _samples[position - 1] > distance)
+        {
+            _samples[position] = _samples[position - 1];
+            position--;
+        }
+
+        _samples[position] = distance;
+        _count++;
+    }
+
+    public int getCount()
+    {
+        return _count;
+    }
+
+    /** Returns the fused distance, or NaN if there are no samples. */
+    public float getEstimate()
+    {
+        if (_count == 0)
+            return Float.NaN;
+
+        int trim = _count >= 3 ? Math.max(1, _count / 4) : 0;
+
+        float sum = 0;
+        for (int i = trim; i < _count - trim; i++)
+            sum += _samples[i];
+
+        return sum / (_count - 2 * trim);
+    }
+
+    /** Returns the median absolute deviation of the samples from their median, or infinity for a single sample. */
+    public float getSpread()
+    {
+        if (_count < MinSettledSamples)
+            return Float.POSITIVE_INFINITY;
+
+        float median = getMedian();
+        for (int i = 0; i < _count; i++)
+        {
+            /* Insert the deviation in order. */
+            float deviation = Math.abs(_samples[i] - median);
+            int position = i;
+            while (position > 0 && _deviations[position - 1] > deviation)
+            {
+                _deviations[position] = _deviations[position - 1];
+                position--;
+            }
+
+            _deviations[position] = deviation;
+        }
+
+        return median(_deviations, _count);
+    }
+
+    /** Whether the estimate is unlikely to change much with more samples. */
+    public boolean isSettled()
+    {
+        return getSpread() <= _maxSpread;
+    }
+
+    public float getMedian()
+    {
+        return _count == 0 ? Float.NaN : median(_samples, _count);
+    }
+
+    private static float median(float[] sorted, int count)
+    {
+        int middle = count / 2;
+        return count % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
@@ -0,0 +1,47 @@
+package com.sabr.targeting;
+
+/**
+ * A cheap hash of a frame, used to recognise a frame that is the same as, or nearly the
+ * same as, one seen before. The boxes are quantized before hashing, so detections that
+ * only jitter by a pixel or two usually give the same fingerprint. The order of the boxes
+ * is part of the fingerprint, so equal fingerprints have their boxes at the same indices.
+ */
+public final class FrameFingerprint
+{
+    /* Boxes are quantized to multiples of 1 << QuantizationShift pixels. */
+    private static final int QuantizationShift = 2;
+
+    /* Confidences are quantized to sixteen levels. */
+    private static final int ConfidenceQuantizationShift = 4;
+
+    /* 64-bit FNV-1a parameters. */
+    private static final long OffsetBasis = 0xcbf29ce484222325L;
+    private static final long Prime = 0x100000001b3L;
+
+    private FrameFingerprint()
+    {
+    }
+
+    public static long of(ITargetContainer frame)
+    {
+        int targetCount = frame.getTargetCount();
+
+        long hash = mix(OffsetBasis, frame.getFrameWidth());
+        hash = mix(hash, targetCount);
+
+        for (int i = 0; i < targetCount; i++)
+        {
+            hash = mix(hash, frame.getXPosition(i) >> QuantizationShift);
+            hash = mix(hash, frame.getWidth(i) >> QuantizationShift);
+            hash = mix(hash, frame.getHeight(i) >> QuantizationShift);
+            hash = mix(hash, frame.getConfidence(i) >> ConfidenceQuantizationShift);
+        }
+
+        return hash;
+    }
+
+    private static long mix(long hash, int value)
+    {
+        return (hash ^ value) * Prime;
+    }
+}
@@ -7,4 +7,7 @@ public interface ITargetBox
 
     short getXPosition();
     float getMiddleX();
+
+    /** Confidence of the detection, from 0 to TargetBox.MAX_CONFIDENCE. */
+    short getConfidence();
 }
\ No newline at end of file
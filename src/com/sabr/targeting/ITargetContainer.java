@@ -2,13 +2,27 @@ package com.sabr.targeting;
 
 public interface ITargetContainer
 {
-    byte getTargetCount();
+    int getTargetCount();
 
     TargetBox[] cloneTargets();
 
-    TargetBox getTarget(byte index);
-    void setTarget(byte index, TargetBox target);
+    TargetBox getTarget(int index);
+    void setTarget(int index, TargetBox target);
+    void addTarget(TargetBox target);
+    void addTarget(short height, short width, short xPosition);
+    void addTarget(short height, short width, short xPosition, short confidence);
+
+    short getXPosition(int index);
+    short getWidth(int index);
+    short getHeight(int index);
+    int getMiddleX(int index);
+    short getConfidence(int index);
 
     short getFrameWidth();
     void setFrameWidth(short frameWidth);
-}
\ No newline at end of file
+
+    short getFrameId();
+    void setFrameId(short frameId);
+
+    void applyDelta(TargetDelta delta);
+}
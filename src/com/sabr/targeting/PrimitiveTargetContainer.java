@@ -0,0 +1,252 @@
+package com.sabr.targeting;
+
+/**
+ * Target container storing the targets in parallel arrays instead of as
+ * TargetBox objects. Policies should use the primitive accessors, which
+ * neither allocate nor follow references.
+ *
+ * The TargetBox-returning methods are kept for compatibility and return
+ * views of a slot in the arrays. A view is created the first time its slot
+ * is requested and then reused, so it always reflects the current contents
+ * of that slot, also after a delta has been applied.
+ */
+public class PrimitiveTargetContainer implements ITargetContainer
+{
+    private int _targetCount;
+
+    private short[] _xPositions;
+    private short[] _widths;
+    private short[] _heights;
+
+    /* Confidences are stored as unsigned bytes. */
+    private byte[] _confidences;
+
+    private TargetView[] _views;
+
+    private short _frameWidth;
+    private short _frameId;
+
+    public PrimitiveTargetContainer(int targetCount)
+    {
+        this._targetCount = targetCount;
+        this._xPositions = new short[targetCount];
+        this._widths = new short[targetCount];
+        this._heights = new short[targetCount];
+        this._confidences = new byte[targetCount];
+    }
+
+    /**
+     * Creates an empty container that can hold the given number of targets
+     * before it has to grow. Targets are added using addTarget.
+     */
+    public static PrimitiveTargetContainer withCapacity(int capacity)
+    {
+        PrimitiveTargetContainer container = new PrimitiveTargetContainer(capacity);
+        container._targetCount = 0;
+        return container;
+    }
+
+    public int getTargetCount()
+    {
+        return _targetCount;
+    }
+
+    public short getXPosition(int index)
+    {
+        return _xPositions[index];
+    }
+
+    public short getWidth(int index)
+    {
+        return _widths[index];
+    }
+
+    public short getHeight(int index)
+    {
+        return _heights[index];
+    }
+
+    public int getMiddleX(int index)
+    {
+        return _xPositions[index] + _widths[index] / 2;
+    }
+
+    public short getConfidence(int index)
+    {
+        return (short) (_confidences[index] & 0xFF);
+    }
+
+    public TargetBox[] cloneTargets()
+    {
+        TargetBox[] clonedTargets = new TargetBox[_targetCount];
+        for (int i = 0; i < _targetCount; i++)
+            clonedTargets[i] = getTarget(i);
+
+        return clonedTargets;
+    }
+
+    public TargetBox getTarget(int index)
+    {
+        if (_views == null || _views.length < _xPositions.length)
+        {
+            TargetView[] views = new TargetView[_xPositions.length];
+            if (_views != null)
+                System.arraycopy(_views, 0, views, 0, _views.length);
+
+            _views = views;
+        }
+
+        if (_views[index] == null)
+            _views[index] = new TargetView(index);
+
+        return _views[index];
+    }
+
+    /** Copies the dimensions of the box into the given slot. */
+    public void setTarget(int index, TargetBox target)
+    {
+        set(index, target.getHeight(), target.getWidth(), target.getXPosition(), target.getConfidence());
+    }
+
+    public void addTarget(TargetBox target)
+    {
+        addTarget(target.getHeight(), target.getWidth(), target.getXPosition(), target.getConfidence());
+    }
+
+    public void addTarget(short height, short width, short xPosition)
+    {
+        addTarget(height, width, xPosition, TargetBox.MAX_CONFIDENCE);
+    }
+
+    public void addTarget(short height, short width, short xPosition, short confidence)
+    {
+        ensureCapacity(_targetCount + 1);
+        set(_targetCount++, height, width, xPosition, confidence);
+    }
+
+    /** Removes all targets, keeping the arrays for the targets added next. */
+    public void clear()
+    {
+        _targetCount = 0;
+    }
+
+    private void set(int index, short height, short width, short xPosition, short confidence)
+    {
+        _xPositions[index] = xPosition;
+        _widths[index] = width;
+        _heights[index] = height;
+        _confidences[index] = (byte) confidence;
+    }
+
+    public short getFrameWidth()
+    {
+        return _frameWidth;
+    }
+
+    public void setFrameWidth(short frameWidth)
+    {
+        _frameWidth = frameWidth;
+    }
+
+    public short getFrameId()
+    {
+        return _frameId;
+    }
+
+    public void setFrameId(short frameId)
+    {
+        _frameId = frameId;
+    }
+
+    /**
+     * Turns this container into the frame described by the delta. The container
+     * must hold the delta's base frame. The arrays are only reallocated if the
+     * added targets do not fit in the current ones.
+     */
+    public void applyDelta(TargetDelta delta)
+    {
+        /* Moved targets are indexed in the base frame, so update them before anything is removed. */
+        for (int i = 0; i < delta.getMovedCount(); i++)
+            setTarget(delta.getMovedIndex(i), delta.getMovedTarget(i));
+
+        /* Compact the remaining targets, preserving their order. Removed indices are ascending. */
+        int remaining = 0;
+        int removed = 0;
+        for (int i = 0; i < _targetCount; i++)
+        {
+            if (removed < delta.getRemovedCount() && delta.getRemovedIndex(removed) == i)
+            {
+                removed++;
+                continue;
+            }
+
+            set(remaining++, _heights[i], _widths[i], _xPositions[i], getConfidence(i));
+        }
+
+        _targetCount = remaining;
+
+        /* Added targets are appended after the remaining ones. */
+        for (int i = 0; i < delta.getAddedCount(); i++)
+            addTarget(delta.getAddedTarget(i));
+
+        _frameId = delta.getFrameId();
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= _xPositions.length)
+            return;
+
+        int newCapacity = Math.max(capacity, _xPositions.length * 2);
+        _xPositions = grow(_xPositions, newCapacity);
+        _widths = grow(_widths, newCapacity);
+        _heights = grow(_heights, newCapacity);
+
+        byte[] confidences = new byte[newCapacity];
+        System.arraycopy(_confidences, 0, confidences, 0, _targetCount);
+        _confidences = confidences;
+    }
+
+    private short[] grow(short[] array, int capacity)
+    {
+        short[] grownArray = new short[capacity];
+        System.arraycopy(array, 0, grownArray, 0, _targetCount);
+        return grownArray;
+    }
+
+    /* A target box reading its dimensions from a slot of the container. */
+    private class TargetView extends TargetBox
+    {
+        private final int _index;
+
+        TargetView(int index)
+        {
+            super((short) 0, (short) 0, (short) 0);
+            this._index = index;
+        }
+
+        @Override
+        public short getHeight()
+        {
+            return _heights[_index];
+        }
+
+        @Override
+        public short getWidth()
+        {
+            return _widths[_index];
+        }
+
+        @Override
+        public short getXPosition()
+        {
+            return _xPositions[_index];
+        }
+
+        @Override
+        public short getConfidence()
+        {
+            return PrimitiveTargetContainer.this.getConfidence(_index);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.sabr.targeting;
+
+/**
+ * Plans the order in which to shoot a number of targets, so that the total rotation is
+ * as small as possible.
+ *
+ * Targets are given by the number of degrees to turn from the current heading to face
+ * them, so they lie on a line on either side of zero. The shortest route visiting all of
+ * them sweeps out to the farthest target on one side, turns back and sweeps out to the
+ * farthest target on the other side. Sweeping the side with the nearer extreme first
+ * covers that side twice and the other side once, which is the least rotation.
+ */
+public class SalvoPlanner
+{
+    /* Targets, ordered by direction. */
+    private int[] _sorted = new int[0];
+
+    private int[] _order = new int[0];
+    private int _count;
+    private float _totalRotation;
+
+    /**
+     * Plans the order to shoot the given number of targets in, given the directions of the
+     * targets from the current heading. Returns the number of targets planned.
+     */
+    public int plan(float[] directions, int count)
+    {
+        if (_sorted.length < count)
+        {
+            _sorted = new int[count];
+            _order = new int[count];
+        }
+
+        /* Insertion sort of the targets by direction. */
+        for (int i = 0; i < count; i++)
+        {
+            int position = i;
+            while (position > 0 && directions[_sorted[position - 1]] > directions[i])
+            {
+                _sorted[position] = _sorted[position - 1];
+                position--;
+            }
+
+            _sorted[position] = i;
+        }
+
+        /* The first target with a positive direction, which splits the targets into two sides. */
+        int split = 0;
+        while (split < count && directions[_sorted[split]] <= 0)
+            split++;
+
+        float negativeExtreme = count > 0 && split > 0 ? -directions[_sorted[0]] : 0;
+        float positiveExtreme = split < count ? directions[_sorted[count - 1]] : 0;
+
+        _count = 0;
+        if (positiveExtreme <= negativeExtreme)
+        {
+            /* Sweep out along the positive side first, then along the negative side. */
+            for (int i = split; i < count; i++)
+                _order[_count++] = _sorted[i];
+            for (int i = split - 1; i >= 0; i--)
+                _order[_count++] = _sorted[i];
+
+            _totalRotation = 2 * positiveExtreme + negativeExtreme;
+        }
+        else
+        {
+            for (int i = split - 1; i >= 0; i--)
+                _order[_count++] = _sorted[i];
+            for (int i = split; i < count; i++)
+                _order[_count++] = _sorted[i];
+
+            _totalRotation = 2 * negativeExtreme + positiveExtreme;
+        }
+
+        return _count;
+    }
+
+    /** Returns the index of the target to shoot at the given step of the plan. */
+    public int getTarget(int step)
+    {
+        return _order[step];
+    }
+
+    /** Returns the number of degrees turned in total when following the plan. */
+    public float getTotalRotation()
+    {
+        return _totalRotation;
+    }
+}
@@ -2,9 +2,13 @@ package com.sabr.targeting;
 
 public class TargetBox implements ITargetBox
 {
+    /** Confidence of a certain detection. Confidences are quantized to a byte. */
+    public static final short MAX_CONFIDENCE = 255;
+
     private short _height;
     private short _width;
     private short _xPosition;
+    private short _confidence;
 
     public short getHeight()
     {
@@ -26,16 +30,28 @@ public class TargetBox implements ITargetBox
         return getXPosition() + getWidth() / 2;
     }
 
+    public short getConfidence()
+    {
+        return _confidence;
+    }
+
     public TargetBox(short height, short width, short xPosition)
+    {
+        this(height, width, xPosition, MAX_CONFIDENCE);
+    }
+
+    public TargetBox(short height, short width, short xPosition, short confidence)
     {
         _height = height;
         _width = width;
         _xPosition = xPosition;
+        _confidence = confidence;
     }
 
     @Override
     public String toString()
     {
-        return "X: " + this._xPosition + ", Width: " + this._width + ", Height: " + this._height;
+        return "X: " + getXPosition() + ", Width: " + getWidth() + ", Height: " + getHeight()
+               + ", Confidence: " + getConfidence();
     }
 }
@@ -2,33 +2,88 @@ package com.sabr.targeting;
 
 public class TargetContainer implements ITargetContainer
 {
-    private byte _targetCount;
+    private int _targetCount;
     private TargetBox[] _targets;
 
     private short _frameWidth;
+    private short _frameId;
 
-    public TargetContainer(byte targetCount)
+    public TargetContainer(int targetCount)
     {
         this._targetCount = targetCount;
         this._targets = new TargetBox[targetCount];
     }
 
+    /**
+     * Creates an empty container that can hold the given number of targets
+     * before it has to grow. Targets are added using addTarget.
+     */
+    public static TargetContainer withCapacity(int capacity)
+    {
+        TargetContainer container = new TargetContainer(capacity);
+        container._targetCount = 0;
+        return container;
+    }
+
     public TargetBox[] cloneTargets()
     {
-        return _targets.clone();
+        TargetBox[] clonedTargets = new TargetBox[_targetCount];
+        System.arraycopy(_targets, 0, clonedTargets, 0, _targetCount);
+        return clonedTargets;
     }
 
-    public void setTarget(byte index, TargetBox box)
+    public void setTarget(int index, TargetBox box)
     {
         _targets[index] = box;
     }
 
-    public TargetBox getTarget(byte index)
+    public void addTarget(TargetBox box)
+    {
+        ensureCapacity(_targetCount + 1);
+        _targets[_targetCount++] = box;
+    }
+
+    public void addTarget(short height, short width, short xPosition)
+    {
+        addTarget(new TargetBox(height, width, xPosition));
+    }
+
+    public void addTarget(short height, short width, short xPosition, short confidence)
+    {
+        addTarget(new TargetBox(height, width, xPosition, confidence));
+    }
+
+    public TargetBox getTarget(int index)
     {
         return _targets[index];
     }
 
-    public byte getTargetCount()
+    public short getXPosition(int index)
+    {
+        return _targets[index].getXPosition();
+    }
+
+    public short getWidth(int index)
+    {
+        return _targets[index].getWidth();
+    }
+
+    public short getHeight(int index)
+    {
+        return _targets[index].getHeight();
+    }
+
+    public int getMiddleX(int index)
+    {
+        return _targets[index].getXPosition() + _targets[index].getWidth() / 2;
+    }
+
+    public short getConfidence(int index)
+    {
+        return _targets[index].getConfidence();
+    }
+
+    public int getTargetCount()
     {
         return _targetCount;
     }
@@ -42,4 +97,64 @@ public class TargetContainer implements ITargetContainer
     {
         _frameWidth = frameWidth;
     }
-}
\ No newline at end of file
+
+    public short getFrameId()
+    {
+        return _frameId;
+    }
+
+    public void setFrameId(short frameId)
+    {
+        _frameId = frameId;
+    }
+
+    /**
+     * Turns this container into the frame described by the delta. The container
+     * must hold the delta's base frame. The target array is only reallocated if
+     * the added targets do not fit in the current one.
+     */
+    public void applyDelta(TargetDelta delta)
+    {
+        /* Moved targets are indexed in the base frame, so update them before anything is removed. */
+        for (int i = 0; i < delta.getMovedCount(); i++)
+            _targets[delta.getMovedIndex(i)] = delta.getMovedTarget(i);
+
+        /* Compact the remaining targets, preserving their order. Removed indices are ascending. */
+        int remaining = 0;
+        int removed = 0;
+        for (int i = 0; i < _targetCount; i++)
+        {
+            if (removed < delta.getRemovedCount() && delta.getRemovedIndex(removed) == i)
+            {
+                removed++;
+                continue;
+            }
+
+            _targets[remaining++] = _targets[i];
+        }
+
+        int newCount = remaining + delta.getAddedCount();
+        ensureCapacity(newCount);
+
+        /* Added targets are appended after the remaining ones. */
+        for (int i = 0; i < delta.getAddedCount(); i++)
+            _targets[remaining + i] = delta.getAddedTarget(i);
+
+        /* Release targets that are no longer part of the frame. */
+        for (int i = newCount; i < _targetCount; i++)
+            _targets[i] = null;
+
+        _targetCount = newCount;
+        _frameId = delta.getFrameId();
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= _targets.length)
+            return;
+
+        TargetBox[] grownTargets = new TargetBox[Math.max(capacity, _targets.length * 2)];
+        System.arraycopy(_targets, 0, grownTargets, 0, _targetCount);
+        _targets = grownTargets;
+    }
+}
@@ -0,0 +1,76 @@
+package com.sabr.targeting;
+
+/**
+ * Describes the changes between a base target frame and the frame following it.
+ * Moved and removed targets are given by their index in the base frame, while
+ * added targets are appended after the remaining ones, in order.
+ */
+public class TargetDelta
+{
+    private final short _frameId;
+    private final short _baseFrameId;
+
+    private final short[] _removedIndices;
+
+    private final short[] _movedIndices;
+    private final TargetBox[] _movedTargets;
+
+    private final TargetBox[] _addedTargets;
+
+    public TargetDelta(short frameId, short baseFrameId, short[] removedIndices,
+                       short[] movedIndices, TargetBox[] movedTargets, TargetBox[] addedTargets)
+    {
+        this._frameId = frameId;
+        this._baseFrameId = baseFrameId;
+        this._removedIndices = removedIndices;
+        this._movedIndices = movedIndices;
+        this._movedTargets = movedTargets;
+        this._addedTargets = addedTargets;
+    }
+
+    public short getFrameId()
+    {
+        return _frameId;
+    }
+
+    public short getBaseFrameId()
+    {
+        return _baseFrameId;
+    }
+
+    public int getRemovedCount()
+    {
+        return _removedIndices.length;
+    }
+
+    /** Removed indices are sorted in ascending order. */
+    public int getRemovedIndex(int index)
+    {
+        return _removedIndices[index];
+    }
+
+    public int getMovedCount()
+    {
+        return _movedIndices.length;
+    }
+
+    public int getMovedIndex(int index)
+    {
+        return _movedIndices[index];
+    }
+
+    public TargetBox getMovedTarget(int index)
+    {
+        return _movedTargets[index];
+    }
+
+    public int getAddedCount()
+    {
+        return _addedTargets.length;
+    }
+
+    public TargetBox getAddedTarget(int index)
+    {
+        return _addedTargets[index];
+    }
+}
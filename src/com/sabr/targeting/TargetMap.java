@@ -0,0 +1,155 @@
+package com.sabr.targeting;
+
+/**
+ * The targets around the robot, by the heading they are at and their distance.
+ *
+ * Headings are in degrees as measured by the rotator, so a target seen in a frame is at the
+ * heading the frame was taken at plus its direction in the frame. Distances are from the
+ * robot rather than along the heading of the frame, so they hold for whatever heading the
+ * target is shot from. A target seen again is merged with the mapped target at about the
+ * same heading and distance, averaging where it is over the last few frames. A mapped target
+ * that should have been in view but was not seen in a number of frames is taken to be gone,
+ * as when it was hit or was never a cup.
+ */
+public class TargetMap
+{
+    /* How far in degrees and in centimeters a target may be from a mapped one and still be taken to be it. */
+    private static final float BearingGate = 3.0f;
+    private static final float DistanceGate = 15.0f;
+
+    /* Most frames a mapped target is averaged over, after which newer frames weigh more. */
+    private static final int MaxSightings = 4;
+
+    /* Frames in which a mapped target in view is not seen before it is forgotten. */
+    private static final int MaxMisses = 2;
+
+    /* Degrees from the edges of the field of view within which a target that is not seen is not counted as missed,
+       as a target partly out of view may not be detected. */
+    private static final float ViewMargin = 3.0f;
+
+    private final float[] _bearings;
+    private final float[] _distances;
+    private final int[] _sightings;
+    private final int[] _misses;
+    private int _count = 0;
+
+    /* Whether each mapped target was seen in the frame being added. */
+    private final boolean[] _seen;
+
+    public TargetMap(int capacity)
+    {
+        this._bearings = new float[capacity];
+        this._distances = new float[capacity];
+        this._sightings = new int[capacity];
+        this._misses = new int[capacity];
+        this._seen = new boolean[capacity];
+    }
+
+    public void clear()
+    {
+        _count = 0;
+    }
+
+    public int getCount()
+    {
+        return _count;
+    }
+
+    /** Returns the heading in degrees at which the mapped target is straight ahead. */
+    public float getBearing(int index)
+    {
+        return _bearings[index];
+    }
+
+    /** Returns the distance in centimeters to the mapped target, averaged over the frames it was seen in. */
+    public float getDistance(int index)
+    {
+        return _distances[index];
+    }
+
+    /**
+     * Adds the targets of a frame taken at the given heading. Targets already mapped are moved
+     * to where they are seen, new targets are added while there is room, and mapped targets in
+     * view that are not seen count a miss.
+     */
+    public void update(ITargetContainer frame, float heading)
+    {
+        for (int i = 0; i < _count; i++)
+            _seen[i] = false;
+
+        for (int i = 0; i < frame.getTargetCount(); i++)
+        {
+            float direction = DirectionCalculator.calculateDirection(frame, i);
+            float bearing = heading + direction;
+            float distance = DistanceCalculator.calculateRange(frame, i, direction);
+
+            int index = find(bearing, distance);
+            if (index >= 0 && !_seen[index])
+            {
+                /* Average the target with its earlier sightings. */
+                int weight = Math.min(_sightings[index], MaxSightings - 1) + 1;
+                _bearings[index] += (bearing - _bearings[index]) / weight;
+                _distances[index] += (distance - _distances[index]) / weight;
+                _sightings[index]++;
+                _misses[index] = 0;
+                _seen[index] = true;
+            }
+            else if (index < 0 && _count < _bearings.length)
+            {
+                _bearings[_count] = bearing;
+                _distances[_count] = distance;
+                _sightings[_count] = 1;
+                _misses[_count] = 0;
+                _seen[_count] = true;
+                _count++;
+            }
+        }
+
+        /* Count a miss for the targets that should have been seen, and forget those missed too often. */
+        float view = CameraModel.getDefault().getHalfFieldOfView() - ViewMargin;
+        for (int i = _count - 1; i >= 0; i--)
+        {
+            if (!_seen[i] && Math.abs(_bearings[i] - heading) <= view && ++_misses[i] >= MaxMisses)
+                remove(i);
+        }
+    }
+
+    /** Returns the index of the mapped target at about the given heading and distance, or -1 if there is none. */
+    public int find(float bearing, float distance)
+    {
+        int nearest = -1;
+        for (int i = 0; i < _count; i++)
+        {
+            float offset = Math.abs(_bearings[i] - bearing);
+            if (offset <= BearingGate && Math.abs(_distances[i] - distance) <= DistanceGate
+                && (nearest < 0 || offset < Math.abs(_bearings[nearest] - bearing)))
+                nearest = i;
+        }
+
+        return nearest;
+    }
+
+    /** Returns the index of the mapped target needing the least rotation from the given heading, or -1 if there is none. */
+    public int getNearest(float heading)
+    {
+        int nearest = -1;
+        for (int i = 0; i < _count; i++)
+        {
+            if (nearest < 0 || Math.abs(_bearings[i] - heading) < Math.abs(_bearings[nearest] - heading))
+                nearest = i;
+        }
+
+        return nearest;
+    }
+
+    /** Forgets the mapped target at the given index, moving the last one in its place. */
+    public void remove(int index)
+    {
+        _count--;
+        _bearings[index] = _bearings[_count];
+        _distances[index] = _distances[_count];
+        _sightings[index] = _sightings[_count];
+        _misses[index] = _misses[_count];
+        _seen[index] = _seen[_count];
+    }
+}
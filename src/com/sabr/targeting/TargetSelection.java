@@ -0,0 +1,71 @@
+package com.sabr.targeting;
+
+/**
+ * The target chosen for a single pass, along with the angle to turn
+ * and the distance to shoot. The selection is either computed locally
+ * by a policy or received from the host. It keeps what it needs of the
+ * target rather than the box, as the boxes of a frame may be views that
+ * are reused for the next frame.
+ */
+public class TargetSelection
+{
+    private final short _height;
+    private final float _direction;
+    private final float _distance;
+    private final int _trackId;
+
+    /** Selection computed on the robot. */
+    public TargetSelection(ITargetContainer targetContainer, TargetBox target)
+    {
+        this(targetContainer, target, TargetTracker.NO_TRACK);
+    }
+
+    /** Selection computed on the robot of a target followed by the given track of a TargetTracker. */
+    public TargetSelection(ITargetContainer targetContainer, TargetBox target, int trackId)
+    {
+        this._height = target.getHeight();
+        this._direction = DirectionCalculator.calculateDirection(targetContainer, target);
+        this._distance = DistanceCalculator.calculateDistance(target);
+        this._trackId = trackId;
+    }
+
+    /** Selection with a precomputed angle and distance. */
+    public TargetSelection(TargetBox target, float direction, float distance)
+    {
+        this._height = target.getHeight();
+        this._direction = direction;
+        this._distance = distance;
+        this._trackId = TargetTracker.NO_TRACK;
+    }
+
+    /** Returns the height in pixels of the box of the target in the frame it was selected from. */
+    public short getHeight()
+    {
+        return _height;
+    }
+
+    public float getDirection()
+    {
+        return _direction;
+    }
+
+    public float getDistance()
+    {
+        return _distance;
+    }
+
+    /**
+     * Returns the distance to the target from the robot. The distance of a box is along the
+     * heading, so a target off to the side is farther away, as it is once the robot faces it.
+     */
+    public float getRange()
+    {
+        return getDistance() / (float) Math.cos(Math.toRadians(_direction));
+    }
+
+    /** Returns the track id of the target, or TargetTracker.NO_TRACK if it is not followed. */
+    public int getTrackId()
+    {
+        return _trackId;
+    }
+}
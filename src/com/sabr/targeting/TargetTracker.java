@@ -0,0 +1,235 @@
+package com.sabr.targeting;
+
+import java.util.Arrays;
+
+/**
+ * Follows targets across frames, giving every target a track id that stays the same
+ * for as long as the target is seen.
+ *
+ * Each frame, the targets are matched to the tracks of the previous frames by the
+ * summed difference of their x-position, width and height. Pairs that differ more than
+ * a gate are never matched, and the remaining pairs are matched closest first. Matched
+ * tracks move towards their target, which smooths out jitter in the detections. Targets
+ * without a track start a new one, and tracks that are not matched for a few frames in
+ * a row are dropped.
+ *
+ * When the robot turns, all tracks are moved by the number of pixels the turn shifts the
+ * view, so they still match their targets in the next frame.
+ */
+public class TargetTracker
+{
+    /** Returned when a target or track cannot be found. */
+    public static final int NO_TRACK = -1;
+
+    /* Largest summed difference in pixels between a track and a target it is matched to. */
+    private static final int MatchGate = 80;
+
+    /* Share of the difference between a track and its target that the track moves each frame. */
+    private static final float Smoothing = 0.5f;
+
+    /* Number of frames in a row a track can go unmatched before it is dropped. */
+    private static final int MaxMisses = 2;
+
+    private int _nextTrackId = 0;
+
+    /* Tracks, stored in parallel arrays. */
+    private int _trackCount = 0;
+    private int[] _trackIds = new int[0];
+    private float[] _trackXPositions = new float[0];
+    private float[] _trackWidths = new float[0];
+    private float[] _trackHeights = new float[0];
+    private int[] _trackMisses = new int[0];
+
+    /* Index in the last frame of the target matched to each track, or NO_TRACK. */
+    private int[] _trackTargets = new int[0];
+
+    /* Track id of each target in the last frame. */
+    private int _targetCount = 0;
+    private int[] _targetTracks = new int[0];
+
+    /* Candidate pairs of a track and a target, encoded as cost, track and target. */
+    private long[] _pairs = new long[0];
+
+    private short _frameWidth;
+
+    /** Drops all tracks. */
+    public void reset()
+    {
+        _trackCount = 0;
+        _targetCount = 0;
+    }
+
+    /** Matches the targets of a new frame to the tracks. */
+    public void update(ITargetContainer frame)
+    {
+        _frameWidth = frame.getFrameWidth();
+        _targetCount = frame.getTargetCount();
+
+        ensureTargetCapacity(_targetCount);
+        ensurePairCapacity(_trackCount * _targetCount);
+
+        for (int i = 0; i < _targetCount; i++)
+            _targetTracks[i] = NO_TRACK;
+
+        for (int track = 0; track < _trackCount; track++)
+            _trackTargets[track] = NO_TRACK;
+
+        /* Collect the pairs within the gate and sort them, closest first. */
+        int pairCount = 0;
+        for (int track = 0; track < _trackCount; track++)
+        {
+            for (int target = 0; target < _targetCount; target++)
+            {
+                int cost = Math.round(Math.abs(_trackXPositions[track] - frame.getXPosition(target))
+                                      + Math.abs(_trackWidths[track] - frame.getWidth(target))
+                                      + Math.abs(_trackHeights[track] - frame.getHeight(target)));
+
+                if (cost <= MatchGate)
+                    _pairs[pairCount++] = ((long) cost << 40) | ((long) track << 20) | target;
+            }
+        }
+
+        Arrays.sort(_pairs, 0, pairCount);
+
+        /* Match the closest pairs whose track and target are both unmatched. */
+        for (int i = 0; i < pairCount; i++)
+        {
+            int track = (int) (_pairs[i] >> 20) & 0xFFFFF;
+            int target = (int) _pairs[i] & 0xFFFFF;
+
+            if (_trackTargets[track] != NO_TRACK || _targetTracks[target] != NO_TRACK)
+                continue;
+
+            _trackTargets[track] = target;
+            _targetTracks[target] = _trackIds[track];
+
+            _trackXPositions[track] += Smoothing * (frame.getXPosition(target) - _trackXPositions[track]);
+            _trackWidths[track] += Smoothing * (frame.getWidth(target) - _trackWidths[track]);
+            _trackHeights[track] += Smoothing * (frame.getHeight(target) - _trackHeights[track]);
+            _trackMisses[track] = 0;
+        }
+
+        /* Drop tracks that have been missed too often, keeping the order of the others. */
+        int remaining = 0;
+        for (int track = 0; track < _trackCount; track++)
+        {
+            if (_trackTargets[track] == NO_TRACK && ++_trackMisses[track] > MaxMisses)
+                continue;
+
+            moveTrack(track, remaining++);
+        }
+
+        _trackCount = remaining;
+
+        /* Start a track for every target without one. */
+        for (int target = 0; target < _targetCount; target++)
+        {
+            if (_targetTracks[target] != NO_TRACK)
+                continue;
+
+            ensureTrackCapacity(_trackCount + 1);
+
+            int track = _trackCount++;
+            _trackIds[track] = _nextTrackId++;
+            _trackXPositions[track] = frame.getXPosition(target);
+            _trackWidths[track] = frame.getWidth(target);
+            _trackHeights[track] = frame.getHeight(target);
+            _trackMisses[track] = 0;
+            _trackTargets[track] = target;
+            _targetTracks[target] = _trackIds[track];
+        }
+    }
+
+    /**
+     * Moves all tracks by the number of pixels the view shifts when the robot turns the
+     * given number of degrees, in the direction returned by DirectionCalculator.
+     */
+    public void predictRotation(float degrees)
+    {
+        if (_frameWidth == 0)
+            return;
+
+        /* Turning towards a target moves it towards the middle of the frame. Angles add up, but pixel
+           offsets do not, so each track moves through its angle. */
+        CameraModel camera = CameraModel.getDefault();
+        float frameMiddle = _frameWidth / 2;
+        for (int track = 0; track < _trackCount; track++)
+        {
+            float middle = _trackXPositions[track] + _trackWidths[track] / 2;
+            float angle = camera.getDirection(_frameWidth, middle) - degrees;
+
+            _trackXPositions[track] = frameMiddle - camera.getOffset(_frameWidth, angle) - _trackWidths[track] / 2;
+        }
+    }
+
+    /** Returns the track id of the target at the given index in the last frame. */
+    public int getTrackId(int index)
+    {
+        return _targetTracks[index];
+    }
+
+    /** Returns the index in the last frame of the target with the given track id, or NO_TRACK if it was not seen. */
+    public int findTarget(int trackId)
+    {
+        for (int track = 0; track < _trackCount; track++)
+        {
+            if (_trackIds[track] == trackId)
+                return _trackTargets[track];
+        }
+
+        return NO_TRACK;
+    }
+
+    /** Returns the smoothed middle x-position of the track with the given id, or NaN if there is no such track. */
+    public float getSmoothedMiddleX(int trackId)
+    {
+        for (int track = 0; track < _trackCount; track++)
+        {
+            if (_trackIds[track] == trackId)
+                return _trackXPositions[track] + _trackWidths[track] / 2;
+        }
+
+        return Float.NaN;
+    }
+
+    public int getTrackCount()
+    {
+        return _trackCount;
+    }
+
+    private void moveTrack(int from, int to)
+    {
+        _trackIds[to] = _trackIds[from];
+        _trackXPositions[to] = _trackXPositions[from];
+        _trackWidths[to] = _trackWidths[from];
+        _trackHeights[to] = _trackHeights[from];
+        _trackMisses[to] = _trackMisses[from];
+        _trackTargets[to] = _trackTargets[from];
+    }
+
+    private void ensureTrackCapacity(int capacity)
+    {
+        if (capacity <= _trackIds.length)
+            return;
+
+        int newCapacity = Math.max(capacity, _trackIds.length * 2);
+        _trackIds = Arrays.copyOf(_trackIds, newCapacity);
+        _trackXPositions = Arrays.copyOf(_trackXPositions, newCapacity);
+        _trackWidths = Arrays.copyOf(_trackWidths, newCapacity);
+        _trackHeights = Arrays.copyOf(_trackHeights, newCapacity);
+        _trackMisses = Arrays.copyOf(_trackMisses, newCapacity);
+        _trackTargets = Arrays.copyOf(_trackTargets, newCapacity);
+    }
+
+    private void ensureTargetCapacity(int capacity)
+    {
+        if (capacity > _targetTracks.length)
+            _targetTracks = new int[Math.max(capacity, _targetTracks.length * 2)];
+    }
+
+    private void ensurePairCapacity(int capacity)
+    {
+        if (capacity > _pairs.length)
+            _pairs = new long[Math.max(capacity, _pairs.length * 2)];
+    }
+}
@@ -0,0 +1,163 @@
+package com.sabr.targeting.gating;
+
+import com.sabr.movement.shooting.IShooter;
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.PrimitiveTargetContainer;
+
+/**
+ * Removes the targets that are not worth selecting from a frame before any policy runs,
+ * by applying a number of stages in order. The targets that pass all stages are copied
+ * into a container that is reused for every frame, so gating does not allocate once the
+ * buffers fit the largest frame.
+ *
+ * A frame can also be gated while it arrives. The stages up to the first one that needs the
+ * whole frame judge each chunk as it is accepted, so a policy can evaluate the targets that
+ * pass them before the rest of the frame is received. The other stages run once it has all
+ * arrived.
+ */
+public class GatingPipeline
+{
+    private final GatingStage[] _stages;
+
+    /* Number of stages at the start that judge every target on its own. */
+    private final int _targetGateCount;
+
+    /* Indices into the source frame of the targets that passed. */
+    private int[] _indices = new int[0];
+    private int _count;
+    private int _sourceCount;
+
+    private final PrimitiveTargetContainer _gatedFrame = PrimitiveTargetContainer.withCapacity(0);
+
+    public GatingPipeline(GatingStage... stages)
+    {
+        this._stages = stages;
+
+        int targetGateCount = 0;
+        while (targetGateCount < stages.length && stages[targetGateCount] instanceof TargetGate)
+            targetGateCount++;
+
+        this._targetGateCount = targetGateCount;
+    }
+
+    /**
+     * Returns a pipeline dropping targets that cannot be cups first, then targets out of reach
+     * of the given shooter, and finally duplicate detections.
+     */
+    public static GatingPipeline createDefault(IShooter shooter)
+    {
+        return new GatingPipeline(new ShapeGate(), new RangeGate(shooter), new OverlapGate());
+    }
+
+    /**
+     * Returns the targets of the frame that pass all stages, in their original order. The
+     * returned container is only valid until the next frame is gated.
+     */
+    public ITargetContainer apply(ITargetContainer frame)
+    {
+        int targetCount = frame.getTargetCount();
+        if (_indices.length < targetCount)
+            _indices = new int[targetCount];
+
+        for (int i = 0; i < targetCount; i++)
+            _indices[i] = i;
+
+        _sourceCount = targetCount;
+        _count = targetCount;
+        for (int stage = 0; stage < _stages.length && _count > 0; stage++)
+            _count = _stages[stage].apply(frame, _indices, _count);
+
+        copyTargets(frame);
+        return _gatedFrame;
+    }
+
+    /**
+     * Starts gating a frame that arrives in chunks. Returns the container the targets that pass
+     * are added to as chunks are accepted, which is only valid until the next frame is gated.
+     */
+    public ITargetContainer beginFrame(ITargetContainer frame)
+    {
+        _sourceCount = 0;
+        _count = 0;
+
+        _gatedFrame.clear();
+        _gatedFrame.setFrameId(frame.getFrameId());
+        _gatedFrame.setFrameWidth(frame.getFrameWidth());
+        return _gatedFrame;
+    }
+
+    /**
+     * Gates the targets of the frame from fromIndex (inclusive) to toIndex (exclusive) with the
+     * stages that judge every target on its own, adding those that pass to the gated frame.
+     */
+    public void acceptTargets(ITargetContainer frame, int fromIndex, int toIndex)
+    {
+        if (_indices.length < _count + toIndex - fromIndex)
+        {
+            int[] indices = new int[Math.max(_count + toIndex - fromIndex, 2 * _indices.length)];
+            System.arraycopy(_indices, 0, indices, 0, _count);
+            _indices = indices;
+        }
+
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            boolean passed = true;
+            for (int stage = 0; stage < _targetGateCount && passed; stage++)
+                passed = ((TargetGate) _stages[stage]).accepts(frame, i);
+
+            if (!passed)
+                continue;
+
+            _indices[_count++] = i;
+            _gatedFrame.addTarget(frame.getHeight(i), frame.getWidth(i), frame.getXPosition(i),
+                                  frame.getConfidence(i));
+        }
+
+        _sourceCount += toIndex - fromIndex;
+    }
+
+    /**
+     * Applies the remaining stages once the whole frame has been accepted. Returns whether they
+     * removed any targets, in which case the gated frame has changed and any evaluation of the
+     * targets added to it so far no longer holds.
+     */
+    public boolean endFrame(ITargetContainer frame)
+    {
+        _gatedFrame.setFrameId(frame.getFrameId());
+
+        int acceptedCount = _count;
+        for (int stage = _targetGateCount; stage < _stages.length && _count > 0; stage++)
+            _count = _stages[stage].apply(frame, _indices, _count);
+
+        if (_count == acceptedCount)
+            return false;
+
+        copyTargets(frame);
+        return true;
+    }
+
+    /** Returns the index in the source frame of the target at the given index in the gated frame. */
+    public int getSourceIndex(int gatedIndex)
+    {
+        return _indices[gatedIndex];
+    }
+
+    /** Returns the number of targets removed from the last frame. */
+    public int getRejectedCount()
+    {
+        return _sourceCount - _count;
+    }
+
+    private void copyTargets(ITargetContainer frame)
+    {
+        _gatedFrame.clear();
+        _gatedFrame.setFrameId(frame.getFrameId());
+        _gatedFrame.setFrameWidth(frame.getFrameWidth());
+        for (int i = 0; i < _count; i++)
+        {
+            int index = _indices[i];
+            _gatedFrame.addTarget(frame.getHeight(index), frame.getWidth(index), frame.getXPosition(index),
+                                  frame.getConfidence(index));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sabr.targeting.gating;
+
+import com.sabr.targeting.ITargetContainer;
+
+/**
+ * A stage of the gating pipeline, removing targets that are not worth selecting.
+ */
+public interface GatingStage
+{
+    /**
+     * Removes the targets that do not pass this stage from the first count indices into the
+     * frame, keeping the order of the others. Returns the number of indices kept.
+     */
+    int apply(ITargetContainer frame, int[] indices, int count);
+}
@@ -0,0 +1,95 @@
+package com.sabr.targeting.gating;
+
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.utilities.ArrayUtil;
+
+/**
+ * Suppresses duplicate detections of the same cup. Boxes only have a horizontal position,
+ * so two boxes are duplicates when their horizontal extents mostly overlap and their
+ * heights are similar. Cups behind each other overlap too, but differ in height. Of two
+ * duplicates the more confident box is kept, or the taller one if equally confident.
+ */
+public class OverlapGate implements GatingStage
+{
+    /* Smallest share of the union of two horizontal extents that they must share to be duplicates. */
+    private static final float MinOverlap = 0.6f;
+
+    /* Smallest ratio of the lower to the higher height of two duplicates. */
+    private static final float MinHeightRatio = 0.8f;
+
+    /* Positions in the indices, best box first, and of those the ones kept so far. */
+    private int[] _order = new int[0];
+    private int[] _ranks = new int[0];
+    private int[] _sortScratch = new int[ArrayUtil.getSortScratchLength(0)];
+    private int[] _kept = new int[0];
+    private boolean[] _isKept = new boolean[0];
+
+    /**
+     * Keeps boxes greedily from the best to the worst, dropping a box only if it is a duplicate
+     * of a box already kept. A box that is dropped does not suppress any other box in turn, so
+     * a cup overlapped by a duplicate of its neighbour is not lost with it.
+     */
+    @Override
+    public int apply(ITargetContainer frame, int[] indices, int count)
+    {
+        if (_order.length < count)
+        {
+            _order = new int[count];
+            _ranks = new int[count];
+            _sortScratch = new int[ArrayUtil.getSortScratchLength(count)];
+            _kept = new int[count];
+            _isKept = new boolean[count];
+        }
+
+        /* Rank by confidence and then by height, both decreasing. The sort is stable, so ties keep the box that
+           comes first. */
+        for (int i = 0; i < count; i++)
+        {
+            _order[i] = i;
+            _ranks[i] = -(frame.getConfidence(indices[i]) << 16 | frame.getHeight(indices[i]));
+        }
+
+        ArrayUtil.sortIndices(_order, count, _ranks, _sortScratch);
+
+        int keptCount = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int position = _order[i];
+
+            boolean suppressed = false;
+            for (int j = 0; j < keptCount && !suppressed; j++)
+                suppressed = isDuplicate(frame, indices[position], indices[_kept[j]]);
+
+            _isKept[position] = !suppressed;
+            if (!suppressed)
+                _kept[keptCount++] = position;
+        }
+
+        /* Remove the suppressed boxes, keeping the order of the others. */
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (_isKept[i])
+                indices[kept++] = indices[i];
+        }
+
+        return kept;
+    }
+
+    private boolean isDuplicate(ITargetContainer frame, int first, int second)
+    {
+        int firstLeft = frame.getXPosition(first);
+        int firstRight = firstLeft + frame.getWidth(first);
+        int secondLeft = frame.getXPosition(second);
+        int secondRight = secondLeft + frame.getWidth(second);
+
+        int overlap = Math.min(firstRight, secondRight) - Math.max(firstLeft, secondLeft);
+        int union = Math.max(firstRight, secondRight) - Math.min(firstLeft, secondLeft);
+        if (overlap <= 0 || overlap < MinOverlap * union)
+            return false;
+
+        int lowerHeight = Math.min(frame.getHeight(first), frame.getHeight(second));
+        int higherHeight = Math.max(frame.getHeight(first), frame.getHeight(second));
+        return lowerHeight >= MinHeightRatio * higherHeight;
+    }
+}
@@ -0,0 +1,50 @@
+package com.sabr.targeting.gating;
+
+import com.sabr.movement.shooting.IShooter;
+import com.sabr.targeting.DistanceCalculator;
+import com.sabr.targeting.ITargetContainer;
+
+/**
+ * Keeps the targets within reach of the shooter, as given by its power envelope at the current
+ * battery level. A small tolerance allows for the distance estimate changing once the robot
+ * faces the target.
+ */
+public class RangeGate implements TargetGate
+{
+    /* Centimeters a target may be estimated out of range and still be kept. */
+    private static final float DefaultTolerance = 5.0f;
+
+    private final IShooter _shooter;
+    private final float _tolerance;
+
+    public RangeGate(IShooter shooter)
+    {
+        this(shooter, DefaultTolerance);
+    }
+
+    public RangeGate(IShooter shooter, float tolerance)
+    {
+        this._shooter = shooter;
+        this._tolerance = tolerance;
+    }
+
+    @Override
+    public int apply(ITargetContainer frame, int[] indices, int count)
+    {
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (accepts(frame, indices[i]))
+                indices[kept++] = indices[i];
+        }
+
+        return kept;
+    }
+
+    @Override
+    public boolean accepts(ITargetContainer frame, int index)
+    {
+        float distance = DistanceCalculator.calculateDistance(frame, index);
+        return distance >= _shooter.getMinDistance() - _tolerance && distance <= _shooter.getMaxDistance() + _tolerance;
+    }
+}
@@ -0,0 +1,42 @@
+package com.sabr.targeting.gating;
+
+import com.sabr.targeting.ITargetContainer;
+
+/**
+ * Keeps the targets whose boxes could be a cup: not too small to measure, not wider than
+ * half the frame, and with a height to width ratio a cup can have when seen from the side.
+ */
+public class ShapeGate implements TargetGate
+{
+    /* Smallest width and height in pixels from which a direction and distance can be measured. */
+    private static final int MinSize = 6;
+
+    /* Range of height to width ratios of a cup, allowing for boxes cut off by the edge of the frame. */
+    private static final float MinAspectRatio = 0.5f;
+    private static final float MaxAspectRatio = 4.0f;
+
+    @Override
+    public int apply(ITargetContainer frame, int[] indices, int count)
+    {
+        int kept = 0;
+        for (int i = 0; i < count; i++)
+        {
+            if (accepts(frame, indices[i]))
+                indices[kept++] = indices[i];
+        }
+
+        return kept;
+    }
+
+    @Override
+    public boolean accepts(ITargetContainer frame, int index)
+    {
+        int width = frame.getWidth(index);
+        int height = frame.getHeight(index);
+
+        if (width < MinSize || height < MinSize || width > frame.getFrameWidth() / 2)
+            return false;
+
+        return height >= MinAspectRatio * width && height <= MaxAspectRatio * width;
+    }
+}
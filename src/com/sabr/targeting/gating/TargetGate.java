@@ -0,0 +1,13 @@
+package com.sabr.targeting.gating;
+
+import com.sabr.targeting.ITargetContainer;
+
+/**
+ * A stage of the gating pipeline that judges every target on its own. A frame can be gated
+ * by such stages chunk by chunk as it arrives, rather than once all of it has arrived.
+ */
+public interface TargetGate extends GatingStage
+{
+    /** Whether the target at the given index of the frame passes this stage. */
+    boolean accepts(ITargetContainer frame, int index);
+}
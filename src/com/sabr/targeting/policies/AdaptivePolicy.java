@@ -0,0 +1,262 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.movement.shooting.IShooter;
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.utilities.Deadline;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Learns which of the other policies hits targets fastest in the current arena, using the
+ * UCB1 multi-armed bandit.
+ *
+ * Before every shot one policy is chosen to select the targets. After the press it is
+ * rewarded by how fast the shot was, taking into account the time from the button press to
+ * the shot, the number of rotations and the number of frames requested. A press that ends
+ * without a shot costs the most a shot may cost, so policies cannot gain by failing early.
+ * Policies are tried once each, after which the policy with the highest mean reward plus an
+ * exploration bonus is chosen. The bonus shrinks as a policy is chosen more often, so
+ * policies that were unlucky early on still get another chance.
+ *
+ * The statistics are saved to a file after every press and loaded again on start, so
+ * learning continues across runs. They are saved by policy name, so they still apply after
+ * policies are added or reordered.
+ */
+public class AdaptivePolicy extends Policy
+{
+    /* Extra cost in milliseconds of a rotation and of a frame request, on top of the time they take. */
+    private static final float RotationCost = 500.0f;
+    private static final float RoundTripCost = 250.0f;
+
+    /* Cost in milliseconds that is rewarded with one half, and the largest cost, which a press without a shot costs. */
+    private static final float ReferenceCost = 2000.0f;
+    private static final float MaxCost = 10000.0f;
+
+    /* Marks a statistics file of this format, which older files of only counts and rewards do not start with. */
+    private static final int FileFormat = 0x41445032;
+
+    private final String _fileName;
+
+    private final PolicyFactory.TargetingPolicyType[] _types;
+    private final Policy[] _policies;
+    private final int[] _plays;
+    private final float[] _rewards;
+    private int _totalPlays = 0;
+
+    private int _arm = 0;
+
+    /** Creates an adaptive policy saving its statistics to the given file, or not saving them if it is null. */
+    public AdaptivePolicy(String fileName)
+    {
+        this(fileName, null);
+    }
+
+    /** Creates an adaptive policy as above, whose policies choose randomly using the given generator. */
+    public AdaptivePolicy(String fileName, Random random)
+    {
+        this(fileName, random, null);
+    }
+
+    /** Creates an adaptive policy as above, whose policies judge the range of targets by the given shooter. */
+    public AdaptivePolicy(String fileName, Random random, IShooter shooter)
+    {
+        this._fileName = fileName;
+
+        /* Every other policy is an arm. */
+        PolicyFactory.TargetingPolicyType[] allTypes = PolicyFactory.TargetingPolicyType.values();
+        _types = new PolicyFactory.TargetingPolicyType[allTypes.length - 1];
+        int armCount = 0;
+        for (PolicyFactory.TargetingPolicyType type : allTypes)
+        {
+            if (type != PolicyFactory.TargetingPolicyType.Adaptive)
+                _types[armCount++] = type;
+        }
+
+        _policies = new Policy[armCount];
+        for (int arm = 0; arm < armCount; arm++)
+            _policies[arm] = PolicyFactory.getPolicy(_types[arm], random, shooter);
+
+        _plays = new int[armCount];
+        _rewards = new float[armCount];
+
+        load();
+    }
+
+    /** Returns the type of the policy chosen for the current shot. */
+    public PolicyFactory.TargetingPolicyType getChosenType()
+    {
+        return _types[_arm];
+    }
+
+    /** Returns the number of presses the policy of the given type was chosen for. */
+    public int getPlays(PolicyFactory.TargetingPolicyType type)
+    {
+        for (int arm = 0; arm < _types.length; arm++)
+        {
+            if (_types[arm] == type)
+                return _plays[arm];
+        }
+
+        return 0;
+    }
+
+    @Override
+    public void reset()
+    {
+        _arm = chooseArm();
+        _policies[_arm].reset();
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
+    {
+        return _policies[_arm].selectTargetBox(targetContainer);
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer, Deadline deadline)
+    {
+        return _policies[_arm].selectTargetBox(targetContainer, deadline);
+    }
+
+    /* The chosen policy remembers its own decisions. */
+    @Override
+    protected boolean isMemoizable()
+    {
+        return false;
+    }
+
+    @Override
+    public void onRotated(float degrees)
+    {
+        super.onRotated(degrees);
+        _policies[_arm].onRotated(degrees);
+    }
+
+    @Override
+    public void onPress(int rotations, int roundTrips, long milliseconds, boolean shot)
+    {
+        float cost = shot ? Math.min(milliseconds + rotations * RotationCost + roundTrips * RoundTripCost, MaxCost)
+                          : MaxCost;
+
+        _plays[_arm]++;
+        _rewards[_arm] += ReferenceCost / (ReferenceCost + cost);
+        _totalPlays++;
+
+        save();
+    }
+
+    private int chooseArm()
+    {
+        int best = 0;
+        float bestBound = Float.NEGATIVE_INFINITY;
+        for (int arm = 0; arm < _plays.length; arm++)
+        {
+            /* Try every policy once before comparing them. */
+            if (_plays[arm] == 0)
+                return arm;
+
+            float mean = _rewards[arm] / _plays[arm];
+            float bound = mean + (float) Math.sqrt(2 * Math.log(_totalPlays) / _plays[arm]);
+            if (bound > bestBound)
+            {
+                best = arm;
+                bestBound = bound;
+            }
+        }
+
+        return best;
+    }
+
+    /* Loads the statistics of the policies that are arms, unless there are none or they are of an older format. */
+    private void load()
+    {
+        if (_fileName == null)
+            return;
+
+        File file = new File(_fileName);
+        if (!file.exists())
+            return;
+
+        try
+        {
+            DataInputStream input = new DataInputStream(new FileInputStream(file));
+            try
+            {
+                if (input.readInt() != FileFormat)
+                    return;
+
+                int count = input.readInt();
+                for (int i = 0; i < count; i++)
+                {
+                    String name = input.readUTF();
+                    int plays = input.readInt();
+                    float rewards = input.readFloat();
+
+                    /* Policies that no longer exist are dropped. */
+                    for (int arm = 0; arm < _types.length; arm++)
+                    {
+                        if (_types[arm].name().equals(name))
+                        {
+                            _plays[arm] = plays;
+                            _rewards[arm] = rewards;
+                            _totalPlays += plays;
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+        catch (IOException ex)
+        {
+            /* Unreadable statistics are learned again. */
+            for (int arm = 0; arm < _plays.length; arm++)
+            {
+                _plays[arm] = 0;
+                _rewards[arm] = 0;
+            }
+
+            _totalPlays = 0;
+        }
+    }
+
+    private void save()
+    {
+        if (_fileName == null)
+            return;
+
+        try
+        {
+            DataOutputStream output = new DataOutputStream(new FileOutputStream(new File(_fileName)));
+            try
+            {
+                output.writeInt(FileFormat);
+                output.writeInt(_plays.length);
+                for (int arm = 0; arm < _plays.length; arm++)
+                {
+                    output.writeUTF(_types[arm].name());
+                    output.writeInt(_plays[arm]);
+                    output.writeFloat(_rewards[arm]);
+                }
+            }
+            finally
+            {
+                output.close();
+            }
+        }
+        catch (IOException ex)
+        {
+            /* The statistics are kept in memory, and saved again after the next press. */
+        }
+    }
+}
@@ -4,143 +4,313 @@ import com.sabr.Robot;
 import com.sabr.targeting.ITargetContainer;
 import com.sabr.targeting.TargetBox;
 import com.sabr.utilities.ArrayUtil;
+import com.sabr.utilities.Deadline;
 
-import java.util.*;
+import java.util.Random;
 
+/**
+ * Clusters the targets by their x-position and selects a random target of the biggest cluster.
+ *
+ * As targets only have an x-position, they are sorted once, after which every cluster is a
+ * range of the sorted targets. The exact mode finds the partition into k ranges with the least
+ * sum of squared distances to the cluster means using dynamic programming. The iterative mode
+ * runs k-means on the ranges and stops as soon as the clusters no longer change.
+ *
+ * Both modes are anytime when given a deadline. The exact mode finds the best partitions into
+ * one cluster, then two and so on, and stops at the partition with the most clusters found in
+ * time. The iterative mode stops with the clusters of the last iteration done in time.
+ *
+ * All work buffers are kept between frames and only grow when a frame has more targets.
+ */
 public class BiggestClusterPolicy extends Policy
 {
-    private static final Random Random = new Random();
+    public static final int DefaultClusters = 2;
+    private static final int MaxIterations = 30;
 
-    private final static byte Centroids = 2;
-    private final static int Iterations = 30;
+    /* Number of columns of the exact mode between checks of the deadline. */
+    private static final int DeadlineCheckInterval = 16;
 
-    private Centroid[] _centroids = new Centroid[Centroids];
+    private final int _clusters;
+    private final Mode _mode;
+    private final Random _random;
+
+    private final Policy _fallbackPolicy = new LeastRotationPolicy();
+
+    /* Target indices sorted by x-position, and prefix sums of their x-positions and squares. */
+    private int[] _order = new int[0];
+    private short[] _xPositions = new short[0];
+    private int[] _sortScratch = new int[ArrayUtil.getSortScratchLength(0)];
+    private long[] _sums = new long[1];
+    private long[] _squareSums = new long[1];
+
+    /* Position in the sorted targets where each cluster starts, followed by the target count. */
+    private int[] _starts = new int[DefaultClusters + 1];
+    private int _clusterCount;
+
+    /* Exact mode: costs of the previous and current number of clusters, and the chosen splits. */
+    private double[] _previousCosts = new double[1];
+    private double[] _costs = new double[1];
+    private int[] _splits = new int[0];
+
+    /* Iterative mode: the current mean of each cluster. */
+    private double[] _means = new double[DefaultClusters];
+
+    public BiggestClusterPolicy()
+    {
+        this(DefaultClusters, Mode.Exact);
+    }
+
+    public BiggestClusterPolicy(int clusters, Mode mode)
+    {
+        this(clusters, mode, null);
+    }
+
+    /** Selects members using the given random generator instead of the robot's, which allows running off the brick. */
+    public BiggestClusterPolicy(int clusters, Mode mode, Random random)
+    {
+        this._clusters = clusters;
+        this._mode = mode;
+        this._random = random;
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
+    {
+        return evaluateTargetBox(targetContainer, Deadline.NONE);
+    }
 
     @Override
-    public TargetBox selectTargetBox(ITargetContainer targetContainer)
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer, Deadline deadline)
     {
         if (targetContainer.getTargetCount() == 0)
             return null;
         else if (targetContainer.getTargetCount() <= 2)
             /* If there are only two targets, it makes no sense to use clustering.
             *  In that case, we default to the LeastRotationPolicy. */
-            return new LeastRotationPolicy().selectTargetBox(targetContainer);
-
+            return _fallbackPolicy.selectTargetBox(targetContainer);
 
-        /* Select initial guesses. As k = 2, choose the left- and rightmost data points. */
-        TargetBox[] targets = targetContainer.cloneTargets();
-        ArrayUtil.sort(targets, new AbsolutePositionComparator());
-        _centroids[0] = new Centroid(targets[0].getXPosition());
-        _centroids[1] = new Centroid(targets[targets.length - 1].getXPosition());
+        cluster(targetContainer, deadline);
 
-        /* Run clustering for preset amount of iterations. */
-        for (int iteration = 0; iteration < Iterations; iteration++)
+        /* Find the cluster with the most targets. Ties go to the rightmost cluster. */
+        int biggest = 0;
+        for (int cluster = 1; cluster < _clusterCount; cluster++)
         {
-            /* Each iteration begins with clearing the targets assigned to all centroids.
-            *  We don't do this in the end of the iteration because we need the targets. */
-            for (Centroid centroid : _centroids)
-                centroid.clearTargets();
+            if (getClusterSize(cluster) >= getClusterSize(biggest))
+                biggest = cluster;
+        }
 
-            /* For each target, find the centroid it has the shortest euclidean distance to. */
-            for (byte targetIndex = 0; targetIndex < targetContainer.getTargetCount(); targetIndex++)
-            {
-                TargetBox target = targetContainer.getTarget(targetIndex);
+        Random random = _random != null ? _random : Robot.getInstance().Random;
+        int member = random.nextInt(getClusterSize(biggest));
+        return targetContainer.getTarget(getClusterMember(biggest, member));
+    }
 
-                /* For each target, sort the array of centroids using the centroid distance comparator. */
-                ArrayUtil.sort(this._centroids, new CentroidDistanceComparator(target));
+    /**
+     * Partitions the targets into clusters, ordered from left to right. Returns the number of
+     * clusters, which is less than the configured number if there are fewer targets.
+     */
+    public int cluster(ITargetContainer targetContainer)
+    {
+        return cluster(targetContainer, Deadline.NONE);
+    }
 
-                /* The first element in the sorted array is the centroid that this target is closest to. */
-                this._centroids[0].assignTarget(target);
-            }
+    /**
+     * Partitions the targets into clusters as above, stopping with fewer clusters or fewer
+     * iterations if the deadline passes.
+     */
+    public int cluster(ITargetContainer targetContainer, Deadline deadline)
+    {
+        int targetCount = targetContainer.getTargetCount();
+        prepare(targetContainer, targetCount);
 
-            /* Now all targets are assigned. We need to update all centroids. */
-            for (Centroid centroid : _centroids)
-                centroid.update();
-        }
+        _clusterCount = Math.min(_clusters, targetCount);
+        if (_starts.length < _clusterCount + 1)
+            _starts = new int[_clusterCount + 1];
 
-        /* Sort clusters by those with the most amount.
-        *  The last element has the most targets. */
-        ArrayUtil.sort(this._centroids, new CentroidSizeComparator());
+        if (_mode == Mode.Exact)
+            partitionExactly(targetCount, deadline);
+        else
+            partitionIteratively(targetCount, deadline);
 
-        return this._centroids[this._centroids.length - 1].getRandomTarget();
+        return _clusterCount;
     }
 
-    class CentroidSizeComparator implements Comparator<Centroid>
+    public int getClusterSize(int cluster)
     {
-        @Override
-        public int compare(Centroid first, Centroid second)
-        {
-            return ((Integer) first.getTargetCount()).compareTo(second.getTargetCount());
-        }
+        return _starts[cluster + 1] - _starts[cluster];
     }
 
-    class CentroidDistanceComparator implements Comparator<Centroid>
+    /** Returns the index in the container of the given member of a cluster, members being ordered by x-position. */
+    public int getClusterMember(int cluster, int member)
     {
-        private final TargetBox _target;
+        return _order[_starts[cluster] + member];
+    }
 
-        CentroidDistanceComparator(TargetBox target)
+    private void prepare(ITargetContainer targetContainer, int targetCount)
+    {
+        if (_order.length < targetCount)
         {
-            this._target = target;
+            _order = new int[targetCount];
+            _xPositions = new short[targetCount];
+            _sortScratch = new int[ArrayUtil.getSortScratchLength(targetCount)];
+            _sums = new long[targetCount + 1];
+            _squareSums = new long[targetCount + 1];
         }
 
-        @Override
-        public int compare(Centroid first, Centroid second)
+        /* Radix sort of the target indices by x-position, which is stable. */
+        for (int i = 0; i < targetCount; i++)
         {
-            Double firstDistance  = first.distanceTo(this._target);
-            Double secondDistance = second.distanceTo(this._target);
+            _order[i] = i;
+            _xPositions[i] = targetContainer.getXPosition(i);
+        }
 
-            return firstDistance.compareTo(secondDistance);
+        ArrayUtil.sortIndices(_order, targetCount, _xPositions, _sortScratch);
+
+        for (int i = 0; i < targetCount; i++)
+        {
+            long x = targetContainer.getXPosition(_order[i]);
+            _sums[i + 1] = _sums[i] + x;
+            _squareSums[i + 1] = _squareSums[i] + x * x;
         }
     }
 
-    class Centroid
+    /* Sum of squared distances to their mean of the sorted targets from start (inclusive) to end (exclusive). */
+    private double cost(int start, int end)
     {
-        private short _x;
-        private List<TargetBox> _assignedTargets = new ArrayList<>();
+        long sum = _sums[end] - _sums[start];
+        return (_squareSums[end] - _squareSums[start]) - (double) sum * sum / (end - start);
+    }
 
-        Centroid(short x)
+    private void partitionExactly(int targetCount, Deadline deadline)
+    {
+        int columns = targetCount + 1;
+        if (_costs.length < columns)
         {
-            this._x = x;
+            _previousCosts = new double[columns];
+            _costs = new double[columns];
         }
 
-        double distanceTo(TargetBox box)
-        {
-            return (int) Math.pow(this._x - box.getXPosition(), 2);
-        }
+        if (_splits.length < _clusterCount * columns)
+            _splits = new int[_clusterCount * columns];
 
-        void update()
-        {
-            int sum = _x;
+        /* A single cluster holding the first i targets. */
+        for (int i = 1; i <= targetCount; i++)
+            _costs[i] = cost(0, i);
 
-            /* Add each x-position of assigned target boxes to the sum. */
-            for (TargetBox box : _assignedTargets)
-                sum += box.getXPosition();
+        /* The best partition of the first i targets into k clusters ends with a cluster starting at some split,
+           preceded by the best partition of the targets before it into k - 1 clusters. Only the partition of all
+           targets is needed into the most clusters, so the last row has a single column. */
+        for (int k = 1; k < _clusterCount; k++)
+        {
+            double[] previousCosts = _costs;
+            _costs = _previousCosts;
+            _previousCosts = previousCosts;
 
-            /* Get the mean of the data points (including the centroid). */
-            this._x = (short) (sum / (_assignedTargets.size() + 1));
+            /* Out of time, so settle for the best partition into the k clusters of the last complete row. */
+            int firstColumn = k == _clusterCount - 1 ? targetCount : k + 1;
+            if (!fillRow(k, firstColumn, targetCount, previousCosts, deadline))
+            {
+                _clusterCount = k;
+                break;
+            }
         }
 
-        void assignTarget(TargetBox target)
+        /* Walk back through the splits to find where each cluster starts. */
+        _starts[_clusterCount] = targetCount;
+        int end = targetCount;
+        for (int k = _clusterCount - 1; k > 0; k--)
         {
-            this._assignedTargets.add(target);
+            end = _splits[k * columns + end];
+            _starts[k] = end;
         }
 
-        void clearTargets()
-        {
-            this._assignedTargets.clear();
-        }
+        _starts[0] = 0;
+    }
 
-        TargetBox getRandomTarget()
+    /**
+     * Finds the best partitions of the first i targets into k + 1 clusters, for i from firstColumn
+     * to the number of targets. Every column takes time linear in the number of targets, so the
+     * deadline is checked within the row. Returns false if it passed before the row was done.
+     */
+    private boolean fillRow(int k, int firstColumn, int targetCount, double[] previousCosts, Deadline deadline)
+    {
+        int columns = targetCount + 1;
+        for (int i = firstColumn; i <= targetCount; i++)
         {
-            if (this._assignedTargets.size() == 0)
-                return null;
+            if ((i - firstColumn) % DeadlineCheckInterval == 0 && deadline.hasPassed())
+                return false;
+
+            int bestSplit = k;
+            double bestCost = previousCosts[k] + cost(k, i);
 
-            return this._assignedTargets.get(Robot.getInstance().Random.nextInt(this._assignedTargets.size()));
+            for (int split = k + 1; split < i; split++)
+            {
+                double splitCost = previousCosts[split] + cost(split, i);
+                if (splitCost < bestCost)
+                {
+                    bestSplit = split;
+                    bestCost = splitCost;
+                }
+            }
+
+            _costs[i] = bestCost;
+            _splits[k * columns + i] = bestSplit;
         }
 
-        int getTargetCount()
+        return true;
+    }
+
+    private void partitionIteratively(int targetCount, Deadline deadline)
+    {
+        if (_means.length < _clusterCount)
+            _means = new double[_clusterCount];
+
+        /* Spread the initial means evenly between the left- and rightmost targets. */
+        double left = _sums[1];
+        double right = _sums[targetCount] - _sums[targetCount - 1];
+        for (int k = 0; k < _clusterCount; k++)
+            _means[k] = _clusterCount == 1 ? left : left + (right - left) * k / (_clusterCount - 1);
+
+        _starts[0] = 0;
+        _starts[_clusterCount] = targetCount;
+
+        for (int iteration = 0; iteration < MaxIterations; iteration++)
         {
-            return this._assignedTargets.size();
+            /* Assign each target to its nearest mean. As the targets are sorted, this only moves the
+               boundaries between clusters to the midpoints between the means. */
+            if (iteration > 0 && deadline.hasPassed())
+                break;
+
+            boolean changed = iteration == 0;
+            int position = 0;
+            for (int k = 1; k < _clusterCount; k++)
+            {
+                double midpoint = (_means[k - 1] + _means[k]) / 2;
+                while (position < targetCount && _sums[position + 1] - _sums[position] <= midpoint)
+                    position++;
+
+                if (_starts[k] != position)
+                {
+                    _starts[k] = position;
+                    changed = true;
+                }
+            }
+
+            if (!changed)
+                break;
+
+            /* Move each mean to the mean of its cluster. Empty clusters keep their mean. */
+            for (int k = 0; k < _clusterCount; k++)
+            {
+                int size = getClusterSize(k);
+                if (size > 0)
+                    _means[k] = (double) (_sums[_starts[k + 1]] - _sums[_starts[k]]) / size;
+            }
         }
     }
+
+    public enum Mode
+    {
+        Exact,
+        Iterative
+    }
 }
@@ -0,0 +1,141 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetTracker;
+import com.sabr.utilities.Deadline;
+
+/**
+ * Wraps a policy so that targets it selects from marginal detections are only shot at once
+ * they are seen again. A selected target with a confidence below the threshold is confirmed
+ * when the wrapped policy selects the same target, followed by a TargetTracker, in the next
+ * frame. Until then, the robot requests a new frame instead of turning towards a target
+ * that may be a false positive.
+ *
+ * If the wrapped policy evaluates chunks as they arrive, so does this one, confirming the
+ * target the wrapped policy selected once the whole frame has been accepted.
+ */
+public class ConfirmingPolicy extends IncrementalPolicy
+{
+    /** Detections less certain than this need to be confirmed. */
+    public static final short DefaultConfidence = (short) (0.7f * TargetBox.MAX_CONFIDENCE);
+
+    private final Policy _policy;
+    private final short _confidence;
+
+    private final TargetTracker _tracker = new TargetTracker();
+
+    /* Track of the unconfirmed target selected last, or NO_TRACK. */
+    private int _pendingTrackId = TargetTracker.NO_TRACK;
+    private boolean _confirmed = true;
+
+    public ConfirmingPolicy(Policy policy)
+    {
+        this(policy, DefaultConfidence);
+    }
+
+    public ConfirmingPolicy(Policy policy, short confidence)
+    {
+        this._policy = policy;
+        this._confidence = confidence;
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
+    {
+        return evaluateTargetBox(targetContainer, Deadline.NONE);
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer, Deadline deadline)
+    {
+        return confirm(targetContainer, _policy.selectTargetBox(targetContainer, deadline));
+    }
+
+    @Override
+    public boolean acceptsChunks()
+    {
+        return _policy instanceof IncrementalPolicy && ((IncrementalPolicy) _policy).acceptsChunks();
+    }
+
+    @Override
+    public void beginFrame(ITargetContainer targetContainer)
+    {
+        if (acceptsChunks())
+            ((IncrementalPolicy) _policy).beginFrame(targetContainer);
+    }
+
+    @Override
+    public void acceptTargets(ITargetContainer targetContainer, int fromIndex, int toIndex)
+    {
+        if (acceptsChunks())
+            ((IncrementalPolicy) _policy).acceptTargets(targetContainer, fromIndex, toIndex);
+    }
+
+    @Override
+    public TargetBox getSelectedTarget(ITargetContainer targetContainer)
+    {
+        TargetBox target = acceptsChunks() ?
+                ((IncrementalPolicy) _policy).getSelectedTarget(targetContainer) :
+                _policy.selectTargetBox(targetContainer);
+
+        return confirm(targetContainer, target);
+    }
+
+    /* Updates the tracks with the frame, and whether the target selected from it is confirmed. */
+    private TargetBox confirm(ITargetContainer targetContainer, TargetBox target)
+    {
+        _tracker.update(targetContainer);
+
+        if (target == null || target.getConfidence() >= _confidence)
+        {
+            _pendingTrackId = TargetTracker.NO_TRACK;
+            _confirmed = true;
+            return target;
+        }
+
+        /* A marginal target is confirmed if it was also the one selected in the previous frame. */
+        int trackId = _tracker.getTrackId(indexOf(targetContainer, target));
+        _confirmed = trackId == _pendingTrackId;
+        _pendingTrackId = trackId;
+
+        return target;
+    }
+
+    /* Whether a selection is confirmed depends on the previous frame, and the wrapped policy
+       remembers its own decisions. */
+    @Override
+    protected boolean isMemoizable()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isSelectionConfirmed()
+    {
+        return _confirmed && _policy.isSelectionConfirmed();
+    }
+
+    @Override
+    public void reset()
+    {
+        _tracker.reset();
+        _pendingTrackId = TargetTracker.NO_TRACK;
+        _confirmed = true;
+        _policy.reset();
+    }
+
+    @Override
+    public void onRotated(float degrees)
+    {
+        super.onRotated(degrees);
+        _tracker.predictRotation(degrees);
+        _policy.onRotated(degrees);
+    }
+
+    @Override
+    public void onPress(int rotations, int roundTrips, long milliseconds, boolean shot)
+    {
+        _policy.onPress(rotations, roundTrips, milliseconds, shot);
+    }
+}
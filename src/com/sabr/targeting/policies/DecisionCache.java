@@ -0,0 +1,48 @@
+package com.sabr.targeting.policies;
+
+/**
+ * A small cache of the decisions of a policy, mapping frame fingerprints to the index of
+ * the selected target. When full, the oldest decision is replaced.
+ */
+class DecisionCache
+{
+    /** Returned when there is no decision for a fingerprint. */
+    static final int MISS = Integer.MIN_VALUE;
+
+    /** Stored when no target was selected. */
+    static final int NO_TARGET = -1;
+
+    private static final int Size = 4;
+
+    private final long[] _fingerprints = new long[Size];
+    private final int[] _decisions = new int[Size];
+
+    private int _count = 0;
+    private int _next = 0;
+
+    int get(long fingerprint)
+    {
+        for (int i = 0; i < _count; i++)
+        {
+            if (_fingerprints[i] == fingerprint)
+                return _decisions[i];
+        }
+
+        return MISS;
+    }
+
+    void put(long fingerprint, int decision)
+    {
+        _fingerprints[_next] = fingerprint;
+        _decisions[_next] = decision;
+
+        _next = (_next + 1) % Size;
+        _count = Math.min(_count + 1, Size);
+    }
+
+    void clear()
+    {
+        _count = 0;
+        _next = 0;
+    }
+}
@@ -2,38 +2,93 @@ package com.sabr.targeting.policies;
 
 import com.sabr.targeting.ITargetContainer;
 import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetTracker;
+import com.sabr.utilities.Deadline;
 
 public class DoublePolicy extends Policy
 {
     private Policy _internalPolicy;
+    private final Policy _refinementPolicy = new LeastRotationPolicy();
     private boolean _passed = false;
 
+    /* Follows the targets across passes, so the refinement passes stay on the target chosen first. */
+    private final TargetTracker _tracker = new TargetTracker();
+    private int _lockedTrackId = TargetTracker.NO_TRACK;
+
     DoublePolicy(Policy initialPolicy)
     {
         this._internalPolicy = initialPolicy;
     }
 
     @Override
-    public TargetBox selectTargetBox(ITargetContainer targetContainer)
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
     {
+        return evaluateTargetBox(targetContainer, Deadline.NONE);
+    }
 
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer, Deadline deadline)
+    {
         if (targetContainer.getTargetCount() == 0)
             return null;
-        else if (targetContainer.getTargetCount() == 1)
-            return targetContainer.getTarget((byte) 0);
+
+        _tracker.update(targetContainer);
+
+        if (targetContainer.getTargetCount() == 1)
+            return targetContainer.getTarget(0);
 
         /* This policy selects a random target on first pass and then calibrates the aim on the
-            following passes by selecting the closest target.
+            following passes by staying on the same target. If it is lost, the closest target is selected.
          */
         if (!_passed)
         {
             _passed = true;
+            return lock(targetContainer, _internalPolicy.selectTargetBox(targetContainer, deadline));
+        }
+
+        int lockedIndex = _tracker.findTarget(_lockedTrackId);
+        if (lockedIndex != TargetTracker.NO_TRACK)
+            return targetContainer.getTarget(lockedIndex);
+
+        return lock(targetContainer, _refinementPolicy.selectTargetBox(targetContainer, deadline));
+    }
+
+    /* Decisions depend on the pass and the locked track, not only on the frame. The policies
+       it delegates to remember their own decisions. */
+    @Override
+    protected boolean isMemoizable()
+    {
+        return false;
+    }
+
+    @Override
+    public void reset()
+    {
+        _passed = false;
+        _tracker.reset();
+        _lockedTrackId = TargetTracker.NO_TRACK;
+        _internalPolicy.reset();
+        _refinementPolicy.reset();
+    }
 
-            TargetBox box = _internalPolicy.selectTargetBox(targetContainer);
-            _internalPolicy = new LeastRotationPolicy();
-            return box;
+    @Override
+    public void onRotated(float degrees)
+    {
+        super.onRotated(degrees);
+        _tracker.predictRotation(degrees);
+        _internalPolicy.onRotated(degrees);
+        _refinementPolicy.onRotated(degrees);
+    }
+
+    private TargetBox lock(ITargetContainer targetContainer, TargetBox target)
+    {
+        _lockedTrackId = TargetTracker.NO_TRACK;
+        for (int i = 0; i < targetContainer.getTargetCount(); i++)
+        {
+            if (targetContainer.getTarget(i) == target)
+                _lockedTrackId = _tracker.getTrackId(i);
         }
 
-        return _internalPolicy.selectTargetBox(targetContainer);
+        return target;
     }
 }
@@ -0,0 +1,38 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+
+/**
+ * A policy that evaluates targets one range at a time. This allows selection
+ * to start on the first chunks of a frame while the rest is still being received.
+ */
+public abstract class IncrementalPolicy extends Policy
+{
+    /** Discards any previous evaluation and starts evaluating a new frame. */
+    public abstract void beginFrame(ITargetContainer targetContainer);
+
+    /** Evaluates the targets from fromIndex (inclusive) to toIndex (exclusive). */
+    public abstract void acceptTargets(ITargetContainer targetContainer, int fromIndex, int toIndex);
+
+    /** Returns the selected target among those evaluated since the frame began, or null if there are none. */
+    public abstract TargetBox getSelectedTarget(ITargetContainer targetContainer);
+
+    /**
+     * Whether targets are evaluated as they are accepted. Policies wrapping one that is not
+     * return false, and only evaluate the frame once it is selected from.
+     */
+    public boolean acceptsChunks()
+    {
+        return true;
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
+    {
+        beginFrame(targetContainer);
+        acceptTargets(targetContainer, 0, targetContainer.getTargetCount());
+
+        return getSelectedTarget(targetContainer);
+    }
+}
@@ -1,9 +1,111 @@
 package com.sabr.targeting.policies;
 
+import com.sabr.targeting.FrameFingerprint;
 import com.sabr.targeting.ITargetContainer;
 import com.sabr.targeting.TargetBox;
+import com.sabr.utilities.Deadline;
 
+/**
+ * A way of choosing which target to shoot. Decisions are remembered by the fingerprint of
+ * the frame they were made for, so a repeated frame is answered without evaluating it
+ * again. Remembered decisions are forgotten when the robot rotates, as the frames after
+ * a rotation differ from those before it.
+ *
+ * A selection can be given a deadline. Policies that refine their selection step by step
+ * return the best target so far once it passes, while cheap policies ignore it. Selections
+ * cut short by the deadline are not remembered, as the same frame may give a better one.
+ */
 public abstract class Policy
 {
-    public abstract TargetBox selectTargetBox(ITargetContainer targetContainer);
-}
\ No newline at end of file
+    private final DecisionCache _decisions = new DecisionCache();
+
+    public TargetBox selectTargetBox(ITargetContainer targetContainer)
+    {
+        return selectTargetBox(targetContainer, Deadline.NONE);
+    }
+
+    /** Selects a target in the frame as above, returning the best target so far if the deadline passes. */
+    public TargetBox selectTargetBox(ITargetContainer targetContainer, Deadline deadline)
+    {
+        if (!isMemoizable())
+            return evaluateTargetBox(targetContainer, deadline);
+
+        long fingerprint = FrameFingerprint.of(targetContainer);
+        int decision = _decisions.get(fingerprint);
+        if (decision != DecisionCache.MISS)
+            return decision == DecisionCache.NO_TARGET ? null : targetContainer.getTarget(decision);
+
+        TargetBox target = evaluateTargetBox(targetContainer, deadline);
+        if (!deadline.hasPassed())
+            _decisions.put(fingerprint, indexOf(targetContainer, target));
+
+        return target;
+    }
+
+    /** Selects a target in the frame, or returns null if there is none to select. */
+    protected abstract TargetBox evaluateTargetBox(ITargetContainer targetContainer);
+
+    /**
+     * Selects a target in the frame, returning the best target so far if the deadline passes.
+     * Policies that take the same time for every frame of a size need not override this.
+     */
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer, Deadline deadline)
+    {
+        return evaluateTargetBox(targetContainer);
+    }
+
+    /**
+     * Whether decisions may be remembered. Policies whose decisions depend on more than the
+     * frame, or that are no more expensive than fingerprinting the frame, should not be.
+     */
+    protected boolean isMemoizable()
+    {
+        return true;
+    }
+
+    /** Prepares the policy for selecting a new target, forgetting any state kept for the previous one. */
+    public void reset()
+    {
+    }
+
+    /**
+     * Called after the robot turned towards the selected target by the given number of degrees,
+     * before the next frame is selected from. Policies that remember targets across frames can
+     * use this to predict where those targets will appear.
+     */
+    public void onRotated(float degrees)
+    {
+        _decisions.clear();
+    }
+
+    /**
+     * Called at the end of every press of the shoot button, with the number of rotations and
+     * frame requests it took, the number of milliseconds from the button press to its end, and
+     * whether it ended in a shot. Presses that end without a shot found no target in range, or
+     * selected one that could not be shot.
+     */
+    public void onPress(int rotations, int roundTrips, long milliseconds, boolean shot)
+    {
+    }
+
+    /**
+     * Whether the target selected last may be shot at. If not, the robot should look at a new
+     * frame before turning or shooting.
+     */
+    public boolean isSelectionConfirmed()
+    {
+        return true;
+    }
+
+    /** Returns the index of the target in the frame, or -1 if it is not part of it. */
+    public static int indexOf(ITargetContainer targetContainer, TargetBox target)
+    {
+        for (int i = 0; target != null && i < targetContainer.getTargetCount(); i++)
+        {
+            if (targetContainer.getTarget(i) == target)
+                return i;
+        }
+
+        return DecisionCache.NO_TARGET;
+    }
+}
@@ -1,21 +1,48 @@
 package com.sabr.targeting.policies;
 
+import com.sabr.movement.shooting.IShooter;
+
+import java.util.Random;
+
 public final class PolicyFactory
 {
+    /** File in flash memory holding the statistics of the adaptive policy. */
+    private static final String AdaptiveStatisticsFile = "adaptive.dat";
+
     public static Policy getPolicy(TargetingPolicyType type)
+    {
+        return getPolicy(type, null);
+    }
+
+    /** Returns a policy of the given type, choosing randomly using the given generator, or the robot's if null. */
+    public static Policy getPolicy(TargetingPolicyType type, Random random)
+    {
+        return getPolicy(type, random, null);
+    }
+
+    /**
+     * Returns a policy of the given type as above, judging the range of targets by the given shooter, or by the
+     * power model if null.
+     */
+    public static Policy getPolicy(TargetingPolicyType type, Random random, IShooter shooter)
     {
         switch (type)
         {
             case Random:
-                return new DoublePolicy(new RandomPolicy());
+                return new DoublePolicy(new RandomPolicy(random));
             case LeftFirst:
                 return new SideFirstPolicy(SideFirstPolicy.Side.Left);
             case RightFirst:
                 return new SideFirstPolicy(SideFirstPolicy.Side.Right);
             case BiggestCluster:
-                return new DoublePolicy(new BiggestClusterPolicy());
+                return new DoublePolicy(new BiggestClusterPolicy(BiggestClusterPolicy.DefaultClusters,
+                                                                 BiggestClusterPolicy.Mode.Exact, random));
 			case Nearest:
 				return new LeastRotationPolicy();
+            case Scoring:
+                return new ScoringPolicy(shooter);
+            case Adaptive:
+                return new AdaptivePolicy(AdaptiveStatisticsFile, random, shooter);
         }
 
         return null;
@@ -27,6 +54,8 @@ public final class PolicyFactory
         LeftFirst,
         RightFirst,
         BiggestCluster,
-		Nearest
+		Nearest,
+        Scoring,
+        Adaptive
     }
 }
@@ -4,14 +4,37 @@ import com.sabr.Robot;
 import com.sabr.targeting.ITargetContainer;
 import com.sabr.targeting.TargetBox;
 
+import java.util.Random;
+
 public class RandomPolicy extends Policy
 {
+    private final Random _random;
+
+    public RandomPolicy()
+    {
+        this(null);
+    }
+
+    /** Selects using the given random generator instead of the robot's, which allows running off the brick. */
+    public RandomPolicy(Random random)
+    {
+        this._random = random;
+    }
+
     @Override
-    public TargetBox selectTargetBox(ITargetContainer targetContainer)
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
     {
         if (targetContainer.getTargetCount() == 0)
             return null;
-    
-        return targetContainer.getTarget((byte) Robot.getInstance().Random.nextInt(targetContainer.getTargetCount()));
+
+        Random random = _random != null ? _random : Robot.getInstance().Random;
+        return targetContainer.getTarget(random.nextInt(targetContainer.getTargetCount()));
+    }
+
+    /* Each decision is drawn anew, and drawing is cheaper than fingerprinting the frame. */
+    @Override
+    protected boolean isMemoizable()
+    {
+        return false;
     }
 }
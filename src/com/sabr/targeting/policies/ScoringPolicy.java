@@ -0,0 +1,177 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.movement.shooting.IShooter;
+import com.sabr.movement.shooting.PowerModel;
+import com.sabr.targeting.DirectionCalculator;
+import com.sabr.targeting.DistanceCalculator;
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.utilities.ArrayUtil;
+
+/**
+ * Selects the target that is expected to be hit soonest, by scoring every target on
+ * several features at once instead of a single one. The features are computed once
+ * per frame, each scaled so that 0 is best and 1 is a typical worst case:
+ *
+ *  - rotation: the angle to turn, relative to the widest angle in view.
+ *  - range: how far the estimated distance is from the middle of the shooter's range,
+ *    relative to half the range. Targets out of range score above 1.
+ *  - density: the share of other targets that are not close by. Nearby targets make a
+ *    miss more likely to hit something anyway.
+ *  - size: how much smaller the target is than the biggest one. Bigger boxes give more
+ *    reliable directions and distances.
+ *  - confidence: how much less certain the detection is than a certain one. Marginal
+ *    detections are more likely to be false positives.
+ *
+ * The target with the lowest weighted sum of the features is selected.
+ */
+public class ScoringPolicy extends Policy implements TargetKey
+{
+    public static final float DefaultRotationWeight = 1.0f;
+    public static final float DefaultRangeWeight = 2.0f;
+    public static final float DefaultDensityWeight = 0.5f;
+    public static final float DefaultSizeWeight = 0.25f;
+    public static final float DefaultConfidenceWeight = 1.0f;
+
+    /* Targets whose middles are within this many pixels of each other are close by. */
+    private static final int DensityRadius = 60;
+
+    private final float _rotationWeight;
+    private final float _rangeWeight;
+    private final float _densityWeight;
+    private final float _sizeWeight;
+    private final float _confidenceWeight;
+
+    /* The shooter whose range targets are scored by, or null for the range of the power model. */
+    private final IShooter _shooter;
+
+    private final TargetSelector _selector =
+            new TargetSelector(this, TargetSelector.Order.Lowest, TargetSelector.TieBreak.First);
+
+    /* Score of every target in the current frame, reused between frames. */
+    private float[] _scores = new float[0];
+
+    /* Targets ordered by middle x-position and the number of close by targets of each, reused between frames. */
+    private int[] _order = new int[0];
+    private int[] _middles = new int[0];
+    private int[] _neighbours = new int[0];
+    private int[] _sortScratch = new int[ArrayUtil.getSortScratchLength(0)];
+
+    public ScoringPolicy()
+    {
+        this(null);
+    }
+
+    /** Scores the range of targets by the range of the given shooter at the current battery level. */
+    public ScoringPolicy(IShooter shooter)
+    {
+        this(DefaultRotationWeight, DefaultRangeWeight, DefaultDensityWeight, DefaultSizeWeight,
+             DefaultConfidenceWeight, shooter);
+    }
+
+    public ScoringPolicy(float rotationWeight, float rangeWeight, float densityWeight, float sizeWeight)
+    {
+        this(rotationWeight, rangeWeight, densityWeight, sizeWeight, DefaultConfidenceWeight);
+    }
+
+    public ScoringPolicy(float rotationWeight, float rangeWeight, float densityWeight, float sizeWeight,
+                         float confidenceWeight)
+    {
+        this(rotationWeight, rangeWeight, densityWeight, sizeWeight, confidenceWeight, null);
+    }
+
+    public ScoringPolicy(float rotationWeight, float rangeWeight, float densityWeight, float sizeWeight,
+                         float confidenceWeight, IShooter shooter)
+    {
+        this._rotationWeight = rotationWeight;
+        this._rangeWeight = rangeWeight;
+        this._densityWeight = densityWeight;
+        this._sizeWeight = sizeWeight;
+        this._confidenceWeight = confidenceWeight;
+        this._shooter = shooter;
+    }
+
+    @Override
+    protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
+    {
+        int targetCount = targetContainer.getTargetCount();
+        if (targetCount == 0)
+            return null;
+
+        score(targetContainer, targetCount);
+
+        return targetContainer.getTarget(_selector.selectIndex(targetContainer));
+    }
+
+    /** Returns the score the target at the given index got in the last frame. Lower is better. */
+    @Override
+    public float getKey(ITargetContainer targetContainer, int index)
+    {
+        return _scores[index];
+    }
+
+    private void score(ITargetContainer targetContainer, int targetCount)
+    {
+        if (_scores.length < targetCount)
+        {
+            _scores = new float[targetCount];
+            _order = new int[targetCount];
+            _middles = new int[targetCount];
+            _neighbours = new int[targetCount];
+            _sortScratch = new int[ArrayUtil.getSortScratchLength(targetCount)];
+        }
+
+        countNeighbours(targetContainer, targetCount);
+
+        float minDistance = _shooter != null ? _shooter.getMinDistance() : PowerModel.getMinDistance();
+        float maxDistance = _shooter != null ? _shooter.getMaxDistance() : PowerModel.getMaxDistance();
+        float sweetSpot = (minDistance + maxDistance) / 2;
+        float halfRange = (maxDistance - minDistance) / 2;
+
+        short maxHeight = 0;
+        for (int i = 0; i < targetCount; i++)
+            maxHeight = (short) Math.max(maxHeight, targetContainer.getHeight(i));
+
+        for (int i = 0; i < targetCount; i++)
+        {
+            float rotation = Math.abs(DirectionCalculator.calculateDirection(targetContainer, i))
+                             / DirectionCalculator.getMaxAngle();
+
+            float range = Math.abs(DistanceCalculator.calculateDistance(targetContainer, i) - sweetSpot) / halfRange;
+
+            float density = targetCount == 1 ? 0 : 1 - (float) _neighbours[i] / (targetCount - 1);
+
+            float size = 1 - (float) targetContainer.getHeight(i) / maxHeight;
+
+            float confidence = 1 - (float) targetContainer.getConfidence(i) / TargetBox.MAX_CONFIDENCE;
+
+            _scores[i] = _rotationWeight * rotation + _rangeWeight * range
+                         + _densityWeight * density + _sizeWeight * size + _confidenceWeight * confidence;
+        }
+    }
+
+    /* Counts the targets close by each target, sweeping a window over the targets in order of middle x-position. */
+    private void countNeighbours(ITargetContainer targetContainer, int targetCount)
+    {
+        for (int i = 0; i < targetCount; i++)
+        {
+            _order[i] = i;
+            _middles[i] = targetContainer.getMiddleX(i);
+        }
+
+        ArrayUtil.sortIndices(_order, targetCount, _middles, _sortScratch);
+
+        int low = 0;
+        int high = 0;
+        for (int i = 0; i < targetCount; i++)
+        {
+            int middle = _middles[_order[i]];
+            while (_middles[_order[low]] < middle - DensityRadius)
+                low++;
+            while (high < targetCount && _middles[_order[high]] <= middle + DensityRadius)
+                high++;
+
+            _neighbours[_order[i]] = high - low - 1;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+
+/**
+ * A policy selecting the target with the lowest or highest key.
+ */
+public class SelectionPolicy extends IncrementalPolicy
+{
+    private final TargetSelector _selector;
+
+    public SelectionPolicy(TargetKey key, TargetSelector.Order order, TargetSelector.TieBreak tieBreak)
+    {
+        this._selector = new TargetSelector(key, order, tieBreak);
+    }
+
+    @Override
+    public void beginFrame(ITargetContainer targetContainer)
+    {
+        this._selector.reset();
+    }
+
+    @Override
+    public void acceptTargets(ITargetContainer targetContainer, int fromIndex, int toIndex)
+    {
+        this._selector.accept(targetContainer, fromIndex, toIndex);
+    }
+
+    @Override
+    public TargetBox getSelectedTarget(ITargetContainer targetContainer)
+    {
+        int index = this._selector.getSelectedIndex();
+        return index < 0 ? null : targetContainer.getTarget(index);
+    }
+
+    /* A single scan is no more expensive than fingerprinting the frame. */
+    @Override
+    protected boolean isMemoizable()
+    {
+        return false;
+    }
+}
@@ -1,34 +1,15 @@
 package com.sabr.targeting.policies;
 
-import com.sabr.targeting.ITargetContainer;
-import com.sabr.targeting.TargetBox;
-import com.sabr.utilities.ArrayUtil;
-
-public class SideFirstPolicy extends Policy
+/**
+ * Selects the left or rightmost target. Ties go to the first leftmost or the last rightmost target.
+ */
+public class SideFirstPolicy extends SelectionPolicy
 {
-    private final Side _side;
-
     public SideFirstPolicy(Side side)
     {
-        this._side = side;
-    }
-
-    @Override
-    public TargetBox selectTargetBox(ITargetContainer targetContainer)
-    {
-        if (targetContainer.getTargetCount() == 0)
-            return null;
-        else if (targetContainer.getTargetCount() == 1)
-            return targetContainer.getTarget((byte) 0);
-
-        /* This policy selects the left or rightmost target. */
-        TargetBox[] clonedArray = targetContainer.cloneTargets();
-        ArrayUtil.sort(clonedArray, new AbsolutePositionComparator());
-
-        if (this._side == Side.Left)
-            return clonedArray[0];
-        else
-            return clonedArray[clonedArray.length - 1];
+        super(TargetKeys.MiddleX,
+              side == Side.Left ? TargetSelector.Order.Lowest : TargetSelector.Order.Highest,
+              side == Side.Left ? TargetSelector.TieBreak.First : TargetSelector.TieBreak.Last);
     }
 
     public enum Side
@@ -36,4 +17,4 @@ public class SideFirstPolicy extends Policy
         Left,
         Right
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.targeting.ITargetContainer;
+
+/**
+ * A primitive key of a target, used by a TargetSelector to rank targets.
+ * Keys are read straight from the container, so no targets are cloned or boxed.
+ */
+public interface TargetKey
+{
+    float getKey(ITargetContainer targetContainer, int index);
+}
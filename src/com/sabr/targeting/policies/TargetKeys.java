@@ -0,0 +1,33 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.targeting.ITargetContainer;
+
+/**
+ * The keys used by the built-in policies.
+ */
+public final class TargetKeys
+{
+    /** The middle x-position of the target. */
+    public static final TargetKey MiddleX = new TargetKey()
+    {
+        @Override
+        public float getKey(ITargetContainer targetContainer, int index)
+        {
+            return targetContainer.getMiddleX(index);
+        }
+    };
+
+    /** The horizontal distance between the middle of the target and the middle of the frame. */
+    public static final TargetKey DistanceFromMiddle = new TargetKey()
+    {
+        @Override
+        public float getKey(ITargetContainer targetContainer, int index)
+        {
+            return Math.abs(targetContainer.getMiddleX(index) - targetContainer.getFrameWidth() / 2);
+        }
+    };
+
+    private TargetKeys()
+    {
+    }
+}
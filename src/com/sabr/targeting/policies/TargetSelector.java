@@ -0,0 +1,123 @@
+package com.sabr.targeting.policies;
+
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.utilities.ArrayUtil;
+
+/**
+ * Selects the target with the lowest or highest key in a single linear scan.
+ * Targets can be accepted one range at a time, so a selector can evaluate a
+ * frame while it is still being received. Nothing is allocated per frame.
+ */
+public class TargetSelector
+{
+    private final TargetKey _key;
+    private final Order _order;
+    private final TieBreak _tieBreak;
+
+    private int _selectedIndex = -1;
+    private float _selectedKey;
+
+    /* Keys and indices of the targets ranked by selectTop, reused between frames. */
+    private float[] _topKeys = new float[0];
+    private int[] _topOrder = new int[0];
+
+    public TargetSelector(TargetKey key, Order order, TieBreak tieBreak)
+    {
+        this._key = key;
+        this._order = order;
+        this._tieBreak = tieBreak;
+    }
+
+    /** Discards the current selection. */
+    public void reset()
+    {
+        this._selectedIndex = -1;
+    }
+
+    /** Evaluates the targets from fromIndex (inclusive) to toIndex (exclusive). */
+    public void accept(ITargetContainer targetContainer, int fromIndex, int toIndex)
+    {
+        for (int i = fromIndex; i < toIndex; i++)
+        {
+            float key = this._key.getKey(targetContainer, i);
+
+            if (this._selectedIndex < 0 || isBetter(key, this._selectedKey))
+            {
+                this._selectedIndex = i;
+                this._selectedKey = key;
+            }
+        }
+    }
+
+    /** Returns the index of the selected target among those accepted since the last reset, or -1 if there are none. */
+    public int getSelectedIndex()
+    {
+        return this._selectedIndex;
+    }
+
+    /** Returns the index of the best target in the container, or -1 if it is empty. */
+    public int selectIndex(ITargetContainer targetContainer)
+    {
+        reset();
+        accept(targetContainer, 0, targetContainer.getTargetCount());
+
+        return this._selectedIndex;
+    }
+
+    /**
+     * Selects the best targets in the container, as many as fit in topIndices. The indices are
+     * stored best first, ties being ranked as in a single selection. Returns the number of
+     * indices stored, which is less than the length of topIndices if there are fewer targets.
+     */
+    public int selectTop(ITargetContainer targetContainer, int[] topIndices)
+    {
+        int targetCount = targetContainer.getTargetCount();
+        if (this._topKeys.length < targetCount)
+        {
+            this._topKeys = new float[targetCount];
+            this._topOrder = new int[targetCount];
+        }
+
+        /* Rank by lowest key, ties by lowest position. Positions count from the end when the last of the tied
+           targets is selected, so that the tied targets are ranked in the same order as selections. */
+        for (int i = 0; i < targetCount; i++)
+        {
+            int position = this._tieBreak == TieBreak.Last ? targetCount - 1 - i : i;
+            float key = this._key.getKey(targetContainer, i);
+
+            this._topKeys[position] = this._order == Order.Lowest ? key : -key;
+            this._topOrder[position] = position;
+        }
+
+        int count = ArrayUtil.selectTopIndices(this._topOrder, targetCount, topIndices.length, this._topKeys);
+        for (int i = 0; i < count; i++)
+        {
+            int position = this._topOrder[i];
+            topIndices[i] = this._tieBreak == TieBreak.Last ? targetCount - 1 - position : position;
+        }
+
+        return count;
+    }
+
+    /* Whether a target with the given key replaces a target seen before it with the other key. */
+    private boolean isBetter(float key, float otherKey)
+    {
+        if (key == otherKey)
+            return this._tieBreak == TieBreak.Last;
+
+        return this._order == Order.Lowest ? key < otherKey : key > otherKey;
+    }
+
+    public enum Order
+    {
+        Lowest,
+        Highest
+    }
+
+    /** Which of the targets sharing the best key is selected, in container order. */
+    public enum TieBreak
+    {
+        First,
+        Last
+    }
+}
@@ -6,6 +6,10 @@ public class ArrayUtil
 {
     private static final int INSERTIONSORT_THRESHOLD = 7;
 
+    /* Radix sorts take one pass per byte of the key. */
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
     public static <T> void sort(T[] array, Comparator<T> comparator)
     {
         T[] arrayCopy = (T[]) clone(array);
@@ -67,4 +71,160 @@ public class ArrayUtil
                 dest[i] = src[q++];
         }
     }
-}
\ No newline at end of file
+
+    /** Returns the length of the scratch array needed to sort the given number of indices by key. */
+    public static int getSortScratchLength(int count)
+    {
+        return count + RADIX;
+    }
+
+    /**
+     * Sorts the first count indices by the keys they index, in increasing order. The sort is a
+     * stable radix sort, taking linear time. The scratch array must be at least
+     * getSortScratchLength(count) long, so the sort does not allocate.
+     */
+    public static void sortIndices(int[] indices, int count, short[] keys, int[] scratch)
+    {
+        radixSort(indices, count, keys, null, Short.SIZE, scratch);
+    }
+
+    /** Sorts the first count indices by the keys they index as above. */
+    public static void sortIndices(int[] indices, int count, int[] keys, int[] scratch)
+    {
+        radixSort(indices, count, null, keys, Integer.SIZE, scratch);
+    }
+
+    /**
+     * Reorders the first count indices so that the index at position k has the k-th lowest key,
+     * the ones before it have no higher keys and the ones after it no lower keys. Indices with
+     * the same key are ranked by increasing index. Takes linear time on average and works in place.
+     */
+    public static void selectIndex(int[] indices, int count, int k, float[] keys)
+    {
+        int low = 0;
+        int high = count - 1;
+        while (low < high)
+        {
+            /* Use the median of the first, middle and last keys as pivot, which also stops the scans below. */
+            int middle = (low + high) >>> 1;
+            if (isLower(indices[middle], indices[low], keys))
+                swap(indices, low, middle);
+            if (isLower(indices[high], indices[low], keys))
+                swap(indices, low, high);
+            if (isLower(indices[high], indices[middle], keys))
+                swap(indices, middle, high);
+
+            int pivot = indices[middle];
+
+            int i = low;
+            int j = high;
+            while (i <= j)
+            {
+                while (isLower(indices[i], pivot, keys))
+                    i++;
+                while (isLower(pivot, indices[j], keys))
+                    j--;
+
+                if (i <= j)
+                    swap(indices, i++, j--);
+            }
+
+            /* Continue in the part containing position k, or stop if it lies between the parts. */
+            if (k <= j)
+                high = j;
+            else if (k >= i)
+                low = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * Moves the indices with the k lowest keys to the front of the first count indices, ordered
+     * by increasing key and then by increasing index. Returns the number of indices moved, which
+     * is less than k if there are fewer indices.
+     */
+    public static int selectTopIndices(int[] indices, int count, int k, float[] keys)
+    {
+        if (k >= count)
+            k = count;
+        else if (k > 0)
+            selectIndex(indices, count, k - 1, keys);
+
+        /* Insertion sort of the selected indices. */
+        for (int i = 1; i < k; i++)
+        {
+            int index = indices[i];
+            int position = i;
+            while (position > 0 && isLower(index, indices[position - 1], keys))
+            {
+                indices[position] = indices[position - 1];
+                position--;
+            }
+
+            indices[position] = index;
+        }
+
+        return k;
+    }
+
+    /* Whether index a ranks before index b, by key and then by index. */
+    private static boolean isLower(int a, int b, float[] keys)
+    {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private static void radixSort(int[] indices, int count, short[] shortKeys, int[] intKeys, int keyBits,
+                                  int[] scratch)
+    {
+        int[] source = indices;
+        int[] destination = scratch;
+        int countsStart = count;
+
+        for (int shift = 0; shift < keyBits; shift += RADIX_BITS)
+        {
+            for (int digit = 0; digit < RADIX; digit++)
+                scratch[countsStart + digit] = 0;
+
+            for (int i = 0; i < count; i++)
+                scratch[countsStart + digit(source[i], shortKeys, intKeys, shift)]++;
+
+            /* Skip the pass if all keys have the same digit, which is common for small keys. */
+            if (count == 0 || scratch[countsStart + digit(source[0], shortKeys, intKeys, shift)] == count)
+                continue;
+
+            /* Turn the counts into the position of the first index with each digit. */
+            int position = 0;
+            for (int digit = 0; digit < RADIX; digit++)
+            {
+                int digitCount = scratch[countsStart + digit];
+                scratch[countsStart + digit] = position;
+                position += digitCount;
+            }
+
+            for (int i = 0; i < count; i++)
+                destination[scratch[countsStart + digit(source[i], shortKeys, intKeys, shift)]++] = source[i];
+
+            int[] sorted = destination;
+            destination = source;
+            source = sorted;
+        }
+
+        if (source != indices)
+            System.arraycopy(source, 0, indices, 0, count);
+    }
+
+    /* Returns a digit of the key, with the sign bit flipped so negative keys sort first. */
+    private static int digit(int index, short[] shortKeys, int[] intKeys, int shift)
+    {
+        int key = shortKeys != null ? (shortKeys[index] ^ Short.MIN_VALUE) & 0xFFFF : intKeys[index] ^ Integer.MIN_VALUE;
+        return (key >>> shift) & (RADIX - 1);
+    }
+
+    private static void swap(int[] x, int a, int b)
+    {
+        int temp = x[a];
+        x[a] = x[b];
+        x[b] = temp;
+    }
+}
@@ -0,0 +1,10 @@
+package com.sabr.utilities;
+
+/**
+ * A source of the current time, so that time can be simulated.
+ */
+public interface Clock
+{
+    /** Returns the current time in milliseconds. */
+    long currentTimeMillis();
+}
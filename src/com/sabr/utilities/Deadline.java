@@ -0,0 +1,32 @@
+package com.sabr.utilities;
+
+/**
+ * A time by which a computation should be done. Computations that improve their result step
+ * by step check it between steps, and return the best result so far once it has passed.
+ */
+public final class Deadline
+{
+    /** A deadline that never passes. */
+    public static final Deadline NONE = new Deadline(null, Long.MAX_VALUE);
+
+    private final Clock _clock;
+    private final long _time;
+
+    /** Creates a deadline at the given time of the clock, in milliseconds. */
+    public Deadline(Clock clock, long time)
+    {
+        this._clock = clock;
+        this._time = time;
+    }
+
+    /** Returns a deadline the given number of milliseconds from now. */
+    public static Deadline after(Clock clock, long milliseconds)
+    {
+        return new Deadline(clock, clock.currentTimeMillis() + milliseconds);
+    }
+
+    public boolean hasPassed()
+    {
+        return _clock != null && _clock.currentTimeMillis() >= _time;
+    }
+}
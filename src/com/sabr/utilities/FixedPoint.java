@@ -0,0 +1,69 @@
+package com.sabr.utilities;
+
+/**
+ * Q16.16 fixed-point arithmetic. A value is stored in an int as the real value
+ * times 65536, so it has 16 bits for the whole part and 16 bits for the fraction.
+ *
+ * The NXT has no floating-point unit, so every float operation is emulated in
+ * software. Additions and comparisons of fixed-point values are plain int
+ * operations, and multiplications and divisions take a single long operation.
+ */
+public final class FixedPoint
+{
+    /**
+     * Whether targeting and shooting compute in fixed point instead of float.
+     * As this is a compile-time constant, the unused path is left out of the build.
+     */
+    public static final boolean ENABLED = false;
+
+    public static final int FRACTION_BITS = 16;
+
+    public static final int ONE = 1 << FRACTION_BITS;
+    public static final int HALF = ONE >> 1;
+
+    private FixedPoint()
+    {
+    }
+
+    public static int fromInt(int value)
+    {
+        return value << FRACTION_BITS;
+    }
+
+    public static int fromFloat(float value)
+    {
+        return Math.round(value * ONE);
+    }
+
+    public static float toFloat(int value)
+    {
+        return (float) value / ONE;
+    }
+
+    /** Returns the whole part, rounding towards negative infinity. */
+    public static int toInt(int value)
+    {
+        return value >> FRACTION_BITS;
+    }
+
+    /** Returns the nearest whole number, rounding halves up. */
+    public static int round(int value)
+    {
+        return (value + HALF) >> FRACTION_BITS;
+    }
+
+    public static int multiply(int first, int second)
+    {
+        return (int) (((long) first * second) >> FRACTION_BITS);
+    }
+
+    public static int divide(int dividend, int divisor)
+    {
+        return (int) (((long) dividend << FRACTION_BITS) / divisor);
+    }
+
+    public static int abs(int value)
+    {
+        return value < 0 ? -value : value;
+    }
+}
@@ -0,0 +1,13 @@
+package com.sabr.utilities;
+
+/**
+ * The clock of the system the code runs on.
+ */
+public class SystemClock implements Clock
+{
+    @Override
+    public long currentTimeMillis()
+    {
+        return System.currentTimeMillis();
+    }
+}
@@ -3,10 +3,22 @@ package com.test;
 import com.sabr.exceptions.AssertException;
 import com.sabr.targeting.TargetBox;
 import com.sabr.targeting.TargetContainer;
+import com.test.movement.shooting.PowerCalibrationTest;
 import com.test.movement.shooting.ShooterTest;
+import com.test.targeting.CameraModelTest;
 import com.test.targeting.DirectionCalculatorTest;
 import com.test.targeting.DistanceCalculatorTest;
+import com.test.targeting.DistanceEstimatorTest;
+import com.test.targeting.FrameFingerprintTest;
+import com.test.targeting.PrimitiveTargetContainerTest;
+import com.test.targeting.SalvoPlannerTest;
+import com.test.targeting.TargetContainerTest;
+import com.test.targeting.TargetMapTest;
+import com.test.targeting.TargetTrackerTest;
+import com.test.targeting.gating.GatingPipelineTest;
 import com.test.targeting.policy.*;
+import com.test.utilities.ArrayUtilTest;
+import com.test.utilities.FixedPointTest;
 import lejos.nxt.*;
 
 /**
@@ -22,11 +34,27 @@ public class NXTTest
         {
                 new DirectionCalculatorTest(),
                 new DistanceCalculatorTest(),
+                new DistanceEstimatorTest(),
+                new CameraModelTest(),
+                new FixedPointTest(),
+                new ArrayUtilTest(),
+                new TargetContainerTest(),
+                new PrimitiveTargetContainerTest(),
+                new TargetTrackerTest(),
+                new TargetMapTest(),
+                new FrameFingerprintTest(),
+                new GatingPipelineTest(),
+                new SalvoPlannerTest(),
                 new ShooterTest(),
+                new PowerCalibrationTest(),
                 new SidePolicyTest(),
                 new BiggestClusterPolicyTest(),
                 new LeastRotationPolicyTest(),
+                new TargetSelectorTest(),
+                new ScoringPolicyTest(),
+                new ConfirmingPolicyTest(),
                 new RandomPolicyTest(),
+                new AdaptivePolicyTest(),
                 new PolicyFactoryTest()
         };
 
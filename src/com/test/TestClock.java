@@ -0,0 +1,32 @@
+package com.test;
+
+import com.sabr.utilities.Clock;
+
+/**
+ * A clock for tests that starts at a given time and moves on by a fixed step every time it
+ * is read, or stands still if the step is 0.
+ */
+public class TestClock implements Clock
+{
+    private long _time;
+    private final long _step;
+
+    public TestClock(long time)
+    {
+        this(time, 0);
+    }
+
+    public TestClock(long time, long step)
+    {
+        this._time = time;
+        this._step = step;
+    }
+
+    @Override
+    public long currentTimeMillis()
+    {
+        long time = _time;
+        _time += _step;
+        return time;
+    }
+}
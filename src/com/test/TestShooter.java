@@ -0,0 +1,47 @@
+package com.test;
+
+import com.sabr.exceptions.OutOfRangeException;
+import com.sabr.movement.shooting.IShooter;
+import com.sabr.movement.shooting.PowerModel;
+
+/**
+ * A shooter for tests that reaches a given range, or the range of the power model, without
+ * moving any motors.
+ */
+public class TestShooter implements IShooter
+{
+    private final float _minDistance;
+    private final float _maxDistance;
+
+    public TestShooter()
+    {
+        this(PowerModel.getMinDistance(), PowerModel.getMaxDistance());
+    }
+
+    public TestShooter(float minDistance, float maxDistance)
+    {
+        this._minDistance = minDistance;
+        this._maxDistance = maxDistance;
+    }
+
+    @Override
+    public void shootDistance(float distance) throws OutOfRangeException
+    {
+        if (distance > _maxDistance)
+            throw new OutOfRangeException("Target too far.");
+        else if (distance < _minDistance)
+            throw new OutOfRangeException("Target too close.");
+    }
+
+    @Override
+    public float getMinDistance()
+    {
+        return _minDistance;
+    }
+
+    @Override
+    public float getMaxDistance()
+    {
+        return _maxDistance;
+    }
+}
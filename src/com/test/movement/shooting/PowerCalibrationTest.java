@@ -0,0 +1,93 @@
+package com.test.movement.shooting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.movement.shooting.PowerCalibration;
+import com.test.NXTAssert;
+import com.test.TestShooter;
+import com.test.Test;
+
+public class PowerCalibrationTest extends Test
+{
+    private PowerCalibration calibration;
+
+    private void setUp()
+    {
+        calibration = new PowerCalibration(new TestShooter());
+    }
+
+    /* Shoots at distances across the range, with throws landing the given number of centimeters long. */
+    private void shoot(float drift, int shots)
+    {
+        for (int i = 0; i < shots; i++)
+        {
+            float distance = 105.0f + (i * 7) % 40;
+            float commanded = calibration.getCommandedDistance(distance);
+            calibration.addResult(distance, commanded, Math.abs(commanded + drift - distance) <= 4.0f);
+        }
+    }
+
+    private void noDriftTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Without results, the distance shot is the distance to the target. */
+        test.assertThat(Math.abs(calibration.getCommandedDistance(120.0f) - 120.0f) < 0.01f, "PowerCalibration:noDrift")
+                .isTrue();
+
+        /* Hits keep the correction where it is. */
+        shoot(0.0f, 20);
+        test.assertThat(Math.abs(calibration.getOffset()) < 0.01f, "PowerCalibration:noDrift")
+                .isTrue();
+        test.assertThat(calibration.getResultCount(), "PowerCalibration:noDrift")
+                .isEqualTo(20);
+    }
+
+    private void driftTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Throws landing 9 cm long miss, until the correction has learned to shoot short. */
+        calibration.reset();
+        shoot(9.0f, 40);
+        test.assertThat(Math.abs(calibration.getOffset() - 9.0f) <= 3.0f, "PowerCalibration:drift")
+                .isTrue();
+        test.assertThat(calibration.getCommandedDistance(120.0f) < 115.0f, "PowerCalibration:drift")
+                .isTrue();
+    }
+
+    private void boundedStepTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* A single miss moves the correction by a small step at most. */
+        calibration.reset();
+        calibration.addResult(120.0f, 120.0f, false);
+        test.assertThat(Math.abs(calibration.getOffset()) <= 3.0f, "PowerCalibration:boundedStep")
+                .isTrue();
+        test.assertThat(Math.abs(calibration.getSlope()) <= 0.01f, "PowerCalibration:boundedStep")
+                .isTrue();
+    }
+
+    private void shooterRangeTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Targets within reach of a shooter with flat batteries are still shot within its reach. */
+        calibration = new PowerCalibration(new TestShooter(90.0f, 140.0f));
+        shoot(-9.0f, 40);
+        test.assertThat(calibration.getCommandedDistance(138.0f) <= 140.0f, "PowerCalibration:shooterRange")
+                .isTrue();
+        test.assertThat(calibration.getCommandedDistance(100.0f) > 100.0f, "PowerCalibration:shooterRange")
+                .isTrue();
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        noDriftTest();
+        driftTest();
+        boundedStepTest();
+        shooterRangeTest();
+    }
+}
@@ -0,0 +1,83 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.CameraModel;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class CameraModelTest extends Test
+{
+    private CameraModel camera;
+
+    private void setUp()
+    {
+        camera = new CameraModel(33.0f, new float[] {50.0f, 100.0f, 200.0f}, new float[] {300.0f, 160.0f, 75.0f});
+    }
+
+    private void directionTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* The middle of the frame is straight ahead, and its edges are at half the field of view. */
+        test.assertThat(Math.abs(camera.getDirection((short) 640, 320)) < 0.01f, "CameraModel:direction")
+                .isTrue();
+        test.assertThat(Math.abs(camera.getDirection((short) 640, 0) - 33.0f) < 0.01f, "CameraModel:direction")
+                .isTrue();
+        test.assertThat(Math.abs(camera.getDirection((short) 640, 640) + 33.0f) < 0.01f, "CameraModel:direction")
+                .isTrue();
+
+        /* Between samples of the table the angle is interpolated, close to the exact projection. */
+        float focalLength = 320 / (float) Math.tan(Math.toRadians(33.0));
+        float exact = (float) Math.toDegrees(Math.atan(157 / focalLength));
+        test.assertThat(Math.abs(camera.getDirection((short) 640, 163) - exact) < 0.05f, "CameraModel:direction")
+                .isTrue();
+
+        /* Projecting an angle back gives the offset it came from. */
+        test.assertThat(Math.abs(camera.getOffset((short) 640, camera.getDirection((short) 640, 100)) - 220) < 1,
+                        "CameraModel:direction")
+                .isTrue();
+    }
+
+    private void frameWidthTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Alternating between frame widths rebuilds the angle table for each, without mixing them up. */
+        float wide = camera.getDirection((short) 1600, 0);
+        float narrow = camera.getDirection((short) 640, 0);
+        test.assertThat(Math.abs(wide - 33.0f) < 0.01f && Math.abs(narrow - 33.0f) < 0.01f, "CameraModel:frameWidth")
+                .isTrue();
+        float focalLength = 800 / (float) Math.tan(Math.toRadians(33.0));
+        float exact = (float) Math.toDegrees(Math.atan(320 / focalLength));
+        test.assertThat(Math.abs(camera.getDirection((short) 1600, 480) - exact) < 0.05f, "CameraModel:frameWidth")
+                .isTrue();
+        test.assertThat(Math.abs(camera.getOffset((short) 1600, 33.0f) - 800) < 1, "CameraModel:frameWidth")
+                .isTrue();
+    }
+
+    private void distanceTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Calibration points are reproduced exactly, and heights between them fall between their distances. */
+        test.assertThat(Math.abs(camera.getDistance(100) - 160.0f) < 0.01f, "CameraModel:distance")
+                .isTrue();
+        test.assertThat(camera.getDistance(150) < 160.0f && camera.getDistance(150) > 75.0f, "CameraModel:distance")
+                .isTrue();
+
+        /* Beyond the calibration points the last segment, or the inverse of the height, is followed. */
+        test.assertThat(Math.abs(camera.getDistance(25) - 600.0f) < 0.01f, "CameraModel:distance")
+                .isTrue();
+        test.assertThat(camera.getDistance(1000) < 75.0f, "CameraModel:distance")
+                .isTrue();
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        directionTest();
+        frameWidthTest();
+        distanceTest();
+    }
+}
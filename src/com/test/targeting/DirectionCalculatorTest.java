@@ -31,10 +31,28 @@ public class DirectionCalculatorTest extends Test
                 .isEqualToFloat(DirectionCalculator.calculateDirection(testContainer, testContainer.getTarget((byte)0)));
     }
 
+    private void calculateToleranceTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Near cups span a larger angle, so they may be further from straight ahead. */
+        float near = DirectionCalculator.calculateTolerance(105.0f);
+        float far = DirectionCalculator.calculateTolerance(145.0f);
+        test.assertThat(near > far, "CalculateTolerance")
+                .isTrue();
+        test.assertThat(Math.abs(far - 0.71f) < 0.02f, "CalculateTolerance")
+                .isTrue();
+
+        /* Without a distance, the tolerance is the smallest. */
+        test.assertThat(DirectionCalculator.calculateTolerance(Float.NaN) <= far, "CalculateTolerance")
+                .isTrue();
+    }
+
     public void runAllTests() throws AssertException
     {
         setUp();
         calculateDirectionTest();
+        calculateToleranceTest();
     }
 }
 
@@ -0,0 +1,81 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.DistanceEstimator;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class DistanceEstimatorTest extends Test
+{
+    private DistanceEstimator estimator;
+
+    private void setUp()
+    {
+        estimator = new DistanceEstimator(5);
+    }
+
+    private void settleTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* A single sample is never settled, as its spread is unknown. */
+        estimator.add(120.0f);
+        test.assertThat(estimator.isSettled(), "DistanceEstimator:settle")
+                .isFalse();
+
+        /* Two samples that agree are settled, and their mean is the estimate. */
+        estimator.add(122.0f);
+        test.assertThat(estimator.isSettled(), "DistanceEstimator:settle")
+                .isTrue();
+        test.assertThat(Math.abs(estimator.getEstimate() - 121.0f) < 0.01f, "DistanceEstimator:settle")
+                .isTrue();
+
+        /* Two samples that disagree are not. */
+        estimator.reset();
+        estimator.add(110.0f);
+        estimator.add(130.0f);
+        test.assertThat(estimator.isSettled(), "DistanceEstimator:spread")
+                .isFalse();
+    }
+
+    private void outlierTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* A single bad box moves neither the estimate nor the spread much. */
+        estimator.reset();
+        estimator.add(121.0f);
+        estimator.add(160.0f);
+        estimator.add(119.0f);
+        estimator.add(120.0f);
+        test.assertThat(Math.abs(estimator.getEstimate() - 120.5f) < 0.01f, "DistanceEstimator:outlier")
+                .isTrue();
+        test.assertThat(estimator.isSettled(), "DistanceEstimator:outlier")
+                .isTrue();
+    }
+
+    private void capacityTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* When full, the sample furthest from the median makes room. */
+        estimator.reset();
+        estimator.add(200.0f);
+        for (int i = 0; i < 5; i++)
+            estimator.add(100.0f + i);
+
+        test.assertThat(estimator.getCount(), "DistanceEstimator:capacity")
+                .isEqualTo(5);
+        test.assertThat(Math.abs(estimator.getMedian() - 102.0f) < 0.01f, "DistanceEstimator:capacity")
+                .isTrue();
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        settleTest();
+        outlierTest();
+        capacityTest();
+    }
+}
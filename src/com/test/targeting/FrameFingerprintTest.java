@@ -0,0 +1,106 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.FrameFingerprint;
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.policies.Policy;
+import com.sabr.utilities.Deadline;
+import com.test.NXTAssert;
+import com.test.TestClock;
+import com.test.Test;
+
+public class FrameFingerprintTest extends Test
+{
+    /* Selects the first target, counting how often it evaluates a frame. */
+    private static class CountingPolicy extends Policy
+    {
+        private int evaluations = 0;
+
+        @Override
+        protected TargetBox evaluateTargetBox(ITargetContainer targetContainer)
+        {
+            evaluations++;
+            return targetContainer.getTargetCount() == 0 ? null : targetContainer.getTarget(0);
+        }
+    }
+
+    private TargetContainer createFrame(short[] xPositions, short frameWidth)
+    {
+        TargetContainer frame = new TargetContainer(xPositions.length);
+        for (int i = 0; i < xPositions.length; i++)
+            frame.setTarget(i, new TargetBox((short) 60, (short) 40, xPositions[i]));
+
+        frame.setFrameWidth(frameWidth);
+        return frame;
+    }
+
+    private void fingerprintTest() throws AssertException
+    {
+        long fingerprint = FrameFingerprint.of(createFrame(new short[] {100, 300}, (short) 660));
+
+        NXTAssert test = new NXTAssert();
+
+        /* Jitter within the quantization step gives the same fingerprint. */
+        test.assertThat(FrameFingerprint.of(createFrame(new short[] {101, 302}, (short) 660)) == fingerprint,
+                        "FrameFingerprint:jitter")
+                .isTrue();
+        test.assertThat(FrameFingerprint.of(createFrame(new short[] {140, 300}, (short) 660)) == fingerprint,
+                        "FrameFingerprint:moved")
+                .isFalse();
+        test.assertThat(FrameFingerprint.of(createFrame(new short[] {300, 100}, (short) 660)) == fingerprint,
+                        "FrameFingerprint:order")
+                .isFalse();
+        test.assertThat(FrameFingerprint.of(createFrame(new short[] {100, 300}, (short) 640)) == fingerprint,
+                        "FrameFingerprint:frameWidth")
+                .isFalse();
+    }
+
+    private void memoizationTest() throws AssertException
+    {
+        CountingPolicy policy = new CountingPolicy();
+        TargetContainer frame = createFrame(new short[] {100, 300}, (short) 660);
+        TargetContainer repeatedFrame = createFrame(new short[] {101, 300}, (short) 660);
+
+        policy.selectTargetBox(frame);
+        TargetBox repeatedTarget = policy.selectTargetBox(repeatedFrame);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(policy.evaluations, "FrameFingerprint:memoized")
+                .isEqualTo(1);
+
+        /* The remembered decision selects the target at the same index in the repeated frame. */
+        test.assertThat(repeatedTarget, "FrameFingerprint:memoized")
+                .isEqualTo(repeatedFrame.getTarget(0));
+
+        /* Rotating forgets the decisions. */
+        policy.onRotated(5.0f);
+        policy.selectTargetBox(frame);
+        test.assertThat(policy.evaluations, "FrameFingerprint:rotated")
+                .isEqualTo(2);
+    }
+
+    private void deadlineTest() throws AssertException
+    {
+        CountingPolicy policy = new CountingPolicy();
+        TargetContainer frame = createFrame(new short[] {100, 300}, (short) 660);
+        Deadline passed = new Deadline(new TestClock(1), 0);
+
+        /* A selection made after the deadline passed may have been cut short, so it is not remembered. */
+        policy.selectTargetBox(frame, passed);
+        policy.selectTargetBox(frame);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(policy.evaluations, "FrameFingerprint:deadline")
+                .isEqualTo(2);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        fingerprintTest();
+        memoizationTest();
+        deadlineTest();
+    }
+}
@@ -0,0 +1,133 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.PrimitiveTargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.TargetDelta;
+import com.sabr.targeting.TargetSelection;
+import com.sabr.targeting.policies.LeastRotationPolicy;
+import com.sabr.targeting.policies.SideFirstPolicy;
+import com.test.NXTAssert;
+import com.test.NXTTest;
+import com.test.Test;
+
+public class PrimitiveTargetContainerTest extends Test
+{
+    private TargetContainer referenceContainer;
+    private PrimitiveTargetContainer testContainer;
+
+    private void setUp()
+    {
+        referenceContainer = NXTTest.getTestTargetBox();
+
+        /* Same targets as the reference container, but stored in arrays. */
+        testContainer = PrimitiveTargetContainer.withCapacity(2);
+        for (int i = 0; i < referenceContainer.getTargetCount(); i++)
+            testContainer.addTarget(referenceContainer.getTarget(i));
+
+        testContainer.setFrameWidth(referenceContainer.getFrameWidth());
+        testContainer.setFrameId((short) 4);
+    }
+
+    private void accessorTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+        test.assertThat(testContainer.getTargetCount(), "PrimitiveTargetContainer:accessor")
+                .isEqualTo(5);
+        test.assertThat(testContainer.getXPosition(0), "PrimitiveTargetContainer:accessor")
+                .isEqualTo((short) 278);
+        test.assertThat(testContainer.getWidth(0), "PrimitiveTargetContainer:accessor")
+                .isEqualTo((short) 44);
+        test.assertThat(testContainer.getHeight(0), "PrimitiveTargetContainer:accessor")
+                .isEqualTo((short) 60);
+        test.assertThat(testContainer.getMiddleX(0), "PrimitiveTargetContainer:accessor")
+                .isEqualTo(300);
+    }
+
+    private void viewTest() throws AssertException
+    {
+        /* Views are reused and reflect later changes to their slot. */
+        TargetBox view = testContainer.getTarget(1);
+        testContainer.setTarget(1, new TargetBox((short) 12, (short) 34, (short) 56));
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(testContainer.getTarget(1), "PrimitiveTargetContainer:view")
+                .isEqualTo(view);
+        test.assertThat(view.getXPosition(), "PrimitiveTargetContainer:view")
+                .isEqualTo((short) 56);
+
+        /* Confidences are stored as unsigned bytes, and boxes without one are certain. */
+        testContainer.setTarget(1, new TargetBox((short) 12, (short) 34, (short) 56, (short) 200));
+        test.assertThat(view.getConfidence(), "PrimitiveTargetContainer:view")
+                .isEqualTo((short) 200);
+        test.assertThat(testContainer.getConfidence(0), "PrimitiveTargetContainer:view")
+                .isEqualTo(TargetBox.MAX_CONFIDENCE);
+        test.assertThat(testContainer.cloneTargets()[1], "PrimitiveTargetContainer:view")
+                .isEqualTo(view);
+    }
+
+    private void selectionTest() throws AssertException
+    {
+        /* A selection keeps the height and distance of its target when the view is reused for another frame. */
+        TargetSelection selection = new TargetSelection(testContainer, testContainer.getTarget(0));
+        float distance = selection.getDistance();
+        testContainer.setTarget(0, new TargetBox((short) 12, (short) 34, (short) 56));
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(selection.getHeight(), "PrimitiveTargetContainer:selection")
+                .isEqualTo((short) 60);
+        test.assertThat(selection.getDistance(), "PrimitiveTargetContainer:selection")
+                .isEqualTo(distance);
+    }
+
+    private void policyParityTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+        test.assertThat(new LeastRotationPolicy().selectTargetBox(testContainer).getXPosition(),
+                        "PrimitiveTargetContainer:policyParity")
+                .isEqualTo(new LeastRotationPolicy().selectTargetBox(referenceContainer).getXPosition());
+        test.assertThat(new SideFirstPolicy(SideFirstPolicy.Side.Left).selectTargetBox(testContainer).getXPosition(),
+                        "PrimitiveTargetContainer:policyParity")
+                .isEqualTo(new SideFirstPolicy(SideFirstPolicy.Side.Left).selectTargetBox(referenceContainer)
+                                   .getXPosition());
+    }
+
+    private void applyDeltaTest() throws AssertException
+    {
+        TargetBox moved = new TargetBox((short) 50, (short) 44, (short) 245);
+        TargetBox added = new TargetBox((short) 30, (short) 40, (short) 600);
+
+        /* Move target 2, remove targets 1 and 3 and add two new targets, growing the arrays. */
+        TargetDelta delta = new TargetDelta((short) 5, (short) 4,
+                                            new short[] {1, 3},
+                                            new short[] {2}, new TargetBox[] {moved},
+                                            new TargetBox[] {added, added});
+        testContainer.applyDelta(delta);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(testContainer.getTargetCount(), "PrimitiveTargetContainer:applyDelta")
+                .isEqualTo(5);
+        test.assertThat(testContainer.getFrameId(), "PrimitiveTargetContainer:applyDelta")
+                .isEqualTo((short) 5);
+        test.assertThat(testContainer.getXPosition(0), "PrimitiveTargetContainer:applyDelta")
+                .isEqualTo((short) 278);
+        test.assertThat(testContainer.getXPosition(1), "PrimitiveTargetContainer:applyDelta")
+                .isEqualTo((short) 245);
+        test.assertThat(testContainer.getXPosition(2), "PrimitiveTargetContainer:applyDelta")
+                .isEqualTo((short) 100);
+        test.assertThat(testContainer.getTarget(4).getXPosition(), "PrimitiveTargetContainer:applyDelta")
+                .isEqualTo((short) 600);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        accessorTest();
+        policyParityTest();
+        applyDeltaTest();
+        viewTest();
+        selectionTest();
+    }
+}
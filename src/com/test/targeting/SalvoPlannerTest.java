@@ -0,0 +1,59 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.SalvoPlanner;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class SalvoPlannerTest extends Test
+{
+    private SalvoPlanner planner;
+
+    private void setUp()
+    {
+        planner = new SalvoPlanner();
+    }
+
+    private void sweepTest() throws AssertException
+    {
+        /* The positive side ends nearer, so it is swept first and the negative side after turning back. */
+        float[] directions = new float[] {-20.0f, 5.0f, -3.0f, 10.0f};
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(planner.plan(directions, directions.length), "SalvoPlanner:sweep")
+                .isEqualTo(4);
+        test.assertThat(planner.getTarget(0), "SalvoPlanner:sweep")
+                .isEqualTo(1);
+        test.assertThat(planner.getTarget(1), "SalvoPlanner:sweep")
+                .isEqualTo(3);
+        test.assertThat(planner.getTarget(2), "SalvoPlanner:sweep")
+                .isEqualTo(2);
+        test.assertThat(planner.getTarget(3), "SalvoPlanner:sweep")
+                .isEqualTo(0);
+        test.assertThat(planner.getTotalRotation(), "SalvoPlanner:sweep")
+                .isEqualTo(40.0f);
+    }
+
+    private void singleSideTest() throws AssertException
+    {
+        /* All targets on one side are shot nearest first, without turning back. */
+        float[] directions = new float[] {-8.0f, -2.0f, -30.0f};
+
+        NXTAssert test = new NXTAssert();
+        planner.plan(directions, directions.length);
+        test.assertThat(planner.getTarget(0), "SalvoPlanner:singleSide")
+                .isEqualTo(1);
+        test.assertThat(planner.getTarget(2), "SalvoPlanner:singleSide")
+                .isEqualTo(2);
+        test.assertThat(planner.getTotalRotation(), "SalvoPlanner:singleSide")
+                .isEqualTo(30.0f);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        sweepTest();
+        singleSideTest();
+    }
+}
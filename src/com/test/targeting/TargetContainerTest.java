@@ -0,0 +1,88 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.TargetDelta;
+import com.test.NXTAssert;
+import com.test.NXTTest;
+import com.test.Test;
+
+public class TargetContainerTest extends Test
+{
+    private TargetContainer testContainer;
+
+    private void setUp()
+    {
+        testContainer = NXTTest.getTestTargetBox();
+        testContainer.setFrameId((short) 4);
+    }
+
+    private void applyDeltaTest() throws AssertException
+    {
+        TargetBox unchanged = testContainer.getTarget(0);
+        TargetBox moved = new TargetBox((short) 50, (short) 44, (short) 245);
+        TargetBox added = new TargetBox((short) 30, (short) 40, (short) 600);
+
+        /* Move target 2, remove targets 1 and 3 and add a new target. */
+        TargetDelta delta = new TargetDelta((short) 5, (short) 4,
+                                            new short[] {1, 3},
+                                            new short[] {2}, new TargetBox[] {moved},
+                                            new TargetBox[] {added});
+        testContainer.applyDelta(delta);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(testContainer.getTargetCount(), "TargetContainer:applyDelta")
+                .isEqualTo(4);
+        test.assertThat(testContainer.getFrameId(), "TargetContainer:applyDelta")
+                .isEqualTo((short) 5);
+        test.assertThat(testContainer.getTarget(0), "TargetContainer:applyDelta")
+                .isEqualTo(unchanged);
+        test.assertThat(testContainer.getTarget(1), "TargetContainer:applyDelta")
+                .isEqualTo(moved);
+        test.assertThat(testContainer.getTarget(3), "TargetContainer:applyDelta")
+                .isEqualTo(added);
+    }
+
+    private void growingDeltaTest() throws AssertException
+    {
+        TargetContainer container = new TargetContainer(0);
+        TargetBox added = new TargetBox((short) 30, (short) 40, (short) 600);
+
+        container.applyDelta(new TargetDelta((short) 1, (short) 0, new short[0], new short[0], new TargetBox[0],
+                                             new TargetBox[] {added, added}));
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(container.getTargetCount(), "TargetContainer:growingDelta")
+                .isEqualTo(2);
+        test.assertThat(container.cloneTargets().length, "TargetContainer:growingDelta")
+                .isEqualTo(2);
+    }
+
+    private void assembleTest() throws AssertException
+    {
+        /* Targets beyond 127 must be addressable. */
+        TargetContainer container = TargetContainer.withCapacity(4);
+        TargetBox last = null;
+        for (int i = 0; i < 300; i++)
+        {
+            last = new TargetBox((short) 30, (short) 40, (short) i);
+            container.addTarget(last);
+        }
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(container.getTargetCount(), "TargetContainer:assemble")
+                .isEqualTo(300);
+        test.assertThat(container.getTarget(299), "TargetContainer:assemble")
+                .isEqualTo(last);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        applyDeltaTest();
+        growingDeltaTest();
+        assembleTest();
+    }
+}
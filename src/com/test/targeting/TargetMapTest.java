@@ -0,0 +1,102 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.CameraModel;
+import com.sabr.targeting.PrimitiveTargetContainer;
+import com.sabr.targeting.TargetMap;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class TargetMapTest extends Test
+{
+    private static final short FrameWidth = 1600;
+
+    /* Height of the box of a cup 120 cm deep. */
+    private static final short CupHeight = 133;
+
+    private TargetMap map;
+
+    private void setUp()
+    {
+        map = new TargetMap(8);
+    }
+
+    /* Creates a frame with a cup at each of the given directions. */
+    private static PrimitiveTargetContainer createFrame(float... directions)
+    {
+        PrimitiveTargetContainer frame = PrimitiveTargetContainer.withCapacity(directions.length);
+        frame.setFrameWidth(FrameWidth);
+        for (float direction : directions)
+        {
+            float middle = FrameWidth / 2 - CameraModel.getDefault().getOffset(FrameWidth, direction);
+            frame.addTarget(CupHeight, (short) 100, (short) (middle - 50));
+        }
+
+        return frame;
+    }
+
+    private void mergeTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* A cup seen 20 degrees to the left, and then straight ahead after turning towards it, is a single target. */
+        map.update(createFrame(20.0f, -15.0f), 0.0f);
+        map.update(createFrame(0.0f), 20.0f);
+        test.assertThat(map.getCount(), "TargetMap:merge")
+                .isEqualTo(2);
+
+        int target = map.getNearest(20.0f);
+        test.assertThat(Math.abs(map.getBearing(target) - 20.0f) < 0.5f, "TargetMap:merge")
+                .isTrue();
+
+        /* Seen off to the side, the cup is farther away than its depth. */
+        int other = map.getNearest(-15.0f);
+        test.assertThat(Math.abs(map.getDistance(other) - 120.0f / (float) Math.cos(Math.toRadians(15))) < 1.0f,
+                        "TargetMap:merge")
+                .isTrue();
+    }
+
+    private void forgetTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* A cup out of view is kept, while one in view that is not seen twice is forgotten. */
+        map.clear();
+        map.update(createFrame(0.0f, 30.0f), 0.0f);
+        map.update(createFrame(), -20.0f);
+        test.assertThat(map.getCount(), "TargetMap:forget")
+                .isEqualTo(2);
+
+        map.update(createFrame(), -20.0f);
+        test.assertThat(map.getCount(), "TargetMap:forget")
+                .isEqualTo(1);
+        test.assertThat(Math.abs(map.getBearing(0) - 30.0f) < 0.5f, "TargetMap:forget")
+                .isTrue();
+    }
+
+    private void findTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        map.clear();
+        test.assertThat(map.getNearest(0.0f), "TargetMap:find")
+                .isEqualTo(-1);
+
+        map.update(createFrame(10.0f), 0.0f);
+        test.assertThat(map.find(11.0f, 122.0f), "TargetMap:find")
+                .isEqualTo(0);
+        test.assertThat(map.find(20.0f, 122.0f), "TargetMap:find")
+                .isEqualTo(-1);
+        test.assertThat(map.find(10.0f, 150.0f), "TargetMap:find")
+                .isEqualTo(-1);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        mergeTest();
+        forgetTest();
+        findTest();
+    }
+}
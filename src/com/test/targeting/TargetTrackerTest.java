@@ -0,0 +1,94 @@
+package com.test.targeting;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.TargetTracker;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class TargetTrackerTest extends Test
+{
+    private TargetTracker tracker;
+
+    private void setUp()
+    {
+        tracker = new TargetTracker();
+        tracker.update(createFrame(new short[] {100, 300, 500}));
+    }
+
+    private TargetContainer createFrame(short[] xPositions)
+    {
+        TargetContainer frame = new TargetContainer(xPositions.length);
+        for (int i = 0; i < xPositions.length; i++)
+            frame.setTarget(i, new TargetBox((short) 60, (short) 40, xPositions[i]));
+
+        frame.setFrameWidth((short) 660);
+        return frame;
+    }
+
+    private void identityTest() throws AssertException
+    {
+        int middleTrack = tracker.getTrackId(1);
+
+        /* The same targets in a different order, slightly moved, plus a new one. */
+        tracker.update(createFrame(new short[] {505, 620, 296, 103}));
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(tracker.findTarget(middleTrack), "TargetTracker:identity")
+                .isEqualTo(2);
+        test.assertThat(tracker.getTrackCount(), "TargetTracker:identity")
+                .isEqualTo(4);
+
+        /* Positions are smoothed towards the new detection. */
+        test.assertThat(tracker.getSmoothedMiddleX(middleTrack), "TargetTracker:identity")
+                .isEqualTo(318.0f);
+    }
+
+    private void rotationTest() throws AssertException
+    {
+        int leftTrack = tracker.getTrackId(0);
+
+        /* 33 degrees covers half of the 660 pixel wide frame, so turning 10 degrees shifts the view about 100 pixels. */
+        tracker.predictRotation(10);
+        tracker.update(createFrame(new short[] {200, 400, 600}));
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(tracker.findTarget(leftTrack), "TargetTracker:rotation")
+                .isEqualTo(0);
+        test.assertThat(tracker.getTrackCount(), "TargetTracker:rotation")
+                .isEqualTo(3);
+    }
+
+    private void lostTargetTest() throws AssertException
+    {
+        int leftTrack = tracker.getTrackId(0);
+
+        /* A target missing from a single frame keeps its track, but is dropped if it stays away. */
+        tracker.update(createFrame(new short[] {300, 500}));
+        tracker.update(createFrame(new short[] {100, 300, 500}));
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(tracker.findTarget(leftTrack), "TargetTracker:lostTarget")
+                .isEqualTo(0);
+
+        for (int i = 0; i < 3; i++)
+            tracker.update(createFrame(new short[] {300, 500}));
+
+        test.assertThat(tracker.findTarget(leftTrack), "TargetTracker:lostTarget")
+                .isEqualTo(TargetTracker.NO_TRACK);
+        test.assertThat(tracker.getTrackCount(), "TargetTracker:lostTarget")
+                .isEqualTo(2);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        identityTest();
+        setUp();
+        rotationTest();
+        setUp();
+        lostTargetTest();
+    }
+}
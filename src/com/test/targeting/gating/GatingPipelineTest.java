@@ -0,0 +1,177 @@
+package com.test.targeting.gating;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.ITargetContainer;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.gating.GatingPipeline;
+import com.sabr.targeting.gating.OverlapGate;
+import com.sabr.targeting.gating.RangeGate;
+import com.sabr.targeting.gating.ShapeGate;
+import com.test.NXTAssert;
+import com.test.TestShooter;
+import com.test.Test;
+
+public class GatingPipelineTest extends Test
+{
+    private TargetContainer createFrame(TargetBox[] targets)
+    {
+        TargetContainer frame = new TargetContainer(targets.length);
+        for (int i = 0; i < targets.length; i++)
+            frame.setTarget(i, targets[i]);
+
+        frame.setFrameWidth((short) 660);
+        return frame;
+    }
+
+    private void rangeTest() throws AssertException
+    {
+        /* A target 133 pixels high is at 120 cm, within reach. Shorter targets are too far, taller ones too close. */
+        TargetContainer frame = createFrame(new TargetBox[] {
+                new TargetBox((short) 60, (short) 44, (short) 100),
+                new TargetBox((short) 133, (short) 90, (short) 300),
+                new TargetBox((short) 200, (short) 140, (short) 450)
+        });
+
+        GatingPipeline pipeline = new GatingPipeline(new RangeGate(new TestShooter()));
+        ITargetContainer gated = pipeline.apply(frame);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:range")
+                .isEqualTo(1);
+        test.assertThat(gated.getXPosition(0), "GatingPipeline:range")
+                .isEqualTo((short) 300);
+        test.assertThat(pipeline.getSourceIndex(0), "GatingPipeline:range")
+                .isEqualTo(1);
+        test.assertThat(pipeline.getRejectedCount(), "GatingPipeline:range")
+                .isEqualTo(2);
+    }
+
+    private void shooterRangeTest() throws AssertException
+    {
+        /* A target 106 pixels high is at about 150 cm, within reach of the power model but not of a shooter
+           whose batteries are low. */
+        TargetContainer frame = createFrame(new TargetBox[] {
+                new TargetBox((short) 106, (short) 72, (short) 300)
+        });
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(new GatingPipeline(new RangeGate(new TestShooter())).apply(frame).getTargetCount(),
+                        "GatingPipeline:shooterRange")
+                .isEqualTo(1);
+        test.assertThat(new GatingPipeline(new RangeGate(new TestShooter(90.0f, 140.0f))).apply(frame).getTargetCount(),
+                        "GatingPipeline:shooterRange")
+                .isEqualTo(0);
+    }
+
+    private void shapeTest() throws AssertException
+    {
+        /* A tiny box, a flat box and a box wider than half the frame are not cups. */
+        TargetContainer frame = createFrame(new TargetBox[] {
+                new TargetBox((short) 4, (short) 3, (short) 10),
+                new TargetBox((short) 20, (short) 100, (short) 100),
+                new TargetBox((short) 400, (short) 340, (short) 0),
+                new TargetBox((short) 60, (short) 44, (short) 500)
+        });
+
+        ITargetContainer gated = new GatingPipeline(new ShapeGate()).apply(frame);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:shape")
+                .isEqualTo(1);
+        test.assertThat(gated.getXPosition(0), "GatingPipeline:shape")
+                .isEqualTo((short) 500);
+    }
+
+    private void overlapTest() throws AssertException
+    {
+        /* The first two boxes are the same cup, of which the more confident one is kept. The
+           third overlaps as well, but is a cup further away. */
+        TargetContainer frame = createFrame(new TargetBox[] {
+                new TargetBox((short) 120, (short) 80, (short) 200, (short) 150),
+                new TargetBox((short) 118, (short) 80, (short) 206, (short) 240),
+                new TargetBox((short) 70, (short) 50, (short) 210)
+        });
+
+        GatingPipeline pipeline = new GatingPipeline(new OverlapGate());
+        ITargetContainer gated = pipeline.apply(frame);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:overlap")
+                .isEqualTo(2);
+        test.assertThat(pipeline.getSourceIndex(0), "GatingPipeline:overlap")
+                .isEqualTo(1);
+        test.assertThat(gated.getConfidence(0), "GatingPipeline:overlap")
+                .isEqualTo((short) 240);
+        test.assertThat(pipeline.getSourceIndex(1), "GatingPipeline:overlap")
+                .isEqualTo(2);
+    }
+
+    private void overlapChainTest() throws AssertException
+    {
+        /* Each box is a duplicate of its neighbours, but the outer two are not duplicates of each other. The
+           middle box is suppressed by the most confident one, and does not suppress the first in turn. */
+        TargetContainer frame = createFrame(new TargetBox[] {
+                new TargetBox((short) 120, (short) 100, (short) 100, (short) 100),
+                new TargetBox((short) 120, (short) 100, (short) 125, (short) 150),
+                new TargetBox((short) 120, (short) 100, (short) 150, (short) 200)
+        });
+
+        GatingPipeline pipeline = new GatingPipeline(new OverlapGate());
+        ITargetContainer gated = pipeline.apply(frame);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:overlapChain")
+                .isEqualTo(2);
+        test.assertThat(gated.getXPosition(0), "GatingPipeline:overlapChain")
+                .isEqualTo((short) 100);
+        test.assertThat(gated.getXPosition(1), "GatingPipeline:overlapChain")
+                .isEqualTo((short) 150);
+    }
+
+    private void chunkTest() throws AssertException
+    {
+        /* A cup, a flat box, a duplicate of the cup and a cup further away, arriving in two chunks. */
+        TargetContainer frame = createFrame(new TargetBox[] {
+                new TargetBox((short) 120, (short) 80, (short) 200, (short) 150),
+                new TargetBox((short) 20, (short) 100, (short) 100),
+                new TargetBox((short) 118, (short) 80, (short) 206, (short) 240),
+                new TargetBox((short) 100, (short) 70, (short) 450)
+        });
+
+        GatingPipeline pipeline = new GatingPipeline(new ShapeGate(), new OverlapGate());
+        ITargetContainer gated = pipeline.beginFrame(frame);
+
+        NXTAssert test = new NXTAssert();
+        pipeline.acceptTargets(frame, 0, 2);
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:chunk")
+                .isEqualTo(1);
+
+        pipeline.acceptTargets(frame, 2, 4);
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:chunk")
+                .isEqualTo(3);
+
+        /* Suppressing the duplicate once the whole frame arrived changes the gated frame. */
+        test.assertThat(pipeline.endFrame(frame), "GatingPipeline:chunk")
+                .isTrue();
+        test.assertThat(gated.getTargetCount(), "GatingPipeline:chunk")
+                .isEqualTo(2);
+        test.assertThat(pipeline.getSourceIndex(0), "GatingPipeline:chunk")
+                .isEqualTo(2);
+        test.assertThat(pipeline.getSourceIndex(1), "GatingPipeline:chunk")
+                .isEqualTo(3);
+        test.assertThat(pipeline.getRejectedCount(), "GatingPipeline:chunk")
+                .isEqualTo(2);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        rangeTest();
+        shooterRangeTest();
+        shapeTest();
+        overlapTest();
+        overlapChainTest();
+        chunkTest();
+    }
+}
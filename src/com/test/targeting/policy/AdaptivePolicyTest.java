@@ -0,0 +1,77 @@
+package com.test.targeting.policy;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.policies.AdaptivePolicy;
+import com.sabr.targeting.policies.PolicyFactory;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class AdaptivePolicyTest extends Test
+{
+    private AdaptivePolicy policy;
+
+    private void setUp()
+    {
+        /* Statistics are not saved during tests. */
+        policy = new AdaptivePolicy(null);
+    }
+
+    private void explorationTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* Every policy is tried once. The nearest policy hits quickly, the others slowly. */
+        PolicyFactory.TargetingPolicyType[] types = PolicyFactory.TargetingPolicyType.values();
+        for (int i = 0; i < types.length - 1; i++)
+        {
+            policy.reset();
+            test.assertThat(policy.getChosenType(), "AdaptivePolicy:exploration")
+                    .isEqualTo(types[i]);
+
+            if (types[i] == PolicyFactory.TargetingPolicyType.Nearest)
+                policy.onPress(0, 1, 400, true);
+            else
+                policy.onPress(2, 3, 6000, true);
+        }
+    }
+
+    private void exploitationTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        policy.reset();
+        test.assertThat(policy.getChosenType(), "AdaptivePolicy:exploitation")
+                .isEqualTo(PolicyFactory.TargetingPolicyType.Nearest);
+
+        policy.onPress(0, 1, 400, true);
+        test.assertThat(policy.getPlays(PolicyFactory.TargetingPolicyType.Nearest), "AdaptivePolicy:exploitation")
+                .isEqualTo(2);
+    }
+
+    private void failureTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* The nearest policy now ends its presses quickly but without a shot, which must not pay off. */
+        policy = new AdaptivePolicy(null);
+        PolicyFactory.TargetingPolicyType[] types = PolicyFactory.TargetingPolicyType.values();
+        for (int i = 0; i < types.length - 1; i++)
+        {
+            policy.reset();
+            policy.onPress(0, 1, 100, types[i] != PolicyFactory.TargetingPolicyType.Nearest);
+        }
+
+        policy.reset();
+        test.assertThat(policy.getChosenType() != PolicyFactory.TargetingPolicyType.Nearest, "AdaptivePolicy:failure")
+                .isTrue();
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        explorationTest();
+        exploitationTest();
+        failureTest();
+    }
+}
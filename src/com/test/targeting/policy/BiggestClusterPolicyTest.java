@@ -4,8 +4,11 @@ import com.sabr.exceptions.AssertException;
 import com.sabr.targeting.TargetBox;
 import com.sabr.targeting.TargetContainer;
 import com.sabr.targeting.policies.BiggestClusterPolicy;
+import com.sabr.utilities.Clock;
+import com.sabr.utilities.Deadline;
 import com.test.NXTAssert;
 import com.test.NXTTest;
+import com.test.TestClock;
 import com.test.Test;
 
 public class BiggestClusterPolicyTest extends Test
@@ -45,11 +48,94 @@ public class BiggestClusterPolicyTest extends Test
                 .isIn(biggestCluster);
     }
 
+    private TargetContainer getThreeClusters()
+    {
+        /* Clusters of three, two and one targets, given out of order. */
+        short[] xPositions = new short[] {205, 12, 400, 10, 200, 14};
+
+        TargetContainer container = new TargetContainer(xPositions.length);
+        for (int i = 0; i < xPositions.length; i++)
+            container.setTarget(i, new TargetBox((short) 30, (short) 20, xPositions[i]));
+
+        return container;
+    }
+
+    private void clusterTest(BiggestClusterPolicy.Mode mode) throws AssertException
+    {
+        BiggestClusterPolicy threeClusters = new BiggestClusterPolicy(3, mode);
+        NXTAssert test = new NXTAssert();
+
+        test.assertThat(threeClusters.cluster(getThreeClusters()), "BiggestCluster:cluster")
+                .isEqualTo(3);
+        test.assertThat(threeClusters.getClusterSize(0), "BiggestCluster:cluster")
+                .isEqualTo(3);
+        test.assertThat(threeClusters.getClusterSize(1), "BiggestCluster:cluster")
+                .isEqualTo(2);
+        test.assertThat(threeClusters.getClusterSize(2), "BiggestCluster:cluster")
+                .isEqualTo(1);
+
+        /* Members are ordered by x-position. */
+        test.assertThat(threeClusters.getClusterMember(0, 0), "BiggestCluster:cluster")
+                .isEqualTo(3);
+        test.assertThat(threeClusters.getClusterMember(1, 1), "BiggestCluster:cluster")
+                .isEqualTo(0);
+    }
+
+    private void fewTargetsTest() throws AssertException
+    {
+        /* More clusters than targets puts each target in its own cluster. */
+        BiggestClusterPolicy manyClusters = new BiggestClusterPolicy(8, BiggestClusterPolicy.Mode.Exact);
+        NXTAssert test = new NXTAssert();
+
+        test.assertThat(manyClusters.cluster(testContainer), "BiggestCluster:fewTargets")
+                .isEqualTo(5);
+        test.assertThat(manyClusters.getClusterSize(4), "BiggestCluster:fewTargets")
+                .isEqualTo(1);
+    }
+
+    private void deadlineTest() throws AssertException
+    {
+        Clock stoppedClock = new TestClock(1000);
+        Deadline passed = new Deadline(stoppedClock, 0);
+
+        NXTAssert test = new NXTAssert();
+
+        /* Out of time, the exact mode settles for a single cluster holding all targets. */
+        BiggestClusterPolicy exact = new BiggestClusterPolicy(3, BiggestClusterPolicy.Mode.Exact);
+        test.assertThat(exact.cluster(getThreeClusters(), passed), "BiggestCluster:deadline")
+                .isEqualTo(1);
+        test.assertThat(exact.getClusterSize(0), "BiggestCluster:deadline")
+                .isEqualTo(6);
+
+        /* The iterative mode still assigns the targets to the initial means. */
+        BiggestClusterPolicy iterative = new BiggestClusterPolicy(3, BiggestClusterPolicy.Mode.Iterative);
+        test.assertThat(iterative.cluster(getThreeClusters(), passed), "BiggestCluster:deadline")
+                .isEqualTo(3);
+        test.assertThat(iterative.getClusterSize(0) + iterative.getClusterSize(1) + iterative.getClusterSize(2),
+                        "BiggestCluster:deadline")
+                .isEqualTo(6);
+
+        /* A deadline that has not passed gives the full partition. */
+        test.assertThat(exact.cluster(getThreeClusters(), new Deadline(stoppedClock, 2000)), "BiggestCluster:deadline")
+                .isEqualTo(3);
+
+        /* A deadline passing within a row settles for the partition of the row before, here into two clusters. */
+        Deadline passing = new Deadline(new TestClock(1000, 1), 1001);
+        test.assertThat(exact.cluster(getThreeClusters(), passing), "BiggestCluster:deadline")
+                .isEqualTo(2);
+        test.assertThat(exact.getClusterSize(0) + exact.getClusterSize(1), "BiggestCluster:deadline")
+                .isEqualTo(6);
+    }
+
     @Override
     public void runAllTests() throws AssertException
     {
         setUp();
         singleTargetTest();
         biggestClusterTest();
+        clusterTest(BiggestClusterPolicy.Mode.Exact);
+        clusterTest(BiggestClusterPolicy.Mode.Iterative);
+        fewTargetsTest();
+        deadlineTest();
     }
 }
@@ -0,0 +1,92 @@
+package com.test.targeting.policy;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.policies.ConfirmingPolicy;
+import com.sabr.targeting.policies.LeastRotationPolicy;
+import com.sabr.targeting.policies.RandomPolicy;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class ConfirmingPolicyTest extends Test
+{
+    private ConfirmingPolicy policy;
+
+    private void setUp()
+    {
+        policy = new ConfirmingPolicy(new LeastRotationPolicy());
+        policy.reset();
+    }
+
+    /* A frame with a target in the middle of the given confidence, and a certain one further to the side. */
+    private TargetContainer createFrame(short middleX, short confidence)
+    {
+        TargetContainer frame = new TargetContainer(2);
+        frame.setTarget(0, new TargetBox((short) 60, (short) 40, (short) (middleX - 20), confidence));
+        frame.setTarget(1, new TargetBox((short) 60, (short) 40, (short) 80));
+        frame.setFrameWidth((short) 660);
+        return frame;
+    }
+
+    private void certainTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+        policy.selectTargetBox(createFrame((short) 330, TargetBox.MAX_CONFIDENCE));
+        test.assertThat(policy.isSelectionConfirmed(), "ConfirmingPolicy:certain")
+                .isTrue();
+    }
+
+    private void marginalTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        /* A marginal target needs a second frame, in which it may have jittered. */
+        policy.selectTargetBox(createFrame((short) 330, (short) 100));
+        test.assertThat(policy.isSelectionConfirmed(), "ConfirmingPolicy:marginal")
+                .isFalse();
+
+        TargetContainer nextFrame = createFrame((short) 333, (short) 110);
+        test.assertThat(policy.selectTargetBox(nextFrame), "ConfirmingPolicy:marginal")
+                .isEqualTo(nextFrame.getTarget(0));
+        test.assertThat(policy.isSelectionConfirmed(), "ConfirmingPolicy:marginal")
+                .isTrue();
+
+        /* Starting over forgets the confirmation. */
+        policy.reset();
+        policy.selectTargetBox(nextFrame);
+        test.assertThat(policy.isSelectionConfirmed(), "ConfirmingPolicy:marginal")
+                .isFalse();
+    }
+
+    private void chunkTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+        test.assertThat(policy.acceptsChunks(), "ConfirmingPolicy:chunk")
+                .isTrue();
+        test.assertThat(new ConfirmingPolicy(new RandomPolicy()).acceptsChunks(), "ConfirmingPolicy:chunk")
+                .isFalse();
+
+        /* A marginal target evaluated chunk by chunk is confirmed like one selected from the whole frame. */
+        policy.reset();
+        policy.selectTargetBox(createFrame((short) 330, (short) 100));
+
+        TargetContainer nextFrame = createFrame((short) 333, (short) 110);
+        policy.beginFrame(nextFrame);
+        policy.acceptTargets(nextFrame, 0, 1);
+        policy.acceptTargets(nextFrame, 1, 2);
+        test.assertThat(policy.getSelectedTarget(nextFrame), "ConfirmingPolicy:chunk")
+                .isEqualTo(nextFrame.getTarget(0));
+        test.assertThat(policy.isSelectionConfirmed(), "ConfirmingPolicy:chunk")
+                .isTrue();
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        certainTest();
+        marginalTest();
+        chunkTest();
+    }
+}
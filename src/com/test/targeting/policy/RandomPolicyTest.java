@@ -8,6 +8,8 @@ import com.test.NXTAssert;
 import com.test.NXTTest;
 import com.test.Test;
 
+import java.util.Random;
+
 public class RandomPolicyTest extends Test
 {
     private TargetContainer testContainer;
@@ -45,6 +47,21 @@ public class RandomPolicyTest extends Test
                 .isIn(testContainer.cloneTargets());
     }
 
+    private void repeatedFrameTest() throws AssertException
+    {
+        /* Selections on the same frame are drawn anew rather than remembered. */
+        RandomPolicy seeded = new RandomPolicy(new Random(1));
+        TargetBox first = seeded.selectTargetBox(testContainer);
+
+        boolean differs = false;
+        for (int i = 0; i < 20 && !differs; i++)
+            differs = seeded.selectTargetBox(testContainer) != first;
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(differs, "RandomPolicy:repeatedFrame")
+                .isTrue();
+    }
+
     @Override
     public void runAllTests() throws AssertException
     {
@@ -52,5 +69,6 @@ public class RandomPolicyTest extends Test
         zeroSampleTest();
         singleTargetTest();
         multipleTargetsTest();
+        repeatedFrameTest();
     }
 }
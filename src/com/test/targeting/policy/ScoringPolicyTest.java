@@ -0,0 +1,58 @@
+package com.test.targeting.policy;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.policies.ScoringPolicy;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class ScoringPolicyTest extends Test
+{
+    private TargetContainer testContainer;
+
+    private void setUp()
+    {
+        testContainer = new TargetContainer(2);
+
+        /* Facing the first target, but it is far out of range. The second one is in range. */
+        testContainer.setTarget(0, new TargetBox((short) 40, (short) 40, (short) 300));
+        testContainer.setTarget(1, new TargetBox((short) 128, (short) 40, (short) 380));
+        testContainer.setFrameWidth((short) 640);
+    }
+
+    private void zeroSampleTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+        test.assertThat(new ScoringPolicy().selectTargetBox(new TargetContainer(0)), "ScoringPolicy:zeroSample")
+                .isNull();
+    }
+
+    private void rotationOnlyTest() throws AssertException
+    {
+        /* Only weighing rotation selects the same target as the least rotation policy. */
+        ScoringPolicy policy = new ScoringPolicy(1, 0, 0, 0);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(policy.selectTargetBox(testContainer), "ScoringPolicy:rotationOnly")
+                .isEqualTo(testContainer.getTarget(0));
+    }
+
+    private void rangeTest() throws AssertException
+    {
+        ScoringPolicy policy = new ScoringPolicy();
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(policy.selectTargetBox(testContainer), "ScoringPolicy:range")
+                .isEqualTo(testContainer.getTarget(1));
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        zeroSampleTest();
+        rotationOnlyTest();
+        rangeTest();
+    }
+}
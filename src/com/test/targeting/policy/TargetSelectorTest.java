@@ -0,0 +1,101 @@
+package com.test.targeting.policy;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.targeting.TargetBox;
+import com.sabr.targeting.TargetContainer;
+import com.sabr.targeting.policies.TargetKeys;
+import com.sabr.targeting.policies.TargetSelector;
+import com.test.NXTAssert;
+import com.test.NXTTest;
+import com.test.Test;
+
+public class TargetSelectorTest extends Test
+{
+    private TargetContainer testContainer;
+
+    private void setUp()
+    {
+        testContainer = NXTTest.getTestTargetBox();
+    }
+
+    private void tieBreakTest() throws AssertException
+    {
+        /* Targets 0 and 2 share the lowest middle x-position. */
+        TargetContainer tiedTargets = new TargetContainer(3);
+        tiedTargets.setTarget(0, new TargetBox((short) 10, (short) 20, (short) 40));
+        tiedTargets.setTarget(1, new TargetBox((short) 10, (short) 20, (short) 90));
+        tiedTargets.setTarget(2, new TargetBox((short) 10, (short) 20, (short) 40));
+
+        TargetSelector first = new TargetSelector(TargetKeys.MiddleX, TargetSelector.Order.Lowest,
+                                                  TargetSelector.TieBreak.First);
+        TargetSelector last = new TargetSelector(TargetKeys.MiddleX, TargetSelector.Order.Lowest,
+                                                 TargetSelector.TieBreak.Last);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(first.selectIndex(tiedTargets), "TargetSelector:tieBreak")
+                .isEqualTo(0);
+        test.assertThat(last.selectIndex(tiedTargets), "TargetSelector:tieBreak")
+                .isEqualTo(2);
+        test.assertThat(first.selectIndex(new TargetContainer(0)), "TargetSelector:tieBreak")
+                .isEqualTo(-1);
+
+        /* Tied targets are ranked as they would be selected. */
+        int[] top = new int[2];
+        first.selectTop(tiedTargets, top);
+        test.assertThat(top[1], "TargetSelector:tieBreak")
+                .isEqualTo(2);
+        last.selectTop(tiedTargets, top);
+        test.assertThat(top[0], "TargetSelector:tieBreak")
+                .isEqualTo(2);
+        test.assertThat(top[1], "TargetSelector:tieBreak")
+                .isEqualTo(0);
+    }
+
+    private void incrementalTest() throws AssertException
+    {
+        TargetSelector selector = new TargetSelector(TargetKeys.MiddleX, TargetSelector.Order.Highest,
+                                                     TargetSelector.TieBreak.First);
+
+        /* Accepting the frame in two ranges must select the same target as a single scan. */
+        selector.reset();
+        selector.accept(testContainer, 0, 2);
+        selector.accept(testContainer, 2, testContainer.getTargetCount());
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(selector.getSelectedIndex(), "TargetSelector:incremental")
+                .isEqualTo(selector.selectIndex(testContainer));
+    }
+
+    private void topTest() throws AssertException
+    {
+        TargetSelector selector = new TargetSelector(TargetKeys.MiddleX, TargetSelector.Order.Lowest,
+                                                     TargetSelector.TieBreak.First);
+
+        /* Middle x-positions are 300, 272, 262, 252 and 122. */
+        int[] top = new int[3];
+        int count = selector.selectTop(testContainer, top);
+
+        NXTAssert test = new NXTAssert();
+        test.assertThat(count, "TargetSelector:top")
+                .isEqualTo(3);
+        test.assertThat(top[0], "TargetSelector:top")
+                .isEqualTo(4);
+        test.assertThat(top[1], "TargetSelector:top")
+                .isEqualTo(3);
+        test.assertThat(top[2], "TargetSelector:top")
+                .isEqualTo(2);
+
+        /* Asking for more targets than there are returns all of them. */
+        test.assertThat(selector.selectTop(testContainer, new int[8]), "TargetSelector:top")
+                .isEqualTo(5);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        setUp();
+        tieBreakTest();
+        incrementalTest();
+        topTest();
+    }
+}
@@ -0,0 +1,83 @@
+package com.test.utilities;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.utilities.ArrayUtil;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class ArrayUtilTest extends Test
+{
+    private int[] createIndices(int count)
+    {
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++)
+            indices[i] = i;
+
+        return indices;
+    }
+
+    private void shortKeyTest() throws AssertException
+    {
+        /* Equal keys keep their order, and negative keys sort first. */
+        short[] keys = new short[] {300, -5, 40, 300, 0, 1000};
+        int[] indices = createIndices(keys.length);
+        ArrayUtil.sortIndices(indices, keys.length, keys, new int[ArrayUtil.getSortScratchLength(keys.length)]);
+
+        int[] expected = new int[] {1, 4, 2, 0, 3, 5};
+
+        NXTAssert test = new NXTAssert();
+        for (int i = 0; i < expected.length; i++)
+            test.assertThat(indices[i], "ArrayUtil:shortKey")
+                    .isEqualTo(expected[i]);
+    }
+
+    private void intKeyTest() throws AssertException
+    {
+        int[] keys = new int[] {70000, -70000, 3, 65536};
+        int[] indices = createIndices(keys.length);
+        ArrayUtil.sortIndices(indices, keys.length, keys, new int[ArrayUtil.getSortScratchLength(keys.length)]);
+
+        int[] expected = new int[] {1, 2, 3, 0};
+
+        NXTAssert test = new NXTAssert();
+        for (int i = 0; i < expected.length; i++)
+            test.assertThat(indices[i], "ArrayUtil:intKey")
+                    .isEqualTo(expected[i]);
+    }
+
+    private void selectTest() throws AssertException
+    {
+        float[] keys = new float[] {5.0f, 1.0f, 9.0f, 3.0f, 7.0f, 3.0f, 8.0f};
+        int[] indices = createIndices(keys.length);
+
+        NXTAssert test = new NXTAssert();
+
+        ArrayUtil.selectIndex(indices, keys.length, 3, keys);
+        test.assertThat(keys[indices[3]], "ArrayUtil:select")
+                .isEqualTo(5.0f);
+        for (int i = 0; i < keys.length; i++)
+            test.assertThat(i < 3 ? keys[indices[i]] <= 5.0f : keys[indices[i]] >= 5.0f, "ArrayUtil:select")
+                    .isTrue();
+
+        indices = createIndices(keys.length);
+        test.assertThat(ArrayUtil.selectTopIndices(indices, keys.length, 3, keys), "ArrayUtil:top")
+                .isEqualTo(3);
+        test.assertThat(indices[0], "ArrayUtil:top")
+                .isEqualTo(1);
+        test.assertThat(keys[indices[1]], "ArrayUtil:top")
+                .isEqualTo(3.0f);
+        test.assertThat(keys[indices[2]], "ArrayUtil:top")
+                .isEqualTo(3.0f);
+
+        test.assertThat(ArrayUtil.selectTopIndices(indices, 2, 5, keys), "ArrayUtil:top")
+                .isEqualTo(2);
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        shortKeyTest();
+        intKeyTest();
+        selectTest();
+    }
+}
@@ -0,0 +1,85 @@
+package com.test.utilities;
+
+import com.sabr.exceptions.AssertException;
+import com.sabr.movement.shooting.PowerModel;
+import com.sabr.targeting.CameraModel;
+import com.sabr.utilities.FixedPoint;
+import com.test.NXTAssert;
+import com.test.Test;
+
+public class FixedPointTest extends Test
+{
+    /* Largest difference allowed between the fixed-point and float results. */
+    private static final float AngleTolerance = 0.01f;
+    private static final float DistanceTolerance = 0.01f;
+    private static final float PowerTolerance = 0.01f;
+
+    private void arithmeticTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        int half = FixedPoint.fromFloat(0.5f);
+        int three = FixedPoint.fromInt(3);
+
+        test.assertThat(FixedPoint.toFloat(FixedPoint.multiply(half, three)), "FixedPoint:arithmetic")
+                .isEqualTo(1.5f);
+        test.assertThat(FixedPoint.toFloat(FixedPoint.divide(three, half)), "FixedPoint:arithmetic")
+                .isEqualTo(6.0f);
+        test.assertThat(FixedPoint.round(FixedPoint.fromFloat(2.5f)), "FixedPoint:arithmetic")
+                .isEqualTo(3);
+        test.assertThat(FixedPoint.toInt(FixedPoint.fromFloat(-0.25f)), "FixedPoint:arithmetic")
+                .isEqualTo(-1);
+    }
+
+    private void directionTest() throws AssertException
+    {
+        CameraModel camera = CameraModel.getDefault();
+        NXTAssert test = new NXTAssert();
+
+        for (int x = 0; x <= 640; x++)
+        {
+            float difference = FixedPoint.toFloat(camera.getDirectionFixed((short) 640, x))
+                               - camera.getDirection((short) 640, x);
+
+            test.assertThat(Math.abs(difference) < AngleTolerance, "FixedPoint:direction")
+                    .isTrue();
+        }
+    }
+
+    private void distanceTest() throws AssertException
+    {
+        CameraModel camera = CameraModel.getDefault();
+        NXTAssert test = new NXTAssert();
+
+        for (int height = 1; height <= 600; height++)
+        {
+            float difference = FixedPoint.toFloat(camera.getDistanceFixed(height)) - camera.getDistance(height);
+
+            test.assertThat(Math.abs(difference) < DistanceTolerance, "FixedPoint:distance")
+                    .isTrue();
+        }
+    }
+
+    private void powerTest() throws AssertException
+    {
+        NXTAssert test = new NXTAssert();
+
+        for (int distance = 50; distance <= 200; distance++)
+        {
+            float difference = FixedPoint.toFloat(PowerModel.getRawPowerFixed(FixedPoint.fromInt(distance)))
+                               - PowerModel.getRawPower(distance);
+
+            test.assertThat(Math.abs(difference) < PowerTolerance, "FixedPoint:power")
+                    .isTrue();
+        }
+    }
+
+    @Override
+    public void runAllTests() throws AssertException
+    {
+        arithmeticTest();
+        directionTest();
+        distanceTest();
+        powerTest();
+    }
+}
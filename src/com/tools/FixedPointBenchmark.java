@@ -0,0 +1,83 @@
+package com.tools;
+
+import com.sabr.movement.shooting.PowerModel;
+import com.sabr.targeting.CameraModel;
+import com.sabr.targeting.PrimitiveTargetContainer;
+import lejos.nxt.Button;
+import lejos.nxt.LCD;
+
+import java.util.Random;
+
+/**
+ * Times the targeting and shooting computations of a frame in float and in fixed point,
+ * to decide whether FixedPoint.ENABLED pays off on the brick.
+ */
+public class FixedPointBenchmark
+{
+    private static final int Frames = 200;
+    private static final int TargetsPerFrame = 16;
+    private static final short FrameWidth = 640;
+
+    /* Clock speed of the NXT's ARM7, used to turn time into cycles. */
+    private static final int CyclesPerMicrosecond = 48;
+
+    /* Results are summed and shown, so the computations cannot be skipped. */
+    private static float floatSum;
+    private static long fixedSum;
+
+    public static void main(String[] options)
+    {
+        PrimitiveTargetContainer frame = createFrame();
+        CameraModel camera = CameraModel.getDefault();
+
+        /* Build the angle tables before timing. */
+        camera.getDirection(FrameWidth, 0);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < Frames; i++)
+        {
+            for (int target = 0; target < TargetsPerFrame; target++)
+            {
+                floatSum += camera.getDirection(FrameWidth, frame.getMiddleX(target));
+                floatSum += PowerModel.getRawPower(camera.getDistance(frame.getHeight(target)));
+            }
+        }
+        long floatTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < Frames; i++)
+        {
+            for (int target = 0; target < TargetsPerFrame; target++)
+            {
+                fixedSum += camera.getDirectionFixed(FrameWidth, frame.getMiddleX(target));
+                fixedSum += PowerModel.getRawPowerFixed(camera.getDistanceFixed(frame.getHeight(target)));
+            }
+        }
+        long fixedTime = System.currentTimeMillis() - start;
+
+        long floatMicros = floatTime * 1000 / Frames;
+        long fixedMicros = fixedTime * 1000 / Frames;
+
+        LCD.clear();
+        LCD.drawString("Per frame of " + TargetsPerFrame, 0, 0);
+        LCD.drawString("Float: " + floatMicros + " us", 0, 1);
+        LCD.drawString("Fixed: " + fixedMicros + " us", 0, 2);
+        LCD.drawString("Saved: " + (floatMicros - fixedMicros) * CyclesPerMicrosecond, 0, 3);
+        LCD.drawString("cycles", 0, 4);
+        LCD.drawString("" + floatSum + " " + fixedSum, 0, 6);
+
+        Button.waitForAnyPress();
+    }
+
+    private static PrimitiveTargetContainer createFrame()
+    {
+        Random random = new Random(42);
+
+        PrimitiveTargetContainer frame = PrimitiveTargetContainer.withCapacity(TargetsPerFrame);
+        frame.setFrameWidth(FrameWidth);
+        for (int i = 0; i < TargetsPerFrame; i++)
+            frame.addTarget((short) (40 + random.nextInt(100)), (short) 40, (short) random.nextInt(FrameWidth - 40));
+
+        return frame;
+    }
+}
@@ -137,6 +137,9 @@ class BluetoothConnection(Connection):
     def send_short(self, value):
         return send_short(self.socket, value)
 
+    def send_ushort(self, value):
+        return send_ushort(self.socket, value)
+
     def send_float(self, value):
         return send_float(self.socket, value)
 
@@ -152,6 +155,9 @@ class BluetoothConnection(Connection):
     def receive_short(self):
         return receive_short(self.socket)
 
+    def receive_ushort(self):
+        return receive_ushort(self.socket)
+
     def receive_float(self):
         return receive_float(self.socket)
 
@@ -9,6 +9,10 @@ def send_short(socket, value):
     socket.send(short_to_bytes(value))
 
 
+def send_ushort(socket, value):
+    socket.send(ushort_to_bytes(value))
+
+
 def send_float(socket, value):
     socket.send(float_to_bytes(value))
 
@@ -40,6 +44,10 @@ def receive_short(socket):
     return bytes_to_short(receive_bytes(socket, 2))
 
 
+def receive_ushort(socket):
+    return bytes_to_ushort(receive_bytes(socket, 2))
+
+
 def receive_float(socket):
     return bytes_to_float(receive_bytes(socket, 4))
 
@@ -0,0 +1,138 @@
+from sabr_host.packets import PacketIds, Packet, TargetInfoRequestPacket
+
+
+# Encodes target frames for the NXT. The encoder keeps a mirror of
+# the frame the NXT holds, so that a frame can be sent as the changes
+# relative to it (added, removed and moved boxes) instead of the full
+# list of boxes. A full keyframe is sent whenever the NXT acknowledges
+# a different frame than the one we mirror, every KEYFRAME_INTERVAL
+# frames, or whenever the delta would not be smaller or would not fit
+# in a single packet. Keyframes are split into chunks.
+class FrameDeltaEncoder:
+    # Maximum number of consecutive delta frames.
+    KEYFRAME_INTERVAL = 10
+
+    # Boxes whose coordinates all differ by at most this many pixels,
+    # and whose quantized confidence differs by at most this much, are
+    # considered unchanged and are not sent at all.
+    JITTER_TOLERANCE = 2
+    CONFIDENCE_TOLERANCE = 16
+
+    # Maximum summed coordinate difference for two boxes in consecutive
+    # frames to be considered the same target.
+    MATCH_GATE = 60
+
+    # Frame ids are sent as signed shorts, -1 is reserved for 'no frame'.
+    MAX_FRAME_ID = 32767
+
+    # Sizes in bytes used to decide whether a delta is worth sending.
+    BOX_SIZE = 7
+    MOVED_BOX_SIZE = 9
+
+    def __init__(self):
+        self.frame_id = TargetInfoRequestPacket.NO_FRAME
+        self.frames_since_keyframe = 0
+
+        # The boxes of the frame the NXT holds, as (x, width, height,
+        # confidence), in the same order as on the NXT.
+        self.mirror = []
+
+    # Encode the given bounding boxes as a list of target info packets
+    # relative to the frame acknowledged by the NXT.
+    def encode(self, acknowledged_frame_id, bounding_boxes, frame_width):
+        boxes = [(box.x_min, box.width, box.height, box.get_quantized_confidence()) for box in bounding_boxes]
+
+        base_frame_id = self.frame_id
+        self.frame_id = (self.frame_id + 1) % (FrameDeltaEncoder.MAX_FRAME_ID + 1)
+
+        # Deltas are only valid if the NXT holds the frame we mirror
+        can_send_delta = acknowledged_frame_id == base_frame_id and \
+            acknowledged_frame_id != TargetInfoRequestPacket.NO_FRAME and \
+            self.frames_since_keyframe < FrameDeltaEncoder.KEYFRAME_INTERVAL
+
+        if can_send_delta:
+            removed, moved, added, new_mirror = self.compute_delta(boxes)
+
+            delta_size = 2 + 6 + 2 * len(removed) + FrameDeltaEncoder.MOVED_BOX_SIZE * len(moved) + \
+                FrameDeltaEncoder.BOX_SIZE * len(added)
+            keyframe_size = 5 + FrameDeltaEncoder.BOX_SIZE * len(boxes)
+            delta_count = len(removed) + len(moved) + len(added)
+
+            if delta_size < keyframe_size and delta_count <= TargetInfoRequestPacket.MAX_CHUNK_COUNT:
+                packet = self.create_packet(frame_width)
+                packet.set_delta(base_frame_id, removed, moved, added)
+                self.mirror = new_mirror
+                self.frames_since_keyframe += 1
+                return [packet]
+
+        # Send a keyframe, split into chunks. An empty frame is a single empty chunk.
+        packets = []
+        for offset in range(0, max(len(boxes), 1), TargetInfoRequestPacket.MAX_CHUNK_COUNT):
+            packet = self.create_packet(frame_width)
+            packet.set_chunk(len(boxes), offset)
+            for x, width, height, confidence in boxes[offset:offset + TargetInfoRequestPacket.MAX_CHUNK_COUNT]:
+                packet.append_box(x, width, height, confidence)
+            packets.append(packet)
+
+        self.mirror = boxes
+        self.frames_since_keyframe = 0
+        return packets
+
+    def create_packet(self, frame_width):
+        packet = Packet.instantiate_from_id(PacketIds.TARGET_INFO_REQUEST)
+        packet.set_frame_id(self.frame_id)
+        packet.set_frame_width(frame_width)
+        return packet
+
+    # Match the new boxes against the mirrored frame. Returns the
+    # removed indices, the moved boxes, the added boxes and the frame
+    # the NXT will hold after applying the delta.
+    def compute_delta(self, boxes):
+        # Greedily match the closest pairs of old and new boxes
+        pairs = []
+        for old_index, old_box in enumerate(self.mirror):
+            for new_index, new_box in enumerate(boxes):
+                cost = FrameDeltaEncoder.box_difference(old_box, new_box)
+                if cost <= FrameDeltaEncoder.MATCH_GATE:
+                    pairs.append((cost, old_index, new_index))
+
+        pairs.sort()
+        old_to_new = {}
+        matched_new = set()
+        for cost, old_index, new_index in pairs:
+            if old_index in old_to_new or new_index in matched_new:
+                continue
+
+            old_to_new[old_index] = new_index
+            matched_new.add(new_index)
+
+        removed = []
+        moved = []
+        remaining = []
+        for old_index, old_box in enumerate(self.mirror):
+            if old_index not in old_to_new:
+                removed.append(old_index)
+                continue
+
+            new_box = boxes[old_to_new[old_index]]
+            if FrameDeltaEncoder.is_jitter(old_box, new_box):
+                # The NXT keeps the old coordinates, and so does the mirror
+                remaining.append(old_box)
+            else:
+                moved.append((old_index, new_box))
+                remaining.append(new_box)
+
+        # New boxes are appended after the remaining ones, as on the NXT
+        added = [box for index, box in enumerate(boxes) if index not in matched_new]
+
+        return removed, moved, added, remaining + added
+
+    # Boxes are matched by their coordinates only.
+    @staticmethod
+    def box_difference(first, second):
+        return sum(abs(a - b) for a, b in zip(first[:3], second[:3]))
+
+    @staticmethod
+    def is_jitter(first, second):
+        return all(abs(a - b) <= FrameDeltaEncoder.JITTER_TOLERANCE for a, b in zip(first[:3], second[:3])) and \
+            abs(first[3] - second[3]) <= FrameDeltaEncoder.CONFIDENCE_TOLERANCE
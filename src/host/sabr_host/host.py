@@ -1,7 +1,11 @@
+import time
+
 from sabr_host.packets import PacketIds, Packet
 from sabr_host.bluetooth_connection import BluetoothConnection
 from sabr_host.errors import NoPacketHandlerError
+from sabr_host.frame_delta import FrameDeltaEncoder
 from sabr_host.target_info import TargetInfo
+from sabr_host import targeting
 
 
 # Class used for making communication and target identification
@@ -15,6 +19,10 @@ class Host(object):
         self.host_name = nxt_name
         self.target_info = None
         self.connection = None
+        self.frame_encoder = FrameDeltaEncoder()
+
+        # Frame captured before the last shot, which it is judged against
+        self.shot_frame = None
 
         # Set passthrough client
         if tcp_host is None:
@@ -24,22 +32,70 @@ class Host(object):
 
     # When a TARGET_INFO_REQUEST packet is received, fetch
     # data from the targeting module, package it, and send
-    # accross the same connection.
+    # accross the same connection. The frame is sent as a
+    # delta if the NXT acknowledged the last frame we sent.
     def handle_target_request(self, packet):
         # Request target information from vision module
         bounding_boxes, frame_width = self.target_info.get_targets()
         print(f"Found {len(bounding_boxes)} targets")
 
-        # Instantiate packet
-        packet = Packet.instantiate_from_id(PacketIds.TARGET_INFO_REQUEST)
+        # Package the frame relative to the frame held by the NXT
+        replies = self.frame_encoder.encode(packet.acknowledged_frame_id, bounding_boxes, int(frame_width))
+
+        # Send the delta, or every chunk of the keyframe
+        for reply in replies:
+            self.connection.send_packet(reply)
+
+    # When a TARGET_SELECTION_REQUEST packet is received, run the
+    # requested policy on a new frame and reply with only the selected
+    # box, the angle to it and its distance.
+    def handle_target_selection(self, packet):
+        reply = Packet.instantiate_from_id(PacketIds.TARGET_SELECTION_REQUEST)
+
+        if not targeting.is_supported(packet.policy_type):
+            print(f"Policy {packet.policy_type} is not supported, NXT will select the target")
+            reply.set_status(reply.UNSUPPORTED)
+            self.connection.send_packet(reply)
+            return
+
+        bounding_boxes, frame_width = self.target_info.get_targets()
+        frame_width = int(frame_width)
+        print(f"Found {len(bounding_boxes)} targets")
+
+        if len(bounding_boxes) == 0:
+            reply.set_status(reply.NO_TARGETS)
+        else:
+            box = targeting.select_target(packet.policy_type, packet.pass_number, bounding_boxes, frame_width)
+            reply.set_selection(box, targeting.calculate_direction(frame_width, box),
+                                targeting.calculate_distance(box))
+
+        self.connection.send_packet(reply)
+
+    # When a SHOT_VERIFICATION packet is received before a shot, capture
+    # the frame the shot is judged against. After the shot, wait for the
+    # ball to come to rest and reply whether it hit, from what changed
+    # around the targeted cup since.
+    def handle_shot_verification(self, packet):
+        reply = Packet.instantiate_from_id(PacketIds.SHOT_VERIFICATION)
+
+        if packet.stage == packet.BEFORE_SHOT:
+            self.shot_frame = self.target_info.get_frame()
+        elif self.shot_frame is None:
+            print("Shot unknown, no frame was captured before it")
+        else:
+            time.sleep(targeting.VERIFY_SETTLE_SECONDS)
+            frame = self.target_info.get_frame()
+
+            # Find the changes before detecting the cups, which draws on the frame when debugging
+            changes = self.target_info.get_changes(self.shot_frame, frame)
+            bounding_boxes, frame_width = self.target_info.get_targets(frame)
+            self.shot_frame = None
 
-        # Insert data into packet
-        packet.set_frame_width(int(frame_width))
-        for box in bounding_boxes:
-            packet.append_box(box.x_min, box.width, box.height)
+            result = targeting.verify_shot(bounding_boxes, changes, int(frame_width), packet.direction, packet.height)
+            print(f"Shot {result.name.lower()}")
+            reply.set_status(result)
 
-        # Send packet
-        self.connection.send_packet(packet)
+        self.connection.send_packet(reply)
 
     # Prints a debug string sent from the NXT
     def handle_debug(self, packet):
@@ -48,7 +104,10 @@ class Host(object):
     # Mapping from Packet IDs to handler-methods
     # Handshake has no handler as it is handled by
     # 'BluetoothConnection.perform_handshake()'.
-    id_handler_map = {PacketIds.TARGET_INFO_REQUEST: handle_target_request, PacketIds.DEBUG: handle_debug}
+    id_handler_map = {PacketIds.TARGET_INFO_REQUEST: handle_target_request,
+                      PacketIds.TARGET_SELECTION_REQUEST: handle_target_selection,
+                      PacketIds.SHOT_VERIFICATION: handle_shot_verification,
+                      PacketIds.DEBUG: handle_debug}
 
     # Query the id_handler_map for the appropriate method to run.
     def handle_packet(self, packet):
@@ -59,6 +118,7 @@ class Host(object):
 
     # Establish a Bluetooth connection
     def connect(self):
+        self.frame_encoder = FrameDeltaEncoder()
         self.connection = BluetoothConnection()
         self.connection.connect(self.host_name)
 
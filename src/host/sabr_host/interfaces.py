@@ -48,6 +48,10 @@ class Connection(metaclass=abc.ABCMeta):
     def send_short(self, value):
         pass
 
+    @abc.abstractmethod
+    def send_ushort(self, value):
+        pass
+
     @abc.abstractmethod
     def send_float(self, value):
         pass
@@ -64,6 +68,10 @@ class Connection(metaclass=abc.ABCMeta):
     def receive_short(self):
         pass
 
+    @abc.abstractmethod
+    def receive_ushort(self):
+        pass
+
     @abc.abstractmethod
     def receive_float(self):
         pass
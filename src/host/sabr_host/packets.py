@@ -1,12 +1,15 @@
 from abc import ABC, abstractmethod
 from enum import IntEnum
 from sabr_host.connection_utilities import *
+from sabr_host import targeting
 
 
 class PacketIds(IntEnum):
     HANDSHAKE = 0x0
     TARGET_INFO_REQUEST = 0x1
     DEBUG = 0x2
+    TARGET_SELECTION_REQUEST = 0x3
+    SHOT_VERIFICATION = 0x4
 
 
 # Packet class - abstract, as only concrete packets can be sent
@@ -28,6 +31,8 @@ class Packet(ABC):
         if packet_id == PacketIds.HANDSHAKE: return HandshakePacket()
         if packet_id == PacketIds.TARGET_INFO_REQUEST: return TargetInfoRequestPacket()
         if packet_id == PacketIds.DEBUG: return DebugPacket()
+        if packet_id == PacketIds.TARGET_SELECTION_REQUEST: return TargetSelectionRequestPacket()
+        if packet_id == PacketIds.SHOT_VERIFICATION: return ShotVerificationPacket()
 
         return None
 
@@ -49,48 +54,205 @@ class HandshakePacket(Packet):
         return PacketIds.HANDSHAKE
 
 
+# A target frame is sent either as a delta relative to the frame the
+# NXT acknowledged, or as a keyframe. Keyframes are split into chunks
+# of at most MAX_CHUNK_COUNT boxes, each sent as a separate packet
+# carrying the total number of boxes and the offset of its first box.
 class TargetInfoRequestPacket(Packet):
+    # Acknowledged by the NXT when it holds no frame
+    NO_FRAME = -1
+
+    KEYFRAME = 0
+    DELTA_FRAME = 1
+
+    # Counts are sent as unsigned shorts, chunk sizes as unsigned bytes
+    MAX_COUNT = 65535
+    MAX_CHUNK_COUNT = 32
+
     def __init__(self):
+        self.acknowledged_frame_id = TargetInfoRequestPacket.NO_FRAME
+        self.frame_id = 0
+        self.frame_type = TargetInfoRequestPacket.KEYFRAME
         self.x_values = []
         self.width_values = []
         self.height_values = []
+        self.confidence_values = []
         self.frame_width = -1
 
+        # Keyframe chunk position
+        self.total_count = 0
+        self.chunk_offset = 0
+
+        # Delta frame contents, relative to the frame with id base_frame_id
+        self.base_frame_id = TargetInfoRequestPacket.NO_FRAME
+        self.removed_indices = []
+        self.moved_boxes = []
+        self.added_boxes = []
+
     def set_frame_width(self, width):
         self.frame_width = width
 
-    def append_box(self, x, width, height):
+    def set_frame_id(self, frame_id):
+        self.frame_id = frame_id
+
+    def set_chunk(self, total_count, chunk_offset):
+        self.total_count = total_count
+        self.chunk_offset = chunk_offset
+
+    # The confidence is quantized to an unsigned byte.
+    def append_box(self, x, width, height, confidence):
         self.x_values.append(x)
         self.width_values.append(width)
         self.height_values.append(height)
+        self.confidence_values.append(confidence)
+
+    # Turn the packet into a delta frame. Removed indices and the
+    # indices of moved boxes refer to the base frame, moved boxes are
+    # (index, (x, width, height, confidence)) and added boxes are
+    # (x, width, height, confidence).
+    def set_delta(self, base_frame_id, removed_indices, moved_boxes, added_boxes):
+        self.frame_type = TargetInfoRequestPacket.DELTA_FRAME
+        self.base_frame_id = base_frame_id
+        self.removed_indices = sorted(removed_indices)
+        self.moved_boxes = moved_boxes
+        self.added_boxes = added_boxes
 
     def send_to_connection(self, connection):
         assert self.frame_width != -1
 
-        # Write frame width first
+        # Write frame header and frame width
+        connection.send_short(self.frame_id)
+        connection.send_byte(self.frame_type)
         connection.send_short(self.frame_width)
 
-        # Write length of box instances
-        # 127 = MAX_BYTE
-        if len(self.x_values) > 127:
+        if self.frame_type == TargetInfoRequestPacket.DELTA_FRAME:
+            self.send_delta(connection)
+            return
+
+        if len(self.x_values) > TargetInfoRequestPacket.MAX_CHUNK_COUNT or \
+                self.total_count > TargetInfoRequestPacket.MAX_COUNT:
             raise IOError("Too many targets")
-               
+
+        # Write the size of the whole frame and the position of this chunk
+        connection.send_ushort(self.total_count)
+        connection.send_ushort(self.chunk_offset)
         connection.send_byte(len(self.x_values))
 
         # Write box instances
         for i in range(len(self.x_values)):
-            connection.send_short(self.x_values[i])
+            self.send_box(connection, (self.x_values[i], self.width_values[i], self.height_values[i],
+                                       self.confidence_values[i]))
+
+    def send_delta(self, connection):
+        if max(len(self.removed_indices), len(self.moved_boxes), len(self.added_boxes)) > TargetInfoRequestPacket.MAX_COUNT:
+            raise IOError("Too many targets")
+
+        connection.send_short(self.base_frame_id)
+
+        connection.send_ushort(len(self.removed_indices))
+        for index in self.removed_indices:
+            connection.send_short(index)
 
-            connection.send_short(self.width_values[i])
-            connection.send_short(self.height_values[i])
+        connection.send_ushort(len(self.moved_boxes))
+        for index, box in self.moved_boxes:
+            connection.send_short(index)
+            self.send_box(connection, box)
+
+        connection.send_ushort(len(self.added_boxes))
+        for box in self.added_boxes:
+            self.send_box(connection, box)
+
+    @staticmethod
+    def send_box(connection, box):
+        x, width, height, confidence = box
+        connection.send_short(x)
+        connection.send_short(width)
+        connection.send_short(height)
+        connection.send_byte(confidence)
 
     def construct_from_connection(self, connection):
-        pass
+        self.acknowledged_frame_id = connection.receive_short()
 
     def get_id(self):
         return PacketIds.TARGET_INFO_REQUEST
 
 
+# Sent by the NXT when it offloads target selection. The request
+# names the policy and the pass, the reply contains the selected box
+# along with the angle to turn and the distance to shoot.
+class TargetSelectionRequestPacket(Packet):
+    SELECTED = 0
+    NO_TARGETS = 1
+    UNSUPPORTED = 2
+
+    def __init__(self):
+        self.policy_type = None
+        self.pass_number = 0
+        self.status = TargetSelectionRequestPacket.UNSUPPORTED
+        self.box = None
+        self.direction = 0.0
+        self.distance = 0.0
+
+    def set_selection(self, box, direction, distance):
+        self.status = TargetSelectionRequestPacket.SELECTED
+        self.box = box
+        self.direction = direction
+        self.distance = distance
+
+    def set_status(self, status):
+        self.status = status
+
+    def send_to_connection(self, connection):
+        connection.send_byte(self.status)
+
+        if self.status != TargetSelectionRequestPacket.SELECTED:
+            return
+
+        connection.send_short(self.box.x_min)
+        connection.send_short(self.box.width)
+        connection.send_short(self.box.height)
+        connection.send_byte(self.box.get_quantized_confidence())
+        connection.send_float(self.direction)
+        connection.send_float(self.distance)
+
+    def construct_from_connection(self, connection):
+        self.policy_type = connection.receive_byte()
+        self.pass_number = connection.receive_byte()
+
+    def get_id(self):
+        return PacketIds.TARGET_SELECTION_REQUEST
+
+
+# Sent by the NXT before a shot, to have the host capture the frame
+# the shot is judged against, and again after it, with the direction
+# it expects the targeted cup at and the height of its box. The reply
+# after the shot tells whether it hit, which the NXT learns its
+# shooter's drift from.
+class ShotVerificationPacket(Packet):
+    BEFORE_SHOT = 0
+    AFTER_SHOT = 1
+
+    def __init__(self):
+        self.stage = ShotVerificationPacket.BEFORE_SHOT
+        self.direction = 0.0
+        self.height = 0
+        self.status = targeting.ShotResult.UNKNOWN
+
+    def set_status(self, status):
+        self.status = status
+
+    def send_to_connection(self, connection):
+        connection.send_byte(self.status)
+
+    def construct_from_connection(self, connection):
+        self.stage = connection.receive_byte()
+        self.direction = connection.receive_float()
+        self.height = connection.receive_short()
+
+    def get_id(self):
+        return PacketIds.SHOT_VERIFICATION
+
+
 class DebugPacket(Packet):
     def __init__(self):
         self.message = None
@@ -8,17 +8,26 @@ from sabr_host.interfaces import ITargetInfo
 
 # Class used for storing bounding box information.
 # A bounding box defines the bounds of an identified
-# target.
+# target, along with the detection score between 0 and 1.
 class BoundingBox:
+    # Confidences are sent to the NXT quantized to a byte.
+    MAX_CONFIDENCE = 255
+
     # Receive values describing the coordinates for each
     # corner of the bounding box.
-    def __init__(self, x_min, x_max, y_min, y_max, width, height):
+    def __init__(self, x_min, x_max, y_min, y_max, width, height, confidence=1.0):
         self.x_min = x_min
         self.y_min = y_min
         self.x_max = x_max
         self.y_max = y_max
         self.width = width
         self.height = height
+        self.confidence = confidence
+
+    # Get the confidence as sent to the NXT.
+    def get_quantized_confidence(self):
+        confidence = min(max(self.confidence, 0.0), 1.0)
+        return int(round(confidence * BoundingBox.MAX_CONFIDENCE))
 
     # Crop an image to the pixels contained by the bounding box.
     def crop(self, from_image):
@@ -30,8 +39,8 @@ class BoundingBox:
 
     # Pretty print
     def __str__(self):
-        return "x: {}-{}, y: {}-{}, width: {}, height: {}".format(self.x_min, self.y_min, self.y_min, self.y_max,
-                                                                  self.width, self.height)
+        return "x: {}-{}, y: {}-{}, width: {}, height: {}, confidence: {:.2f}".format(
+            self.x_min, self.y_min, self.y_min, self.y_max, self.width, self.height, self.confidence)
 
     # Visualizes the bounding box. Used for live testing
     # debugging.
@@ -41,18 +50,18 @@ class BoundingBox:
     # TensorFlow describes bounding boxes with values between 0 and 1.
     # Construct and return a bounding box with these values scaled
     # to the dimensions of the image.
-    def from_tensorflow_box(source_width, source_height, box_array):
+    def from_tensorflow_box(source_width, source_height, box_array, score=1.0):
         y_min = floor(box_array[0] * source_height)
         x_min = floor(box_array[1] * source_width)
         y_max = floor(box_array[2] * source_height)
         x_max = floor(box_array[3] * source_width)
 
-        return BoundingBox(x_min, x_max, y_min, y_max, x_max - x_min, y_max - y_min)
+        return BoundingBox(x_min, x_max, y_min, y_max, x_max - x_min, y_max - y_min, score)
 
     # If bounding box data has already been scaled to the image,
     # construct a bounding box and return it.
-    def from_normalized(x_min, y_min, width, height):
-        return BoundingBox(x_min, x_min + width, y_min, y_min + height, width, height)
+    def from_normalized(x_min, y_min, width, height, confidence=1.0):
+        return BoundingBox(x_min, x_min + width, y_min, y_min + height, width, height, confidence)
 
 
 # This class is used for capturing frames of the environment
@@ -62,6 +71,11 @@ class TargetInfo(ITargetInfo):
     # which RGB lower and upper bounds to be used.
     RGB_CONSTANT_DEVIATION = 40
 
+    # Size in pixels of the blur smoothing out noise between frames,
+    # and the least difference in grey level counted as a change.
+    CHANGE_BLUR_SIZE = 21
+    CHANGE_THRESHOLD = 40
+
     # Initialize TargetInfo with default capture device set to 1.
     def __init__(self, capture_device=1, debug=True, passthrough_client=None):
         self.capture_device = capture_device
@@ -179,11 +193,12 @@ class TargetInfo(ITargetInfo):
         scores = np.squeeze(scores)
         boxes = np.squeeze(boxes)
 
-        # Iterate detections and filter based on score
+        # Iterate detections and filter based on score. The score is kept,
+        # so the NXT can be more careful with marginal detections.
         filtered_boxes = []
         for index, score in enumerate(scores):
             if score >= 0.5:
-                filtered_boxes.append(boxes[index])
+                filtered_boxes.append((boxes[index], score))
 
         # If no boxes were found, return empty list
         if len(filtered_boxes) == 0:
@@ -191,7 +206,7 @@ class TargetInfo(ITargetInfo):
 
         # Normalize box sizes by converting them to BoundingBox classes
         height, width, _, = np.shape(frame)
-        filtered_boxes = [BoundingBox.from_tensorflow_box(width, height, box) for box in filtered_boxes]
+        filtered_boxes = [BoundingBox.from_tensorflow_box(width, height, box, score) for box, score in filtered_boxes]
 
         # Crop all cups out of the image
         for index, box in enumerate(filtered_boxes):
@@ -225,7 +240,7 @@ class TargetInfo(ITargetInfo):
 
             # Define a narrow bounding box and add it to the list of all boxes
             narrow_box = BoundingBox.from_normalized(box.x_min + area[0], box.y_min + area[1], area[2],
-                                                     area[3])
+                                                     area[3], box.confidence)
             bounding_boxes.append(narrow_box)
 
         # Draw all rectangles for bounding boxes produced by NN
@@ -250,6 +265,21 @@ class TargetInfo(ITargetInfo):
         # Return the coordinate sets
         return bounding_boxes
 
+    # Find the regions that changed between two frames of the same view,
+    # such as where a ball came to rest. Returns a list of bounding boxes.
+    def get_changes(self, before, after):
+        blur = (TargetInfo.CHANGE_BLUR_SIZE, TargetInfo.CHANGE_BLUR_SIZE)
+        before_grey = cv2.GaussianBlur(cv2.cvtColor(before, cv2.COLOR_BGR2GRAY), blur, 0)
+        after_grey = cv2.GaussianBlur(cv2.cvtColor(after, cv2.COLOR_BGR2GRAY), blur, 0)
+
+        # Threshold the difference, and join the parts of a changed object
+        difference = cv2.absdiff(before_grey, after_grey)
+        _, mask = cv2.threshold(difference, TargetInfo.CHANGE_THRESHOLD, 255, cv2.THRESH_BINARY)
+        mask = cv2.dilate(mask, None, iterations=2)
+
+        _, contours, _ = cv2.findContours(mask, cv2.RETR_EXTERNAL, cv2.CHAIN_APPROX_SIMPLE)
+        return [BoundingBox.from_normalized(*cv2.boundingRect(contour)) for contour in contours]
+
     # Use the capture device to capture a frame/image.
     def get_frame(self):
 
@@ -0,0 +1,214 @@
+import math
+import random
+from enum import IntEnum
+
+
+# Ports of the NXT targeting policies and calculators, used when the
+# NXT offloads target selection to the host. The constants must match
+# those of CameraModel on the NXT.
+
+# Angle from the centre of the camera to the edge of its field of view.
+MAX_ANGLE = 33.0
+
+# Calibration points of the distance, as pixel heights of a target and
+# their distances in centimetres, ordered by increasing height.
+CALIBRATION_HEIGHTS = [133.0]
+CALIBRATION_DISTANCES = [120.0]
+
+# Number of clusters used by the biggest cluster policy.
+CLUSTER_COUNT = 2
+
+# How far in degrees, and by what share of its height, a box after a
+# shot may differ from the targeted cup and still be taken to be it.
+VERIFY_DIRECTION_GATE = 2.0
+VERIFY_HEIGHT_RATIO = 0.1
+
+# Smallest and largest size of a ball relative to the height of the
+# targeted cup's box, as balls landing short look bigger, and how many
+# cup widths to the side of the cup a ball may land and still be the
+# one shot at it.
+VERIFY_BALL_MIN_RATIO = 0.15
+VERIFY_BALL_MAX_RATIO = 0.8
+VERIFY_LANE_WIDTHS = 1.5
+
+# Share of the cup's height around its top within which a change is
+# at its rim, and how many times the size of the cup it may be at most,
+# as larger changes are of the light or the view rather than the cup.
+VERIFY_RIM_RATIO = 0.25
+VERIFY_RIM_MAX_SIZE = 1.5
+
+# Seconds to wait after a shot for the ball to come to rest.
+VERIFY_SETTLE_SECONDS = 1.5
+
+
+class ShotResult(IntEnum):
+    HIT = 0
+    MISSED = 1
+    UNKNOWN = 2
+
+
+# Must match the order of PolicyFactory.TargetingPolicyType on the NXT.
+# Policies not listed here, such as Scoring and Adaptive, are run on the NXT.
+class TargetingPolicyType(IntEnum):
+    RANDOM = 0
+    LEFT_FIRST = 1
+    RIGHT_FIRST = 2
+    BIGGEST_CLUSTER = 3
+    NEAREST = 4
+
+
+def middle_x(box):
+    return box.x_min + box.width // 2
+
+
+# Number of degrees to turn to face the target. Negative values
+# turn the other way. The target is projected through a pinhole camera
+# whose frame edges are at MAX_ANGLE.
+def calculate_direction(frame_width, box):
+    frame_middle = frame_width // 2
+    focal_length = frame_middle / math.tan(math.radians(MAX_ANGLE))
+
+    return math.degrees(math.atan((frame_middle - middle_x(box)) / focal_length))
+
+
+# Distance to the target in centimetres, interpolated in 1 / height
+# between the calibration points.
+def calculate_distance(box):
+    height = box.height
+    if len(CALIBRATION_HEIGHTS) == 1 or height <= CALIBRATION_HEIGHTS[0]:
+        return CALIBRATION_DISTANCES[0] * CALIBRATION_HEIGHTS[0] / height
+
+    segment = 0
+    while segment < len(CALIBRATION_HEIGHTS) - 2 and height > CALIBRATION_HEIGHTS[segment + 1]:
+        segment += 1
+
+    inverse_from = 1 / CALIBRATION_HEIGHTS[segment]
+    inverse_to = 1 / CALIBRATION_HEIGHTS[segment + 1]
+    fraction = (1 / height - inverse_from) / (inverse_to - inverse_from)
+
+    return CALIBRATION_DISTANCES[segment] + \
+        fraction * (CALIBRATION_DISTANCES[segment + 1] - CALIBRATION_DISTANCES[segment])
+
+
+def select_least_rotation(boxes, frame_width):
+    frame_middle = frame_width // 2
+    return min(boxes, key=lambda box: abs(middle_x(box) - frame_middle))
+
+
+def select_biggest_cluster(boxes, frame_width):
+    # Clustering makes no sense for two or fewer targets
+    if len(boxes) <= 2:
+        return select_least_rotation(boxes, frame_width)
+
+    # Clusters are ranges of the boxes sorted by x-position. Find the
+    # partition with the least sum of squared distances to the means.
+    ordered = sorted(boxes, key=lambda box: box.x_min)
+    xs = [box.x_min for box in ordered]
+    count = len(xs)
+
+    def cost(start, end):
+        values = xs[start:end]
+        mean = sum(values) / len(values)
+        return sum((x - mean) ** 2 for x in values)
+
+    # costs[i] is the cost of the best partition of the first i boxes,
+    # starts[k][i] the start of the last of its k + 1 clusters
+    clusters = min(CLUSTER_COUNT, count)
+    costs = [0.0] + [cost(0, i) for i in range(1, count + 1)]
+    starts = [[0] * (count + 1) for _ in range(clusters)]
+    for k in range(1, clusters):
+        previous = costs
+        costs = previous[:]
+        for i in range(k + 1, count + 1):
+            split = min(range(k, i), key=lambda s: previous[s] + cost(s, i))
+            costs[i] = previous[split] + cost(split, i)
+            starts[k][i] = split
+
+    bounds = [count]
+    for k in range(clusters - 1, 0, -1):
+        bounds.insert(0, starts[k][bounds[0]])
+    bounds.insert(0, 0)
+
+    # Ties go to the rightmost cluster, as on the NXT
+    biggest = max(reversed(range(clusters)), key=lambda k: bounds[k + 1] - bounds[k])
+    return random.choice(ordered[bounds[biggest]:bounds[biggest + 1]])
+
+
+# Select a target the same way the NXT policy of the given type would.
+# The pass is the number of passes already made towards the current
+# target; policies wrapped in a DoublePolicy on the NXT select the
+# least rotation target after the first pass. Returns None if the
+# policy is not supported.
+def select_target(policy_type, pass_number, boxes, frame_width):
+    if policy_type == TargetingPolicyType.LEFT_FIRST:
+        return min(boxes, key=middle_x)
+    if policy_type == TargetingPolicyType.RIGHT_FIRST:
+        return max(boxes, key=middle_x)
+    if policy_type == TargetingPolicyType.NEAREST:
+        return select_least_rotation(boxes, frame_width)
+
+    if policy_type == TargetingPolicyType.RANDOM or policy_type == TargetingPolicyType.BIGGEST_CLUSTER:
+        if pass_number > 0 or len(boxes) == 1:
+            return select_least_rotation(boxes, frame_width)
+        if policy_type == TargetingPolicyType.RANDOM:
+            return random.choice(boxes)
+        return select_biggest_cluster(boxes, frame_width)
+
+    return None
+
+
+def is_supported(policy_type):
+    return policy_type in [policy.value for policy in TargetingPolicyType]
+
+
+# Judge a shot from the cups in a frame captured after it and the
+# regions that changed since a frame captured just before it. The
+# targeted cup is expected at the given direction and with the given
+# box height, as it was seen before the shot. A ball on the table in
+# line with the cup is a miss. A change at the rim of the cup, where
+# the ball shows or the cup shook, is a hit, as is the cup being gone.
+# Otherwise the ball may have left the view or fallen into the cup
+# unseen, so the shot is not judged.
+def verify_shot(boxes, changes, frame_width, direction, height):
+    target = None
+    for box in boxes:
+        if abs(calculate_direction(frame_width, box) - direction) > VERIFY_DIRECTION_GATE:
+            continue
+
+        if abs(box.height - height) <= VERIFY_HEIGHT_RATIO * height:
+            target = box
+        elif box.height > height:
+            # A nearer cup hides whether the target is gone
+            return ShotResult.UNKNOWN
+
+    if target is None:
+        return ShotResult.HIT
+
+    if any(is_ball(change, target) and not overlaps(change, target) for change in changes):
+        return ShotResult.MISSED
+
+    if any(is_at_rim(change, target) for change in changes):
+        return ShotResult.HIT
+
+    return ShotResult.UNKNOWN
+
+
+# Whether a changed region is the size of a ball and in line with the
+# targeted cup, along which the ball lands.
+def is_ball(change, target):
+    size = max(change.width, change.height)
+    return VERIFY_BALL_MIN_RATIO * target.height <= size <= VERIFY_BALL_MAX_RATIO * target.height \
+        and abs(middle_x(change) - middle_x(target)) <= VERIFY_LANE_WIDTHS * target.width
+
+
+def is_at_rim(change, target):
+    rim = VERIFY_RIM_RATIO * target.height
+    return change.width <= VERIFY_RIM_MAX_SIZE * target.width \
+        and change.height <= VERIFY_RIM_MAX_SIZE * target.height \
+        and change.x_max >= target.x_min and change.x_min <= target.x_max \
+        and change.y_max >= target.y_min - rim and change.y_min <= target.y_min + rim
+
+
+def overlaps(change, target):
+    return change.x_max >= target.x_min and change.x_min <= target.x_max \
+        and change.y_max >= target.y_min and change.y_min <= target.y_max
@@ -40,7 +40,8 @@ class Client:
             y_min = receive_short(self.client_socket)
             width = receive_short(self.client_socket)
             height = receive_short(self.client_socket)
+            confidence = receive_byte(self.client_socket) / BoundingBox.MAX_CONFIDENCE
 
-            targets.append(BoundingBox.from_normalized(x_min, y_min, width, height))
+            targets.append(BoundingBox.from_normalized(x_min, y_min, width, height, confidence))
 
         return targets, frame_width
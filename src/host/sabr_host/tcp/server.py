@@ -37,6 +37,7 @@ def client_handler(client_socket):
             send_short(client_socket, target.y_min)
             send_short(client_socket, target.width)
             send_short(client_socket, target.height)
+            send_byte(client_socket, target.get_quantized_confidence())
 
 
 class Server:
@@ -11,6 +11,14 @@ def bytes_to_short(content):
     return unpack(BYTE_ORDER + 'h', content)[0]
 
 
+def ushort_to_bytes(content):
+    return pack(BYTE_ORDER + 'H', content)
+
+
+def bytes_to_ushort(content):
+    return unpack(BYTE_ORDER + 'H', content)[0]
+
+
 def float_to_bytes(content):
     return pack(BYTE_ORDER + 'f', content)
 